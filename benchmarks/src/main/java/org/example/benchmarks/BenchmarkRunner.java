@@ -0,0 +1,33 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class runs the benchmarks whose names match the arguments (all of them if there are none)
+ * with the gc profiler, which reports the bytes allocated per operation next to the time per operation.
+ *
+ * Example usage:
+ * ```
+ * java -cp benchmarks/target/benchmarks.jar org.example.benchmarks.BenchmarkRunner GroupBenchmark.sortTeams
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*");
+        }
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        Options builtOptions = options.addProfiler(GCProfiler.class).build();
+        new Runner(builtOptions).run();
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The ExecutionPolicyBenchmark class measures where running the groups of a tournament in parallel
+ * starts to pay off, for each execution policy.
+ *
+ * Attributes:
+ * policy: the execution policy running one task per group.
+ * numberOfGroups: the number of groups, such as 12 for a 48-team FIFA World Cup.
+ * rankingsPerGroup: the number of times each task ranks its group, which sets the amount of work per task.
+ * groups: FIFA World Cup groups whose matches all ended 1-1, so that every tie-breaker is reached.
+ * pool: the pool of the POOL policy, with one thread per core.
+ *
+ * Usage:
+ * The SEQUENTIAL results are the baseline. For a given amount of work per task, the crossover is the smallest
+ * number of groups for which POOL or VIRTUAL_THREADS is faster than SEQUENTIAL: below it, handing the tasks
+ * over to other threads costs more than the ranking itself, which is why teams and groups do not
+ * parallelize their own work.
+ *
+ * @author Daniel Luo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutionPolicyBenchmark {
+
+    /**
+     * The execution policies benchmarked.
+     */
+    public enum Policy {
+        SEQUENTIAL,
+        POOL,
+        VIRTUAL_THREADS
+    }
+
+    @Param
+    private Policy policy;
+
+    @Param({"1", "4", "12", "48"})
+    private int numberOfGroups;
+
+    @Param({"1", "10", "100"})
+    private int rankingsPerGroup;
+
+    private List<Object> groups;
+    private ForkJoinPool pool;
+    private Object executionPolicy;
+    private Function<Object, Object> rankGroup;
+
+    @Setup
+    public void setUp() {
+        groups = new ArrayList<>();
+        for (int i = 0; i < numberOfGroups; i++) {
+            groups.add(GroupBenchmark.completeGroup(Library.Competition.FIFA_WORLD_CUP, 4,
+                    GroupBenchmark.Results.TIE_HEAVY));
+        }
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        executionPolicy = switch (policy) {
+            case SEQUENTIAL -> Library.sequentialPolicy();
+            case POOL -> Library.poolPolicy(pool);
+            case VIRTUAL_THREADS -> Library.virtualThreadPolicy();
+        };
+        int rankings = rankingsPerGroup;
+        rankGroup = group -> {
+            Object sortedTeams = null;
+            for (int i = 0; i < rankings; i++) {
+                Library.rankingChanged(group);
+                sortedTeams = Library.sortedTeams(group);
+            }
+            return sortedTeams;
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Ranks every group from scratch, one task per group.
+     */
+    @Benchmark
+    public Object rankGroups() {
+        return Library.map(executionPolicy, groups, rankGroup);
+    }
+}
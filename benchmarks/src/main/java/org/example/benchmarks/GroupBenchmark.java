@@ -0,0 +1,154 @@
+package org.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The GroupBenchmark class measures the recording of results and the ranking of a complete group.
+ *
+ * Attributes:
+ * shape: the competition and the number of teams of the group.
+ * results: how the matches of the group ended.
+ * group: the group, with all of its matches played.
+ *
+ * Usage:
+ * With TIE_FREE results, the team of lower index wins every match, so no two teams are level on points.
+ * With TIE_HEAVY results, every match ends 1-1, so every tie-breaker is reached down to the drawing of lots,
+ * which is the worst case of the head-to-head comparisons.
+ *
+ * sortTeams ranks the group again without changing its results, while rankAfterChange also drops
+ * the ranking and the lots first, as a new result does.
+ * compareTeams compares the first two teams, reading their head-to-head records from the results of the group.
+ *
+ * @author Daniel Luo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GroupBenchmark {
+
+    /**
+     * The groups benchmarked, a competition with a number of teams.
+     */
+    public enum Shape {
+
+        PREMIER_LEAGUE_4(Library.Competition.PREMIER_LEAGUE, 4),
+        PREMIER_LEAGUE_20(Library.Competition.PREMIER_LEAGUE, 20),
+        FIFA_WORLD_CUP(Library.Competition.FIFA_WORLD_CUP, 4),
+        UEFA_EURO(Library.Competition.UEFA_EURO, 4);
+
+        private final Library.Competition competition;
+        private final int numberOfTeams;
+
+        Shape(Library.Competition competition, int numberOfTeams) {
+            this.competition = competition;
+            this.numberOfTeams = numberOfTeams;
+        }
+    }
+
+    /**
+     * How the matches of a benchmarked group end.
+     */
+    public enum Results {
+        TIE_FREE,
+        TIE_HEAVY
+    }
+
+    @Param
+    private Shape shape;
+
+    @Param
+    private Results results;
+
+    private Object group;
+    private String team1Name;
+    private String team2Name;
+    private String score;
+
+    @Setup
+    public void setUp() {
+        group = completeGroup(shape.competition, shape.numberOfTeams, results);
+        team1Name = Library.teamName(0);
+        team2Name = Library.teamName(1);
+        score = scoreOf(results);
+    }
+
+    /**
+     * Creates a group in which every match has been played.
+     *
+     * @param competition The competition of the group.
+     * @param numberOfTeams The number of teams in the group.
+     * @param results How the matches end.
+     * @return The group.
+     */
+    static Object completeGroup(Library.Competition competition, int numberOfTeams, Results results) {
+        Object group = Library.newGroup(competition, numberOfTeams);
+        String score = scoreOf(results);
+        String reversedScore = results == Results.TIE_FREE ? "0-1" : score;
+        for (int i = 0; i < numberOfTeams; i++) {
+            for (int j = i + 1; j < numberOfTeams; j++) {
+                Library.addMatch(group, Library.teamName(i), Library.teamName(j), score);
+                if (competition.isDoubleLegged()) {
+                    Library.addMatch(group, Library.teamName(j), Library.teamName(i), reversedScore);
+                }
+            }
+        }
+        Library.sortedTeams(group);
+        return group;
+    }
+
+    private static String scoreOf(Results results) {
+        return results == Results.TIE_FREE ? "1-0" : "1-1";
+    }
+
+    /**
+     * Removes a result and records it again, without ranking the group.
+     */
+    @Benchmark
+    public Object replaceMatch() {
+        Library.removeMatch(group, team1Name, team2Name);
+        Library.addMatch(group, team1Name, team2Name, score);
+        return group;
+    }
+
+    /**
+     * Removes a result, records it again and ranks the group, as a live table does on every result.
+     */
+    @Benchmark
+    public Object replaceMatchAndRank() {
+        Library.removeMatch(group, team1Name, team2Name);
+        Library.addMatch(group, team1Name, team2Name, score);
+        return Library.sortedTeams(group);
+    }
+
+    @Benchmark
+    public Object sortTeams() {
+        Library.sortTeams(group);
+        return group;
+    }
+
+    @Benchmark
+    public Object rankAfterChange() {
+        Library.rankingChanged(group);
+        return Library.sortedTeams(group);
+    }
+
+    @Benchmark
+    public int compareTeams() {
+        return Library.compareTeams(group, team1Name, team2Name);
+    }
+}
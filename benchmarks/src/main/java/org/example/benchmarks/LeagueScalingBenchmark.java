@@ -0,0 +1,105 @@
+package org.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The LeagueScalingBenchmark class measures how recording results and ranking a RoundRobinLeague
+ * scale with the number of teams.
+ *
+ * Attributes:
+ * numberOfTeams: the number of teams in the double-legged league.
+ * league: the league, with NUMBER_OF_MATCHDAYS matchdays of a circle schedule played.
+ * matchday: the fixtures and scores of the last matchday played, replayed by the benchmarks.
+ *
+ * Usage:
+ * A matchday has numberOfTeams / 2 matches, so replaceMatchday should grow linearly with the number of teams,
+ * and replaceResultAndRank, which re-ranks the whole league after a single result, as n log n.
+ * Low scores are drawn so that many teams are level on points and the head-to-head tie-breakers are reached.
+ *
+ * @author Daniel Luo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LeagueScalingBenchmark {
+
+    private static final int NUMBER_OF_MATCHDAYS = 10;
+
+    @Param({"100", "1000", "10000"})
+    private int numberOfTeams;
+
+    private Object league;
+    private String[][] matchday; // {home team, away team, score} for every match of the matchday
+
+    @Setup
+    public void setUp() {
+        List<String> teamNames = new ArrayList<>();
+        for (int i = 0; i < numberOfTeams; i++) {
+            teamNames.add(Library.teamName(i));
+        }
+        league = Library.newRoundRobinLeague(teamNames, 2);
+        SplittableRandom random = new SplittableRandom(numberOfTeams);
+        for (int round = 0; round < NUMBER_OF_MATCHDAYS; round++) {
+            matchday = new String[numberOfTeams / 2][];
+            for (int i = 0; i < numberOfTeams / 2; i++) {
+                // circle method: the last team stays in place while the others rotate
+                int home = (round + i) % (numberOfTeams - 1);
+                int away = (i == 0) ? numberOfTeams - 1 : (round + numberOfTeams - 1 - i) % (numberOfTeams - 1);
+                matchday[i] = new String[]{teamNames.get(home), teamNames.get(away),
+                        random.nextInt(3) + "-" + random.nextInt(3)};
+                Library.addLeagueMatch(league, matchday[i][0], matchday[i][1], matchday[i][2]);
+            }
+        }
+        Library.sortedTeamNames(league);
+    }
+
+    /**
+     * Records the results of a matchday again, without ranking the league.
+     */
+    @Benchmark
+    public Object replaceMatchday() {
+        for (String[] match : matchday) {
+            Library.addLeagueMatch(league, match[0], match[1], match[2]);
+        }
+        return league;
+    }
+
+    /**
+     * Records the results of a matchday again and ranks the league.
+     */
+    @Benchmark
+    public Object replaceMatchdayAndRank() {
+        for (String[] match : matchday) {
+            Library.addLeagueMatch(league, match[0], match[1], match[2]);
+        }
+        return Library.sortedTeamNames(league);
+    }
+
+    /**
+     * Records a single result again and ranks the league, as a live table does on every result.
+     */
+    @Benchmark
+    public Object replaceResultAndRank() {
+        String[] match = matchday[0];
+        Library.addLeagueMatch(league, match[0], match[1], match[2]);
+        return Library.sortedTeamNames(league);
+    }
+}
@@ -0,0 +1,393 @@
+package org.example.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * The Library class gives the benchmarks access to the classes of round-robin-ranker.
+ *
+ * Usage:
+ * The library lives in the default package, which can not be imported, while JMH requires benchmarks
+ * to be in a named package. Every operation is therefore reached through a static final MethodHandle,
+ * which the JIT compiler treats as a constant and inlines, so calling it costs the same as a direct call.
+ * The library's objects are handled as Object.
+ *
+ * @author Daniel Luo
+ */
+final class Library {
+
+    private static final Class<?> TEAM = load("Team");
+    private static final Class<?> MATCH = load("Team$Match");
+    private static final Class<?> GROUP = load("Group");
+
+    private static final MethodHandle NEW_TEAM_FACTORY = constructor(load("TeamFactory"));
+    private static final MethodHandle CREATE_TEAM = virtual(load("TeamFactory"), "createTeam", TEAM, String.class);
+    private static final MethodHandle NEW_MATCH = constructor(MATCH, String.class, String.class);
+    private static final MethodHandle PARSE_SCORE = staticMethod(MATCH, "parseScore", long.class, String.class);
+
+    private static final MethodHandle GET_POINTS = virtual(TEAM, "getPoints", int.class);
+    private static final MethodHandle GET_GOAL_DIFFERENCE = virtual(TEAM, "getGoalDifference", int.class);
+    private static final MethodHandle GET_GOALS_FOR = virtual(TEAM, "getGoalsFor", int.class);
+    private static final MethodHandle GET_NUMBER_OF_MATCHES_PLAYED = virtual(TEAM, "getNumberOfMatchesPlayed", int.class);
+    private static final MethodHandle GET_FAIR_PLAY_POINTS = virtual(TEAM, "getFairPlayPoints", int.class);
+
+    private static final MethodHandle NEW_PREMIER_LEAGUE = groupConstructor("PremierLeague");
+    private static final MethodHandle NEW_FIFA_WORLD_CUP_GROUP = groupConstructor("FIFAWorldCupGroup");
+    private static final MethodHandle NEW_UEFA_EURO_GROUP = groupConstructor("UEFAEuroGroup");
+    private static final MethodHandle ADD_MATCH = virtual(GROUP, "addMatch", void.class,
+            String.class, String.class, String.class);
+    private static final MethodHandle REMOVE_MATCH = virtual(GROUP, "removeMatch", void.class,
+            String.class, String.class);
+    private static final MethodHandle SORTED_TEAMS = virtual(GROUP, "sortedTeams", TEAM.arrayType());
+    private static final MethodHandle SORT_TEAMS = virtual(GROUP, "sortTeams", void.class);
+    private static final MethodHandle RANKING_CHANGED = virtual(GROUP, "rankingChanged", void.class);
+    private static final MethodHandle COMPARE_TEAMS = virtual(GROUP, "compareTeams", int.class,
+            String.class, String.class);
+    private static final MethodHandle TEAM_BY_NAME = virtual(GROUP, "teamByName", TEAM, String.class);
+
+    private static final Class<?> ROUND_ROBIN_LEAGUE = load("RoundRobinLeague");
+    private static final MethodHandle NEW_ROUND_ROBIN_LEAGUE = constructor(ROUND_ROBIN_LEAGUE, List.class, int.class);
+    private static final MethodHandle ADD_LEAGUE_MATCH = virtual(ROUND_ROBIN_LEAGUE, "addMatch", void.class,
+            String.class, String.class, String.class);
+    private static final MethodHandle SORTED_TEAM_NAMES = virtual(ROUND_ROBIN_LEAGUE, "sortedTeamNames",
+            String[].class);
+
+    private static final Class<?> EXECUTION_POLICY = load("ExecutionPolicy");
+    private static final MethodHandle SEQUENTIAL = policyFactory("sequential");
+    private static final MethodHandle VIRTUAL_THREADS = policyFactory("virtualThreads");
+    private static final MethodHandle POOL = policyFactory("pool", ForkJoinPool.class);
+    private static final MethodHandle MAP = virtual(EXECUTION_POLICY, "map", List.class, List.class, Function.class);
+
+    private Library() {}
+
+    /**
+     * The competitions whose groups are benchmarked.
+     */
+    enum Competition {
+
+        PREMIER_LEAGUE(20),
+        FIFA_WORLD_CUP(4),
+        UEFA_EURO(4);
+
+        private final int maximumNumberOfTeams;
+
+        Competition(int maximumNumberOfTeams) {
+            this.maximumNumberOfTeams = maximumNumberOfTeams;
+        }
+
+        int getMaximumNumberOfTeams() {
+            return maximumNumberOfTeams;
+        }
+
+        boolean isDoubleLegged() {
+            return this == PREMIER_LEAGUE;
+        }
+    }
+
+    static Object newTeamFactory() {
+        try {
+            return (Object) NEW_TEAM_FACTORY.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object createTeam(Object factory, String name) {
+        try {
+            return (Object) CREATE_TEAM.invokeExact(factory, name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newMatch(String opponentName, String score) {
+        try {
+            return (Object) NEW_MATCH.invokeExact(opponentName, score);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static long parseScore(String score) {
+        try {
+            return (long) PARSE_SCORE.invokeExact(score);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getPoints(Object team) {
+        try {
+            return (int) GET_POINTS.invokeExact(team);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getGoalDifference(Object team) {
+        try {
+            return (int) GET_GOAL_DIFFERENCE.invokeExact(team);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getGoalsFor(Object team) {
+        try {
+            return (int) GET_GOALS_FOR.invokeExact(team);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getNumberOfMatchesPlayed(Object team) {
+        try {
+            return (int) GET_NUMBER_OF_MATCHES_PLAYED.invokeExact(team);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getFairPlayPoints(Object team) {
+        try {
+            return (int) GET_FAIR_PLAY_POINTS.invokeExact(team);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Creates a group of a competition whose teams are named "Team 0", "Team 1", ...
+     *
+     * @param competition The competition of the group.
+     * @param numberOfTeams The number of teams in the group.
+     * @return The group.
+     */
+    static Object newGroup(Competition competition, int numberOfTeams) {
+        Object factory = newTeamFactory();
+        Object teams = Array.newInstance(TEAM, numberOfTeams);
+        for (int i = 0; i < numberOfTeams; i++) {
+            Array.set(teams, i, createTeam(factory, teamName(i)));
+        }
+        MethodHandle constructor = switch (competition) {
+            case PREMIER_LEAGUE -> NEW_PREMIER_LEAGUE;
+            case FIFA_WORLD_CUP -> NEW_FIFA_WORLD_CUP_GROUP;
+            case UEFA_EURO -> NEW_UEFA_EURO_GROUP;
+        };
+        try {
+            return (Object) constructor.invokeExact(teams);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String teamName(int i) {
+        return "Team " + i;
+    }
+
+    static void addMatch(Object group, String team1Name, String team2Name, String score) {
+        try {
+            ADD_MATCH.invokeExact(group, team1Name, team2Name, score);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void removeMatch(Object group, String team1Name, String team2Name) {
+        try {
+            REMOVE_MATCH.invokeExact(group, team1Name, team2Name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object sortedTeams(Object group) {
+        try {
+            return (Object) SORTED_TEAMS.invokeExact(group);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Ranks the group again, as it is after a change of results, without changing them.
+     */
+    static void sortTeams(Object group) {
+        try {
+            SORT_TEAMS.invokeExact(group);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Marks the ranking of the group as outdated, which also drops its drawn lots.
+     */
+    static void rankingChanged(Object group) {
+        try {
+            RANKING_CHANGED.invokeExact(group);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int compareTeams(Object group, String team1Name, String team2Name) {
+        try {
+            return (int) COMPARE_TEAMS.invokeExact(group, team1Name, team2Name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Returns the group's own Team object of the given name, which reflects later changes of results.
+     */
+    static Object teamByName(Object group, String teamName) {
+        try {
+            return (Object) TEAM_BY_NAME.invokeExact(group, teamName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Creates a RoundRobinLeague with the default tie-breakers.
+     */
+    static Object newRoundRobinLeague(List<String> teamNames, int numberOfLegs) {
+        try {
+            return (Object) NEW_ROUND_ROBIN_LEAGUE.invokeExact(teamNames, numberOfLegs);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void addLeagueMatch(Object league, String team1Name, String team2Name, String score) {
+        try {
+            ADD_LEAGUE_MATCH.invokeExact(league, team1Name, team2Name, score);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object sortedTeamNames(Object league) {
+        try {
+            return (Object) SORTED_TEAM_NAMES.invokeExact(league);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object sequentialPolicy() {
+        try {
+            return (Object) SEQUENTIAL.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object poolPolicy(ForkJoinPool pool) {
+        try {
+            return (Object) POOL.invokeExact(pool);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object virtualThreadPolicy() {
+        try {
+            return (Object) VIRTUAL_THREADS.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static List<?> map(Object policy, List<?> inputs, Function<?, ?> task) {
+        try {
+            return (List<?>) (Object) MAP.invokeExact(policy, (Object) inputs, (Object) task);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("round-robin-ranker is not on the class path.", e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookupIn(Class<?> targetClass) throws IllegalAccessException {
+        // the benchmarks and the library are both in the unnamed module, so private members are accessible
+        return MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup());
+    }
+
+    private static MethodHandle constructor(Class<?> targetClass, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = lookupIn(targetClass).findConstructor(targetClass,
+                    MethodType.methodType(void.class, parameterTypes));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle groupConstructor(String className) {
+        MethodHandle handle = constructor(load(className), TEAM.arrayType());
+        return handle.asType(MethodType.methodType(Object.class, Object.class));
+    }
+
+    /**
+     * Replaces the library's classes by Object in a method type, so that the benchmarks can call invokeExact.
+     */
+    private static MethodType eraseLibraryClasses(MethodType type) {
+        MethodType erasedType = type.changeReturnType(eraseLibraryClass(type.returnType()));
+        for (int i = 0; i < type.parameterCount(); i++) {
+            erasedType = erasedType.changeParameterType(i, eraseLibraryClass(type.parameterType(i)));
+        }
+        return erasedType;
+    }
+
+    private static Class<?> eraseLibraryClass(Class<?> type) {
+        return type.isPrimitive() || type == String.class ? type : Object.class;
+    }
+
+    private static MethodHandle virtual(Class<?> targetClass, String name, Class<?> returnType,
+                                        Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = lookupIn(targetClass).findVirtual(targetClass, name,
+                    MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(eraseLibraryClasses(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle staticMethod(Class<?> targetClass, String name, Class<?> returnType,
+                                             Class<?>... parameterTypes) {
+        try {
+            return lookupIn(targetClass).findStatic(targetClass, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle policyFactory(String name, Class<?>... parameterTypes) {
+        MethodHandle handle = staticMethod(EXECUTION_POLICY, name, EXECUTION_POLICY, parameterTypes);
+        return handle.asType(handle.type().changeReturnType(Object.class));
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } if (e instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(e);
+    }
+}
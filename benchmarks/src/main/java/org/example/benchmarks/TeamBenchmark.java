@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The TeamBenchmark class measures the statistics of a team and the parsing of scores.
+ *
+ * Attributes:
+ * numberOfTeams: the size of the group the team plays in, so that the team has played
+ *                numberOfTeams - 1 matches (4 teams) or 2 * (numberOfTeams - 1) matches (20 teams).
+ * team: the first team of a complete group.
+ * score: the score parsed by the score benchmarks.
+ *
+ * @author Daniel Luo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TeamBenchmark {
+
+    @Param({"4", "20"})
+    private int numberOfTeams;
+
+    @Param({"2-1", "10-12"})
+    private String score;
+
+    private Object team;
+
+    @Setup
+    public void setUp() {
+        Library.Competition competition = numberOfTeams > Library.Competition.FIFA_WORLD_CUP.getMaximumNumberOfTeams()
+                ? Library.Competition.PREMIER_LEAGUE : Library.Competition.FIFA_WORLD_CUP;
+        Object group = GroupBenchmark.completeGroup(competition, numberOfTeams, GroupBenchmark.Results.TIE_FREE);
+        team = Library.teamByName(group, Library.teamName(0));
+    }
+
+    @Benchmark
+    public int points() {
+        return Library.getPoints(team);
+    }
+
+    @Benchmark
+    public int goalDifference() {
+        return Library.getGoalDifference(team);
+    }
+
+    @Benchmark
+    public int goalsFor() {
+        return Library.getGoalsFor(team);
+    }
+
+    @Benchmark
+    public int numberOfMatchesPlayed() {
+        return Library.getNumberOfMatchesPlayed(team);
+    }
+
+    @Benchmark
+    public int fairPlayPoints() {
+        return Library.getFairPlayPoints(team);
+    }
+
+    @Benchmark
+    public long parseScore() {
+        return Library.parseScore(score);
+    }
+
+    @Benchmark
+    public Object newMatch() {
+        return Library.newMatch(Library.teamName(1), score);
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The CardTally class packs the penalty cards received by a team during a match into a single int,
+ * which is how matches and match stores keep cards instead of lists.
+ *
+ * Attributes:
+ * cardTypes: the card enums seen so far, such as FIFAWorldCupGroup.Card. The type code of a card enum
+ *            is its index in this list plus one, 0 being reserved for tallies without cards.
+ *
+ * A tally holds the number of cards of each kind, indexed by the ordinal of the card in its enum:
+ * the count of the card of ordinal i is stored in the BITS_PER_CARD bits starting at bit i * BITS_PER_CARD,
+ * and the type code of the enum in the bits starting at TYPE_SHIFT.
+ * For example, two yellow cards and a direct red card of FIFAWorldCupGroup.Card are packed as
+ * (typeCode << 28) | (1 << 14) | 2.
+ *
+ * Usage:
+ * A tally does not keep the order in which the cards were given, so two matches whose teams
+ * received the same cards are equal whatever the order of the cards. Unpacking a tally lists the cards
+ * by ordinal. The fair play penalty of a tally is computed from its counts, without going through a list.
+ *
+ * @author Daniel Luo
+ */
+final class CardTally {
+
+    static final int NO_CARDS = 0;
+    private static final int BITS_PER_CARD = 7;
+    private static final int MAX_COUNT = (1 << BITS_PER_CARD) - 1;
+    private static final int MAX_KINDS_OF_CARDS = 4;
+    private static final int TYPE_SHIFT = BITS_PER_CARD * MAX_KINDS_OF_CARDS;
+    private static final int MAX_CARD_TYPES = (1 << (Integer.SIZE - 1 - TYPE_SHIFT)) - 1;
+
+    private static final List<Class<?>> cardTypes = new CopyOnWriteArrayList<>();
+
+    private CardTally() {
+    }
+
+    /**
+     * Checks whether a list of cards can be packed into a tally.
+     *
+     * @param cards The penalty cards received by a team during a match.
+     * @return The error message describing why the cards can not be packed, or null if they can.
+     */
+    static String validate(List<? extends Group.CardEnum> cards) {
+        if (cards == null) {
+            return "List of cards can not be null.";
+        }
+        Class<?> cardType = null;
+        int[] counts = new int[MAX_KINDS_OF_CARDS];
+        for (Group.CardEnum card : cards) {
+            if (!(card instanceof Enum<?> cardConstant) || cardConstant.ordinal() >= MAX_KINDS_OF_CARDS) {
+                return String.format("Cards must be one of the %d constants of a card enum.", MAX_KINDS_OF_CARDS);
+            } if (cardType != null && cardConstant.getDeclaringClass() != cardType) {
+                return "The cards received by a team during a match must be of the same competition.";
+            } if (++counts[cardConstant.ordinal()] > MAX_COUNT) {
+                return String.format("A team can not receive more than %d cards of a kind during a match.", MAX_COUNT);
+            }
+            cardType = cardConstant.getDeclaringClass();
+        }
+        return null;
+    }
+
+    /**
+     * Packs a list of cards into a tally.
+     *
+     * @param cards The penalty cards received by a team during a match.
+     * @return The tally of the cards.
+     * @throws IllegalArgumentException If the cards can not be packed, as described by validate.
+     */
+    static int of(List<? extends Group.CardEnum> cards) throws IllegalArgumentException {
+        String errorMessage = validate(cards);
+        if (errorMessage != null) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+        if (cards.isEmpty()) {
+            return NO_CARDS;
+        }
+        int tally = typeCodeOf(((Enum<?>) cards.get(0)).getDeclaringClass()) << TYPE_SHIFT;
+        for (Group.CardEnum card : cards) {
+            tally += 1 << (((Enum<?>) card).ordinal() * BITS_PER_CARD);
+        }
+        return tally;
+    }
+
+    /**
+     * Returns the type code of a card enum, registering it if it has not been seen yet.
+     */
+    private static synchronized int typeCodeOf(Class<?> cardType) {
+        int index = cardTypes.indexOf(cardType);
+        if (index < 0) {
+            if (cardTypes.size() == MAX_CARD_TYPES) {
+                throw new IllegalStateException(String.format("At most %d card enums can be used.", MAX_CARD_TYPES));
+            }
+            cardTypes.add(cardType);
+            index = cardTypes.size() - 1;
+        }
+        return index + 1;
+    }
+
+    private static Group.CardEnum[] constantsOf(int tally) {
+        return (Group.CardEnum[]) cardTypes.get((tally >>> TYPE_SHIFT) - 1).getEnumConstants();
+    }
+
+    /**
+     * Returns the number of cards of the kind of ordinal 'ordinal' in a tally.
+     *
+     * @param tally A tally of cards.
+     * @param ordinal The ordinal of a card in its enum.
+     * @return The number of cards of that kind.
+     */
+    static int count(int tally, int ordinal) {
+        return (tally >>> (ordinal * BITS_PER_CARD)) & MAX_COUNT;
+    }
+
+    /**
+     * Returns the total number of cards in a tally.
+     *
+     * @param tally A tally of cards.
+     * @return The number of cards.
+     */
+    static int size(int tally) {
+        int size = 0;
+        for (int ordinal = 0; ordinal < MAX_KINDS_OF_CARDS; ordinal++) {
+            size += count(tally, ordinal);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the fair play penalty of the cards of a tally, the sum of the penalties of its cards.
+     *
+     * @param tally A tally of cards.
+     * @return The fair play penalty.
+     */
+    static int penaltyOf(int tally) {
+        if (tally == NO_CARDS) {
+            return 0;
+        }
+        Group.CardEnum[] constants = constantsOf(tally);
+        int penalty = 0;
+        for (int ordinal = 0; ordinal < constants.length; ordinal++) {
+            penalty += count(tally, ordinal) * constants[ordinal].getPenalty();
+        }
+        return penalty;
+    }
+
+    /**
+     * Appends the cards of a tally to a list, ordered by ordinal.
+     *
+     * @param tally A tally of cards.
+     * @param cards The list to which the cards are added.
+     */
+    static void addTo(int tally, List<Group.CardEnum> cards) {
+        if (tally == NO_CARDS) {
+            return;
+        }
+        Group.CardEnum[] constants = constantsOf(tally);
+        for (int ordinal = 0; ordinal < constants.length; ordinal++) {
+            for (int i = count(tally, ordinal); i > 0; i--) {
+                cards.add(constants[ordinal]);
+            }
+        }
+    }
+
+    /**
+     * Unpacks a tally into a new list of cards, ordered by ordinal.
+     *
+     * @param tally A tally of cards.
+     * @return A new modifiable list of the cards.
+     */
+    static List<Group.CardEnum> toList(int tally) {
+        List<Group.CardEnum> cards = new ArrayList<>(size(tally));
+        addTo(tally, cards);
+        return cards;
+    }
+}
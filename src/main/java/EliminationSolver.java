@@ -0,0 +1,544 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The EliminationSolver class determines the best and worst positions that the teams of a league
+ * can still reach on points, given the points they have and the matches that remain to be played.
+ *
+ * Attributes:
+ * points: the current number of points of each team, indexed by slot.
+ * fixtures: the remaining matches, as pairs of slots.
+ *
+ * Usage:
+ * The positions are decided on points only: since goal difference and goals scored can still change,
+ * a tie on points is counted in favour of the team for its best position, and against it for its worst position.
+ *
+ * The best position of a team is found by letting it win all its remaining matches and looking for the smallest
+ * set of teams that must finish above it. For a candidate set, the other teams must all stay at or below the team,
+ * which is checked with the max-flow formulation of baseball elimination: each remaining match is a node
+ * that hands out points to its two teams, and each team can absorb points up to its margin below the team.
+ * The worst position is found symmetrically: the team loses all its remaining matches, and the largest set
+ * of teams that can all reach its number of points is looked for, each team needing points up to that number.
+ *
+ * Under the 3-1-0 rule, a match hands out 3 points for a win but only 2 for a draw, which max-flow can not express
+ * (deciding elimination exactly under this rule is NP-complete). The flow is therefore a relaxation: a match
+ * hands out at least 2 points in the best-position network and at most 3 in the worst-position network,
+ * split freely between the two teams. An infeasible flow proves that a set of teams does not work. A feasible flow
+ * is turned into actual results (a draw for an even split, a win otherwise), which are then repaired by
+ * a seeded local search if they break a team's bound, and if that fails, by an exhaustive search limited to
+ * MAX_SEARCH_NODES partial results. A set is accepted once actual results are found for it, and rejected
+ * once the relaxation or the exhaustive search proves that there are none. If the exhaustive search gives up,
+ * the set is left undecided.
+ *
+ * The candidate sets of a given size are tried from the most likely to the least likely, up to MAX_SETS_PER_SIZE
+ * of them. A position is only returned once it is proven: its set was accepted, and every candidate set closer
+ * to the result sought was tried and rejected. Otherwise, which only happens with many remaining matches,
+ * no position is returned, and callers must treat the answer as unknown.
+ *
+ * @author Daniel Luo
+ */
+final class EliminationSolver {
+
+    /**
+     * The maximum number of candidate sets of teams tried for each number of teams.
+     */
+    static final int MAX_SETS_PER_SIZE = 2000;
+
+    private static final int WIN = 3;
+    private static final int DRAW = 1;
+    private static final int[] RESULTS = {WIN, DRAW, 0}; // from the point of view of the first team of a match
+    private static final int UNBOUNDED = Integer.MAX_VALUE / 4;
+    // number of changes of results tried per remaining match by the local search
+    private static final int REPAIR_STEPS_PER_MATCH = 50;
+    // number of partial results tried by the exhaustive search before giving up on a set of teams
+    private static final int MAX_SEARCH_NODES = 100_000;
+
+    // whether actual results were found for a set of teams, proven not to exist, or neither
+    private enum Feasibility { FEASIBLE, INFEASIBLE, UNDECIDED }
+
+    private final int numberOfTeams;
+    private final int[] points;
+    private final int[][] fixtures;
+    private final int[] remainingMatches; // number of remaining matches of each team
+    private final int maxSetsPerSize; // MAX_SETS_PER_SIZE unless a test lowers it
+
+    EliminationSolver(int[] points, int[][] fixtures) {
+        this(points, fixtures, MAX_SETS_PER_SIZE);
+    }
+
+    EliminationSolver(int[] points, int[][] fixtures, int maxSetsPerSize) {
+        this.maxSetsPerSize = maxSetsPerSize;
+        this.numberOfTeams = points.length;
+        this.points = points.clone();
+        this.fixtures = fixtures;
+        this.remainingMatches = new int[numberOfTeams];
+        for (int[] fixture : fixtures) {
+            remainingMatches[fixture[0]]++;
+            remainingMatches[fixture[1]]++;
+        }
+    }
+
+    /**
+     * Returns the best position that a team can still reach on points.
+     *
+     * @param slot The slot of the team.
+     * @return The best position, starting at 1, or an empty OptionalInt if it could not be proven.
+     */
+    OptionalInt bestPossiblePosition(int slot) {
+        int maximumPoints = points[slot] + WIN * remainingMatches[slot];
+        // the team wins all its remaining matches, so its opponents get no points from them
+        int[] basePoints = points.clone();
+        List<Integer> forcedAbove = new ArrayList<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int other = 0; other < numberOfTeams; other++) {
+            if (other == slot) {
+                continue;
+            }
+            if (basePoints[other] > maximumPoints) {
+                forcedAbove.add(other);
+            } else {
+                candidates.add(other);
+            }
+        }
+        // the teams with the smallest margin are the most likely to finish above the team
+        candidates.sort(Comparator.comparingInt(other -> maximumPoints - basePoints[other]));
+        int[] lowerBounds = new int[numberOfTeams];
+        int[] upperBounds = new int[numberOfTeams];
+        for (int size = 0; size <= candidates.size(); size++) {
+            CombinationIterator sets = new CombinationIterator(candidates.size(), size);
+            boolean undecided = false; // whether a set of this size may work without being accepted
+            for (int set = 0; set < maxSetsPerSize && sets.hasNext(); set++) {
+                int[] chosen = sets.next();
+                Arrays.fill(upperBounds, 0);
+                for (int other : candidates) {
+                    upperBounds[other] = maximumPoints - basePoints[other];
+                }
+                for (int other : forcedAbove) {
+                    upperBounds[other] = UNBOUNDED;
+                }
+                for (int index : chosen) {
+                    upperBounds[candidates.get(index)] = UNBOUNDED;
+                }
+                upperBounds[slot] = UNBOUNDED; // the team's own points do not matter in its matches, which it wins
+                Feasibility feasibility = isFeasible(slot, true, lowerBounds, upperBounds);
+                if (feasibility == Feasibility.FEASIBLE) {
+                    return OptionalInt.of(1 + forcedAbove.size() + size);
+                }
+                undecided |= feasibility == Feasibility.UNDECIDED;
+            }
+            if (undecided || sets.hasNext()) {
+                return OptionalInt.empty(); // the team may still finish in the position of this size
+            }
+        }
+        return OptionalInt.empty(); // not reached: with every candidate above the team, results always exist
+    }
+
+    /**
+     * Returns the worst position that a team can still fall to on points.
+     *
+     * @param slot The slot of the team.
+     * @return The worst position, starting at 1, or an empty OptionalInt if it could not be proven.
+     */
+    OptionalInt worstPossiblePosition(int slot) {
+        int minimumPoints = points[slot];
+        // the team loses all its remaining matches, so its opponents get 3 points from each of them
+        int[] basePoints = points.clone();
+        for (int[] fixture : fixtures) {
+            if (fixture[0] == slot) {
+                basePoints[fixture[1]] += WIN;
+            } else if (fixture[1] == slot) {
+                basePoints[fixture[0]] += WIN;
+            }
+        }
+        int alreadyAbove = 0;
+        List<Integer> candidates = new ArrayList<>();
+        for (int other = 0; other < numberOfTeams; other++) {
+            if (other == slot) {
+                continue;
+            }
+            int maximumOtherPoints = basePoints[other] + WIN * remainingMatchesWithout(other, slot);
+            if (basePoints[other] >= minimumPoints) {
+                alreadyAbove++;
+            } else if (maximumOtherPoints >= minimumPoints) {
+                candidates.add(other);
+            }
+        }
+        // the teams that need the fewest points are the most likely to reach the team
+        candidates.sort(Comparator.comparingInt(other -> minimumPoints - basePoints[other]));
+        int[] lowerBounds = new int[numberOfTeams];
+        int[] upperBounds = new int[numberOfTeams];
+        Arrays.fill(upperBounds, UNBOUNDED);
+        for (int size = candidates.size(); size > 0; size--) {
+            CombinationIterator sets = new CombinationIterator(candidates.size(), size);
+            boolean undecided = false; // whether a set of this size may work without being accepted
+            for (int set = 0; set < maxSetsPerSize && sets.hasNext(); set++) {
+                int[] chosen = sets.next();
+                Arrays.fill(lowerBounds, 0);
+                for (int index : chosen) {
+                    int other = candidates.get(index);
+                    lowerBounds[other] = minimumPoints - basePoints[other];
+                }
+                Feasibility feasibility = isFeasible(slot, false, lowerBounds, upperBounds);
+                if (feasibility == Feasibility.FEASIBLE) {
+                    return OptionalInt.of(1 + alreadyAbove + size);
+                }
+                undecided |= feasibility == Feasibility.UNDECIDED;
+            }
+            if (undecided || sets.hasNext()) {
+                return OptionalInt.empty(); // the team may still fall to the position of this size
+            }
+        }
+        return OptionalInt.of(1 + alreadyAbove);
+    }
+
+    private int remainingMatchesWithout(int slot, int opponentSlot) {
+        int matches = 0;
+        for (int[] fixture : fixtures) {
+            if ((fixture[0] == slot && fixture[1] != opponentSlot) || (fixture[1] == slot && fixture[0] != opponentSlot)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether the remaining matches not involving the excluded team can end so that each other team
+     * gets a number of points from them between its lower and upper bound.
+     *
+     * @param excludedSlot The team whose matches are already decided.
+     * @param bestCase true for the best-position network (upper bounds), false for the worst-position network
+     *                 (lower bounds).
+     * @return FEASIBLE if actual results were found, INFEASIBLE if there are none,
+     *         UNDECIDED if the search gave up.
+     */
+    private Feasibility isFeasible(int excludedSlot, boolean bestCase, int[] lowerBounds, int[] upperBounds) {
+        int[] matches = IntStream.range(0, fixtures.length)
+                .filter(m -> fixtures[m][0] != excludedSlot && fixtures[m][1] != excludedSlot).toArray();
+        int numberOfMatches = matches.length;
+        // nodes: source, matches, teams, sink
+        int source = 0;
+        int sink = 1 + numberOfMatches + numberOfTeams;
+        MaxFlow network = new MaxFlow(sink + 1);
+        int pointsPerMatch = bestCase ? 2 : WIN;
+        int[] edgeToFirstTeam = new int[numberOfMatches];
+        int required = 0;
+        for (int m = 0; m < numberOfMatches; m++) {
+            int[] fixture = fixtures[matches[m]];
+            network.addEdge(source, 1 + m, pointsPerMatch);
+            edgeToFirstTeam[m] = network.addEdge(1 + m, 1 + numberOfMatches + fixture[0], pointsPerMatch);
+            network.addEdge(1 + m, 1 + numberOfMatches + fixture[1], pointsPerMatch);
+        }
+        for (int team = 0; team < numberOfTeams; team++) {
+            int capacity = bestCase ? upperBounds[team] : lowerBounds[team];
+            network.addEdge(1 + numberOfMatches + team, sink, capacity);
+            required += bestCase ? 0 : lowerBounds[team];
+        }
+        if (bestCase) {
+            required = pointsPerMatch * numberOfMatches;
+        }
+        if (network.maxFlow(source, sink) < required) {
+            return Feasibility.INFEASIBLE; // even the relaxation has no solution
+        }
+        // turn the flow into actual results, from the point of view of the first team of each match
+        int[] results = new int[numberOfMatches];
+        for (int m = 0; m < numberOfMatches; m++) {
+            int firstTeamFlow = network.flow(edgeToFirstTeam[m]);
+            int secondTeamFlow = network.flow(edgeToFirstTeam[m] + 2);
+            if (firstTeamFlow == secondTeamFlow && firstTeamFlow > 0) {
+                results[m] = DRAW;
+            } else {
+                results[m] = (firstTeamFlow >= secondTeamFlow) ? WIN : 0;
+            }
+        }
+        if (repairResults(matches, results, lowerBounds, upperBounds)) {
+            return Feasibility.FEASIBLE;
+        }
+        return searchResults(matches, results, lowerBounds, upperBounds);
+    }
+
+    /**
+     * Changes the results of matches one at a time until no team breaks its bounds, in the manner of WalkSAT:
+     * a match of a team breaking its bounds is changed to the result that reduces the total amount by which
+     * the teams break their bounds the most, or that keeps it the same if no result reduces it,
+     * and to a random result from time to time to get out of local minima.
+     * The random choices are seeded, so the search always gives the same answer.
+     *
+     * @return true if no team breaks its bounds in the end.
+     */
+    private boolean repairResults(int[] matches, int[] results, int[] lowerBounds, int[] upperBounds) {
+        int[] obtainedPoints = new int[numberOfTeams];
+        for (int m = 0; m < matches.length; m++) {
+            int[] fixture = fixtures[matches[m]];
+            obtainedPoints[fixture[0]] += results[m];
+            obtainedPoints[fixture[1]] += pointsOfOpponent(results[m]);
+        }
+        SplittableRandom random = new SplittableRandom(matches.length);
+        int maximumSteps = REPAIR_STEPS_PER_MATCH * (matches.length + 1);
+        for (int step = 0; step < maximumSteps; step++) {
+            // pick a match of a team that breaks its bounds
+            int brokenTeam = -1;
+            int numberOfBrokenTeams = 0;
+            for (int team = 0; team < numberOfTeams; team++) {
+                if (violation(team, obtainedPoints[team], lowerBounds, upperBounds) > 0
+                        && random.nextInt(++numberOfBrokenTeams) == 0) {
+                    brokenTeam = team;
+                }
+            }
+            if (brokenTeam < 0) {
+                return true;
+            }
+            int bestMatch = -1;
+            int bestResult = -1;
+            int bestChange = Integer.MAX_VALUE;
+            int numberOfBestMoves = 0;
+            boolean randomMove = random.nextInt(10) == 0;
+            for (int m = 0; m < matches.length; m++) {
+                int[] fixture = fixtures[matches[m]];
+                if (fixture[0] != brokenTeam && fixture[1] != brokenTeam) {
+                    continue;
+                }
+                int before = violation(fixture[0], obtainedPoints[fixture[0]], lowerBounds, upperBounds)
+                        + violation(fixture[1], obtainedPoints[fixture[1]], lowerBounds, upperBounds);
+                for (int result : RESULTS) {
+                    if (result == results[m]) {
+                        continue;
+                    }
+                    int after = violation(fixture[0], obtainedPoints[fixture[0]] - results[m] + result,
+                            lowerBounds, upperBounds)
+                            + violation(fixture[1], obtainedPoints[fixture[1]] - pointsOfOpponent(results[m])
+                            + pointsOfOpponent(result), lowerBounds, upperBounds);
+                    int change = randomMove ? 0 : after - before;
+                    if (change < bestChange) {
+                        bestChange = change;
+                        numberOfBestMoves = 0;
+                    }
+                    if (change == bestChange && random.nextInt(++numberOfBestMoves) == 0) {
+                        bestMatch = m;
+                        bestResult = result;
+                    }
+                }
+            }
+            if (bestMatch < 0) {
+                return false; // the team has no match left to change
+            }
+            if (bestChange > 0 && random.nextInt(2) == 0) {
+                continue; // every move makes things worse, only take one half of the time
+            }
+            int[] fixture = fixtures[matches[bestMatch]];
+            obtainedPoints[fixture[0]] += bestResult - results[bestMatch];
+            obtainedPoints[fixture[1]] += pointsOfOpponent(bestResult) - pointsOfOpponent(results[bestMatch]);
+            results[bestMatch] = bestResult;
+        }
+        for (int team = 0; team < numberOfTeams; team++) {
+            if (violation(team, obtainedPoints[team], lowerBounds, upperBounds) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks for results of the matches that keep every team within its bounds by trying every result
+     * of every match in turn, giving up after MAX_SEARCH_NODES partial results. A partial result is abandoned
+     * as soon as a team is above its upper bound, or can no longer reach its lower bound with its matches left.
+     * The results given as input are tried first.
+     *
+     * @return FEASIBLE if results were found, in which case they are stored in 'results',
+     *         INFEASIBLE if every result was tried, UNDECIDED if the search gave up.
+     */
+    private Feasibility searchResults(int[] matches, int[] results, int[] lowerBounds, int[] upperBounds) {
+        int[] obtainedPoints = new int[numberOfTeams];
+        int[] matchesLeft = new int[numberOfTeams];
+        for (int match : matches) {
+            matchesLeft[fixtures[match][0]]++;
+            matchesLeft[fixtures[match][1]]++;
+        }
+        for (int team = 0; team < numberOfTeams; team++) {
+            if (!canStayWithinBounds(team, obtainedPoints, matchesLeft, lowerBounds, upperBounds)) {
+                return Feasibility.INFEASIBLE;
+            }
+        }
+        int[] nodesLeft = {MAX_SEARCH_NODES};
+        if (searchResults(0, matches, results, obtainedPoints, matchesLeft, lowerBounds, upperBounds, nodesLeft)) {
+            return Feasibility.FEASIBLE;
+        }
+        return nodesLeft[0] < 0 ? Feasibility.UNDECIDED : Feasibility.INFEASIBLE;
+    }
+
+    private boolean searchResults(int m, int[] matches, int[] results, int[] obtainedPoints, int[] matchesLeft,
+                                  int[] lowerBounds, int[] upperBounds, int[] nodesLeft) {
+        if (m == matches.length) {
+            return true;
+        }
+        if (--nodesLeft[0] < 0) {
+            return false;
+        }
+        int[] fixture = fixtures[matches[m]];
+        matchesLeft[fixture[0]]--;
+        matchesLeft[fixture[1]]--;
+        int preferredResult = results[m];
+        for (int attempt = 0; attempt <= RESULTS.length; attempt++) {
+            int result = (attempt == 0) ? preferredResult : RESULTS[attempt - 1];
+            if (attempt > 0 && result == preferredResult) {
+                continue; // already tried first
+            }
+            obtainedPoints[fixture[0]] += result;
+            obtainedPoints[fixture[1]] += pointsOfOpponent(result);
+            if (canStayWithinBounds(fixture[0], obtainedPoints, matchesLeft, lowerBounds, upperBounds)
+                    && canStayWithinBounds(fixture[1], obtainedPoints, matchesLeft, lowerBounds, upperBounds)
+                    && searchResults(m + 1, matches, results, obtainedPoints, matchesLeft,
+                    lowerBounds, upperBounds, nodesLeft)) {
+                results[m] = result;
+                return true;
+            }
+            obtainedPoints[fixture[0]] -= result;
+            obtainedPoints[fixture[1]] -= pointsOfOpponent(result);
+        }
+        matchesLeft[fixture[0]]++;
+        matchesLeft[fixture[1]]++;
+        return false;
+    }
+
+    private static boolean canStayWithinBounds(int team, int[] obtainedPoints, int[] matchesLeft,
+                                               int[] lowerBounds, int[] upperBounds) {
+        return obtainedPoints[team] <= upperBounds[team]
+                && obtainedPoints[team] + WIN * matchesLeft[team] >= lowerBounds[team];
+    }
+
+    private static int pointsOfOpponent(int result) {
+        return (result == WIN) ? 0 : (result == DRAW) ? DRAW : WIN;
+    }
+
+    private static int violation(int team, int obtainedPoints, int[] lowerBounds, int[] upperBounds) {
+        return Math.max(0, lowerBounds[team] - obtainedPoints) + Math.max(0, obtainedPoints - upperBounds[team]);
+    }
+
+    /**
+     * Iterates over the combinations of k indices out of n, in lexicographic order.
+     */
+    private static class CombinationIterator {
+
+        private final int n;
+        private final int[] indices;
+        private boolean hasNext;
+
+        CombinationIterator(int n, int k) {
+            this.n = n;
+            this.indices = IntStream.range(0, k).toArray();
+            this.hasNext = k <= n;
+        }
+
+        boolean hasNext() {
+            return hasNext;
+        }
+
+        int[] next() {
+            int[] combination = indices.clone();
+            int k = indices.length;
+            int i = k - 1;
+            while (i >= 0 && indices[i] == n - k + i) {
+                i--;
+            }
+            if (i < 0) {
+                hasNext = false;
+            } else {
+                indices[i]++;
+                for (int j = i + 1; j < k; j++) {
+                    indices[j] = indices[j - 1] + 1;
+                }
+            }
+            return combination;
+        }
+    }
+
+    /**
+     * Dinic's maximum flow algorithm on a network whose edges are stored in arrays.
+     * The reverse edge of edge e is e + 1.
+     */
+    private static class MaxFlow {
+
+        private final int numberOfNodes;
+        private final List<int[]> edges = new ArrayList<>(); // {to, capacity, flow}
+        private final List<List<Integer>> adjacency = new ArrayList<>();
+        private final int[] level;
+        private final int[] nextEdge;
+
+        MaxFlow(int numberOfNodes) {
+            this.numberOfNodes = numberOfNodes;
+            for (int node = 0; node < numberOfNodes; node++) {
+                adjacency.add(new ArrayList<>());
+            }
+            level = new int[numberOfNodes];
+            nextEdge = new int[numberOfNodes];
+        }
+
+        int addEdge(int from, int to, int capacity) {
+            adjacency.get(from).add(edges.size());
+            edges.add(new int[]{to, capacity, 0});
+            adjacency.get(to).add(edges.size());
+            edges.add(new int[]{from, 0, 0});
+            return edges.size() - 2;
+        }
+
+        int flow(int edge) {
+            return edges.get(edge)[2];
+        }
+
+        int maxFlow(int source, int sink) {
+            int totalFlow = 0;
+            while (buildLevels(source, sink)) {
+                Arrays.fill(nextEdge, 0);
+                int flow;
+                while ((flow = push(source, sink, UNBOUNDED)) > 0) {
+                    totalFlow += flow;
+                }
+            }
+            return totalFlow;
+        }
+
+        private boolean buildLevels(int source, int sink) {
+            Arrays.fill(level, -1);
+            int[] queue = new int[numberOfNodes];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            level[source] = 0;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int edge : adjacency.get(node)) {
+                    int[] e = edges.get(edge);
+                    if (level[e[0]] < 0 && e[2] < e[1]) {
+                        level[e[0]] = level[node] + 1;
+                        queue[tail++] = e[0];
+                    }
+                }
+            }
+            return level[sink] >= 0;
+        }
+
+        private int push(int node, int sink, int flow) {
+            if (node == sink) {
+                return flow;
+            }
+            List<Integer> nodeEdges = adjacency.get(node);
+            for (; nextEdge[node] < nodeEdges.size(); nextEdge[node]++) {
+                int edge = nodeEdges.get(nextEdge[node]);
+                int[] e = edges.get(edge);
+                if (level[e[0]] == level[node] + 1 && e[2] < e[1]) {
+                    int pushed = push(e[0], sink, Math.min(flow, e[1] - e[2]));
+                    if (pushed > 0) {
+                        e[2] += pushed;
+                        edges.get(edge ^ 1)[2] -= pushed;
+                        return pushed;
+                    }
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The ExecutionPolicy interface decides how independent pieces of work, such as the groups of a tournament
+ * or the chunks of a simulation, are run: one after the other on the calling thread,
+ * on a ForkJoinPool chosen by the caller, or on virtual threads.
+ *
+ * Usage:
+ * Teams and groups never run their own work in parallel: a group has at most a few dozen teams, and a team
+ * a few dozen matches, so splitting that work costs more than it saves and makes every request of a server
+ * compete for the common ForkJoinPool. Parallelism is applied one level up, by the classes that run many
+ * groups or many simulated seasons (ScenarioEnumerator, GroupSimulator), through the policy their caller gives them.
+ * The tasks given to a policy must not depend on each other, and their results are returned in the order
+ * of their inputs whatever the policy, so a result never depends on the scheduling of the tasks.
+ *
+ * A single task is always run on the calling thread. The exceptions thrown by the tasks are rethrown
+ * to the caller: if several tasks fail, one of their exceptions is rethrown.
+ *
+ * Example usage:
+ * ```
+ * ForkJoinPool pool = new ForkJoinPool(4);
+ * List<ScenarioEnumerator.Summary> summaries = ScenarioEnumerator.enumerateAll(groups, 5, ExecutionPolicy.pool(pool));
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public interface ExecutionPolicy {
+
+    /**
+     * Runs a task on each input and returns the results in the order of the inputs.
+     *
+     * @param inputs The inputs of the tasks.
+     * @param task The task, which must be safe to run on several inputs at once.
+     * @return The result of the task for each input.
+     */
+    <T, R> List<R> map(List<? extends T> inputs, Function<? super T, ? extends R> task);
+
+    /**
+     * Returns the policy that runs the tasks one after the other on the calling thread.
+     */
+    static ExecutionPolicy sequential() {
+        return Sequential.INSTANCE;
+    }
+
+    /**
+     * Returns the policy that runs the tasks on a ForkJoinPool, such as a pool dedicated to rankings.
+     * Tasks that map over the same pool from within one of its tasks are joined by work-stealing,
+     * without blocking a worker thread.
+     *
+     * @param pool The pool running the tasks.
+     * @return The policy.
+     * @throws IllegalArgumentException If the pool is null.
+     */
+    static ExecutionPolicy pool(ForkJoinPool pool) throws IllegalArgumentException {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool can not be null.");
+        }
+        return new Pool(pool);
+    }
+
+    /**
+     * Returns the policy that runs each task on its own virtual thread. It suits tasks that mostly wait,
+     * such as tasks that load results; CPU-bound tasks are better run on a pool sized to the number of cores.
+     */
+    static ExecutionPolicy virtualThreads() {
+        return VirtualThreads.INSTANCE;
+    }
+
+    /**
+     * Runs the tasks one after the other on the calling thread.
+     */
+    final class Sequential implements ExecutionPolicy {
+
+        private static final Sequential INSTANCE = new Sequential();
+
+        private Sequential() {}
+
+        @Override
+        public <T, R> List<R> map(List<? extends T> inputs, Function<? super T, ? extends R> task) {
+            List<R> results = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        @Override
+        public String toString() {
+            return "ExecutionPolicy.sequential()";
+        }
+    }
+
+    /**
+     * Runs the tasks on a ForkJoinPool.
+     */
+    final class Pool implements ExecutionPolicy {
+
+        private final ForkJoinPool pool;
+
+        private Pool(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public <T, R> List<R> map(List<? extends T> inputs, Function<? super T, ? extends R> task) {
+            if (inputs.size() <= 1) {
+                return Sequential.INSTANCE.map(inputs, task);
+            }
+            Object[] results = new Object[inputs.size()];
+            Throwable[] failure = new Throwable[1];
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(inputs.size());
+            for (int i = 0; i < results.length; i++) {
+                T input = inputs.get(i);
+                int index = i;
+                // the exceptions are caught here, since join rethrows a copy of them
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    try {
+                        results[index] = task.apply(input);
+                    } catch (RuntimeException | Error e) {
+                        synchronized (failure) {
+                            failure[0] = failure[0] == null ? e : failure[0];
+                        }
+                    }
+                }));
+            }
+            if (ForkJoinTask.getPool() == pool) {
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                tasks.forEach(pool::execute);
+                tasks.forEach(ForkJoinTask::join);
+            }
+            synchronized (failure) {
+                if (failure[0] instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                } if (failure[0] instanceof Error error) {
+                    throw error;
+                }
+            }
+            @SuppressWarnings("unchecked")
+            List<R> resultList = (List<R>) Arrays.asList(results);
+            return new ArrayList<>(resultList);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ExecutionPolicy.pool(parallelism=%d)", pool.getParallelism());
+        }
+    }
+
+    /**
+     * Runs each task on its own virtual thread.
+     */
+    final class VirtualThreads implements ExecutionPolicy {
+
+        private static final VirtualThreads INSTANCE = new VirtualThreads();
+
+        private VirtualThreads() {}
+
+        @Override
+        public <T, R> List<R> map(List<? extends T> inputs, Function<? super T, ? extends R> task) {
+            if (inputs.size() <= 1) {
+                return Sequential.INSTANCE.map(inputs, task);
+            }
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<R>> futures = new ArrayList<>(inputs.size());
+                for (T input : inputs) {
+                    futures.add(executor.submit(() -> task.apply(input)));
+                }
+                List<R> results = new ArrayList<>(futures.size());
+                for (Future<R> future : futures) {
+                    results.add(getResult(future));
+                }
+                return results;
+            }
+        }
+
+        private static <R> R getResult(Future<R> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the tasks to complete.");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                } if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ExecutionPolicy.virtualThreads()";
+        }
+    }
+}
@@ -1,5 +1,3 @@
-import java.util.Random;
-
 public class FIFAWorldCupGroup extends Group {
 
     public FIFAWorldCupGroup(Team[] teams) {
@@ -44,9 +42,10 @@ public class FIFAWorldCupGroup extends Group {
         }
         // comparing head-to-head record can only be done if both teams have faced each other
         if (havePlayedAgainst(team1, team2)) {
-            FIFAWorldCupGroup headToHeadGroup = createSubGroup(team1);
-            int resultDuringHeadToHead = headToHeadGroup.compareTeamsBeforeHeadToHead(
-                    headToHeadGroup.getTeamByName(team1.getName()), headToHeadGroup.getTeamByName(team2.getName()));
+            // the head-to-head records are summed from the matrix of results instead of a sub-group
+            int[] tiedSlots = tiedSlots(team1);
+            int resultDuringHeadToHead = HeadToHeadRecord.compareByPointsGoalDifferenceAndGoalsFor(
+                    headToHeadRecord(team1, tiedSlots), headToHeadRecord(team2, tiedSlots));
             if (resultDuringHeadToHead != 0) {
                 return resultDuringHeadToHead;
             }
@@ -56,9 +55,7 @@ public class FIFAWorldCupGroup extends Group {
             return Integer.compare(team1.getFairPlayPoints(), team2.getFairPlayPoints());
         }
         // drawing of lots
-        Random random = new Random();
-        int randomValue = random.nextInt(2); // will be either 0 or 1
-        return (randomValue == 0) ? -1 : 1;
+        return compareByDrawingOfLots(team1, team2);
     }
 
     /**
@@ -87,11 +84,14 @@ public class FIFAWorldCupGroup extends Group {
         return 0;
     }
 
+    @Override
+    protected RankingKernel.Rules rankingRules() {
+        return RankingKernel.Rules.FIFA_WORLD_CUP;
+    }
+
     @Override
     protected FIFAWorldCupGroup createSubGroup(Team team) {
-        Team[] headToHeadTeams = this.getTeamNames().parallelStream()
-                .map(this::getTeamByName).filter(t -> compareTeamsBeforeHeadToHead(team, t) == 0).toArray(Team[]::new);
-        return new FIFAWorldCupGroup(headToHeadTeams);
+        return headToHeadSubGroup(team, FIFAWorldCupGroup::new);
     }
 
     enum Card implements CardEnum {
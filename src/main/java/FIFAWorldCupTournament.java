@@ -0,0 +1,65 @@
+import java.util.List;
+
+/**
+ * The FIFAWorldCupTournament class represents the group stage of the 48-team FIFA World Cup:
+ * 12 groups of 4 teams, from which the top two of each group and the 8 best third-placed teams qualify.
+ *
+ * Example usage:
+ * ```
+ * FIFAWorldCupTournament worldCup = new FIFAWorldCupTournament(groups, ExecutionPolicy.pool(rankingPool));
+ * worldCup.getGroup('C').addMatch("Brazil", "Morocco", "1-1");
+ * List<Tournament.ThirdPlacedTeam> qualified = worldCup.getBestThirdPlacedTeams();
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public class FIFAWorldCupTournament extends Tournament {
+
+    public static final int NUMBER_OF_GROUPS = 12;
+    public static final int NUMBER_OF_BEST_THIRD_PLACED_TEAMS = 8;
+
+    public FIFAWorldCupTournament(List<FIFAWorldCupGroup> groups) throws IllegalArgumentException {
+        this(groups, ExecutionPolicy.sequential());
+    }
+
+    public FIFAWorldCupTournament(List<FIFAWorldCupGroup> groups, ExecutionPolicy executionPolicy)
+            throws IllegalArgumentException {
+        super(checkNumberOfGroups(groups), NUMBER_OF_BEST_THIRD_PLACED_TEAMS, executionPolicy);
+    }
+
+    private static List<FIFAWorldCupGroup> checkNumberOfGroups(List<FIFAWorldCupGroup> groups) {
+        if (groups.size() != NUMBER_OF_GROUPS) {
+            throw new IllegalArgumentException(
+                    String.format("The FIFA World Cup has %d groups.", NUMBER_OF_GROUPS));
+        }
+        return groups;
+    }
+
+    /**
+     * How the FIFA World Cup ranks the third-placed teams of its groups:
+     *
+     * 1. Points earned in all group matches (Pts)
+     * 2. Goal difference in all group matches (GD)
+     * 3. Number of goals scored in all group matches (GF)
+     * 4. Fair play points in all group matches
+     * 5. Drawing of lots
+     *
+     * @param team1 A third-placed team.
+     * @param team2 A third-placed team of another group that team1 is compared to.
+     *
+     * @return A positive integer if team1 is ranked above team2,
+     *         a negative integer if team2 is ranked above team1,
+     *         or 0 if they are still tied before the drawing of lots.
+     */
+    @Override
+    protected int compareThirdPlacedTeams(ThirdPlacedTeam team1, ThirdPlacedTeam team2) {
+        if (team1.points() != team2.points()) {
+            return Integer.compare(team1.points(), team2.points());
+        } if (team1.goalDifference() != team2.goalDifference()) {
+            return Integer.compare(team1.goalDifference(), team2.goalDifference());
+        } if (team1.goalsFor() != team2.goalsFor()) {
+            return Integer.compare(team1.goalsFor(), team2.goalsFor());
+        }
+        return Integer.compare(team1.fairPlayPoints(), team2.fairPlayPoints());
+    }
+}
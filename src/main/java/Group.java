@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -8,7 +10,8 @@ import java.util.stream.IntStream;
  * depending on the competition that the teams take part of.
  *
  * Attributes:
- * teams: the array of teams competing in the group.
+ * teams: the array of teams competing in the group. Each team keeps its index (its slot)
+ *        in this array for the lifetime of the group, the ranking being stored separately.
  * groupSize: the maximum amount of teams in the group.
  * numberOfLegs: the number of matches played between two teams.
  *
@@ -17,6 +20,28 @@ import java.util.stream.IntStream;
  * It also determines the rankings of each team in the group
  * based on its ranking system, which differs between tournaments.
  *
+ * The ranking is computed lazily: adding or removing a match only marks the ranking as outdated,
+ * and it is recomputed once, the first time it is read afterwards (sortedTeams, getTeamPositionByName,
+ * getTableRowByTeamName). Eager ranking, where every change re-ranks the group immediately,
+ * can be enabled with setEagerRanking.
+ *
+ * Teams that are still tied after every other criterion are ranked by drawing of lots. The lots are
+ * drawn once for the current results and kept until they change, so the ranking stays consistent
+ * across comparisons; a seeded LotDrawer can be set with setLotDrawer to make it reproducible.
+ *
+ * Read-only access to the teams is given through TeamView instances backed by the group's own teams,
+ * which avoids copying them. getTeamByName and getTeams still return defensive copies.
+ *
+ * The results are stored once per match in a columnar MatchStore, and the group's teams are views over it.
+ * The ranking and the head-to-head sub-groups are computed by scanning the columns of the store.
+ * The store also keeps an N×N matrix of goals per leg, from which havePlayedAgainst is answered in constant time
+ * and the head-to-head record of a team against any set of tied teams is summed without building a sub-group.
+ * If the teams passed to the constructor already have matches against each other, a match recorded
+ * by only one of the two teams counts for both, and if both teams recorded it,
+ * the record of the team that comes first in the array is kept.
+ *
+ * The changes made to a group can be written to a GroupJournal, from which the group is rebuilt after a restart.
+ *
  * For groups where numberOfLegs = 2, each team's 'matches' field
  * will solely contain the team's games that are played at home.
  * The away goals rule may apply for tie-breaking purposes depending on the competition.
@@ -26,39 +51,130 @@ public abstract class Group {
     private final Team[] teams;
     private final int groupSize;
     private final int numberOfLegs;
-    private final Map<Team,Integer> teamByPosition = new HashMap<>();
+    private final MatchStore store; // the results of the group, each team keeping its index in 'teams' as its slot
+    private final int[] positionBySlot; // position of each team in 'teams' after the last ranking
+    private Team[] rankedTeams; // teams from highest ranked to lowest ranked after the last ranking
+    private boolean rankingOutdated = true; // whether the results changed since the last ranking
+    private long version; // incremented on every change of results, see getVersion
+    private boolean eagerRanking = false;
+    private final List<TeamView> teamViews; // read-only views of 'teams', in the same order
+    private LotDrawer lotDrawer; // created on the first drawing of lots unless set beforehand
+    private int[] lotBySlot; // lots drawn for the current results, null if not drawn yet
+    // hands the lots of the current results to the ranking kernel, drawing them if needed
+    private final LotDrawer drawnLots = numberOfTeams -> lotsOfCurrentResults();
+    private RankingKernel rankingKernel; // created on the first ranking if the competition declares its rules
+    private GroupJournal journal; // the journal the changes of the group are written to, if any
+    private int journalGroupId = -1; // the ID of the group in its journal
 
     public Group(Team[] teams, int groupSize, int numberOfLegs) throws IllegalArgumentException {
+        Set<String> teamNames = Arrays.stream(teams).map(Team::getName).collect(Collectors.toSet());
         if (teams.length > groupSize) {
             throw new IllegalArgumentException(String.format("The number of teams must not exceed %d.", groupSize));
-        } if (Arrays.stream(teams).map(Team::getName).distinct().count()
-                != teams.length) {
+        } if (teamNames.size() != teams.length) {
             throw new IllegalArgumentException("Teams with duplicate names detected.");
         } if (numberOfLegs != 1 && numberOfLegs != 2) {
             throw new IllegalArgumentException("The number of legs must be either 1 or 2.");
         }
         // remove opponents not present from the group instead of throwing an exception:
         // we may need to create groups with a subset of the teams to determine head-to-head results
-        Map<String,Set<Team.Match>> teamNameByMatches = Arrays.stream(teams).collect(
-                Collectors.toMap(
-                        Team::getName,
-                        t -> t.getMatches().parallelStream().filter(m ->
-                                Arrays.stream(teams).map(Team::getName).anyMatch(n ->
-                                        n.equals(m.getOpponentName())
-                                )).collect(Collectors.toSet())));
+        List<Set<Team.Match>> matchesBySlot = Arrays.stream(teams).map(t -> t.getMatches().stream()
+                .filter(m -> teamNames.contains(m.getOpponentName()))
+                .collect(Collectors.toCollection(LinkedHashSet::new))).collect(Collectors.toList());
         // will be thrown only for cases where at least one Team in the constructor already has matches
         if (numberOfLegs == 1) {
             // there should not be away matches if there is only one leg
-            if (teamNameByMatches.values().parallelStream().flatMap(Set::stream).anyMatch(Team.Match::isAway)) {
+            if (matchesBySlot.stream().flatMap(Set::stream).anyMatch(Team.Match::isAway)) {
                 throw new IllegalArgumentException("Single-legged tournaments can not contain away matches.");
             }
         }
-        this.teams = teamNameByMatches.entrySet().parallelStream().map(
-                entry -> Team.createInstance(entry.getKey(), entry.getValue())).toArray(Team[]::new);
+        this.store = createStore(teams, matchesBySlot, numberOfLegs);
+        // the matches of the group's teams can only be modified through the group
+        this.teams = IntStream.range(0, teams.length).mapToObj(i -> Team.createInstance(store, i))
+                .toArray(Team[]::new);
+        this.teamViews = Arrays.stream(this.teams).map(Team::asView).toList();
+        this.positionBySlot = new int[teams.length];
         this.groupSize = groupSize;
         this.numberOfLegs = numberOfLegs;
     }
 
+    /**
+     * Stores the matches that the given teams have played against each other.
+     * If the teams all belong to the same group, which is the case of head-to-head sub-groups,
+     * the matches are found by scanning the columns of that group's store instead of going through the teams.
+     *
+     * @param teams The teams of the group.
+     * @param matchesBySlot The matches of each team against the other teams.
+     * @param numberOfLegs The number of matches played between two teams.
+     * @return The store of the group.
+     */
+    private static MatchStore createStore(Team[] teams, List<Set<Team.Match>> matchesBySlot, int numberOfLegs) {
+        MatchStore parentStore = teams.length == 0 ? null : teams[0].getStore();
+        if (parentStore != null && parentStore.getNumberOfLegs() == numberOfLegs
+                && Arrays.stream(teams).allMatch(t -> t.getStore() == parentStore)) {
+            return parentStore.restrictTo(Arrays.stream(teams).mapToInt(Team::getSlot).toArray());
+        }
+        MatchStore store = new MatchStore(Arrays.stream(teams).map(Team::getName).toArray(String[]::new),
+                numberOfLegs);
+        for (int slot = 0; slot < teams.length; slot++) {
+            for (Team.Match match : matchesBySlot.get(slot)) {
+                int opponentSlot = store.slotOf(match.getOpponentName());
+                int homeSlot = match.isAway() ? opponentSlot : slot;
+                int awaySlot = match.isAway() ? slot : opponentSlot;
+                if (store.findMatch(homeSlot, awaySlot) >= 0) {
+                    continue; // already recorded by the opponent, which comes first
+                }
+                int selfCards = match.getSelfCardTally();
+                int opponentCards = match.getOpponentCardTally();
+                if (match.isAway()) {
+                    store.putMatch(homeSlot, awaySlot, match.getGoalsConceded(), match.getGoalsScored(),
+                            opponentCards, selfCards);
+                } else {
+                    store.putMatch(homeSlot, awaySlot, match.getGoalsScored(), match.getGoalsConceded(),
+                            selfCards, opponentCards);
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Takes the name of a team and returns the Team object of the group associated with it.
+     * The lookup goes through the name-to-slot index, so it does not depend on the number of teams.
+     *
+     * @param teamName The name of a team.
+     * @return The team of the group that has the given name, or null if there is none.
+     */
+    private Team findTeam(String teamName) {
+        int slot = store.slotOf(teamName);
+        return slot < 0 ? null : teams[slot];
+    }
+
+    /**
+     * Returns the slot of a team of the group, without looking its name up if the team is one of the group's own.
+     *
+     * @param team A team of the group.
+     * @return The slot of the team.
+     * @throws IllegalArgumentException If no team of the same name is in the group.
+     */
+    private int slotOf(Team team) throws IllegalArgumentException {
+        return team.getStore() == store ? team.getSlot() : slotOf(team.getName());
+    }
+
+    /**
+     * Takes the name of a team and returns its slot, that is, its index in the group's array of teams.
+     *
+     * @param teamName The name of a team.
+     * @return The slot of the team.
+     * @throws IllegalArgumentException If no team of the given name is in the group.
+     */
+    int slotOf(String teamName) throws IllegalArgumentException {
+        int slot = store.slotOf(teamName);
+        if (slot < 0) {
+            throw new IllegalArgumentException(String.format("No team of name %s is in this group.", teamName));
+        }
+        return slot;
+    }
+
     /**
      * Adds a match played between two teams whose names are denoted team1Name and team2Name.
      * Each team name must belong in the group.
@@ -68,7 +184,8 @@ public abstract class Group {
      * @param team1Name The name of the first team. If the tournament is double-legged, this is the home team.
      * @param team2Name The name of the second team. If the tournament is double-legged, this is the away team.
      * @param score The score of the match. Each number is the number of goals scored by team1 and team2 respectively.
-     * @throws IllegalArgumentException If at least one of the teams' name does not correspond to a team in the group,
+     * @throws IllegalArgumentException If a team name, the score or a list of cards is null,
+     *                                  at least one of the teams' name does not correspond to a team in the group,
      *                                  'opponentName' is equal to the team's name,
      *                                  or the match's score is not expressed in the following format:
      *                                  two nonnegative integers separated by a '-'.
@@ -76,8 +193,79 @@ public abstract class Group {
     public void addMatch(String team1Name, String team2Name, String score,
                          List<CardEnum> team1Cards,
                          List<CardEnum> team2Cards) throws IllegalArgumentException {
-        if (team1Cards == null || team2Cards == null) {
-            throw new IllegalArgumentException("List of cards can not be null.");
+        String errorMessage = validateMatch(team1Name, team2Name, score, team1Cards, team2Cards);
+        if (errorMessage != null) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+        if (journal != null) {
+            journal.commit(journalMatch(team1Name, team2Name, score, team1Cards, team2Cards));
+        }
+        applyMatch(team1Name, team2Name, score, team1Cards, team2Cards);
+        rankingChanged(); // the team positions need to be updated
+    }
+
+    /**
+     * Adds several matches played between teams of the group at once, for example all the matches of a matchday.
+     * Every match is validated before any of them is added: either all the matches are added,
+     * or none of them is. The group is re-ranked at most once, after all the matches are added,
+     * and not at all if there are no matches.
+     * Matches are added in the iteration order of the collection, so if the same match appears twice,
+     * the latter result is kept.
+     *
+     * @param matchResults The results of the matches to add.
+     * @throws IllegalArgumentException If at least one match result is invalid for the same reasons as in addMatch.
+     *                                  The exception message lists every invalid match result, one per line.
+     */
+    public void addMatches(Collection<MatchResult> matchResults) throws IllegalArgumentException {
+        if (matchResults.isEmpty()) {
+            return; // nothing changed, so the ranking and the drawn lots are kept
+        }
+        List<String> errorMessages = new ArrayList<>();
+        int index = 0;
+        for (MatchResult result : matchResults) {
+            index++;
+            String errorMessage = result == null ? "The match result can not be null." : validateMatch(
+                    result.team1Name(), result.team2Name(), result.score(), result.team1Cards(), result.team2Cards());
+            if (errorMessage != null) {
+                String teams = result == null ? "" : String.format(" (%s vs %s)", result.team1Name(), result.team2Name());
+                errorMessages.add(String.format("Match result %d%s: %s",
+                        index, teams, errorMessage.strip().replace("\n", " ")));
+            }
+        }
+        if (!errorMessages.isEmpty()) {
+            throw new IllegalArgumentException(String.join("\n", errorMessages));
+        }
+        if (journal != null) {
+            // the matches are a single record, so that a crash can not leave only some of them in the journal
+            journal.commit(journal.appendAddMatches(journalGroupId, matchResults));
+        }
+        matchResults.forEach(result -> applyMatch(result.team1Name(), result.team2Name(), result.score(),
+                result.team1Cards(), result.team2Cards()));
+        rankingChanged();
+    }
+
+    /**
+     * Checks whether a match between two teams can be added to the group.
+     *
+     * @return The error message describing why the match can not be added, or null if the match is valid.
+     */
+    private String validateMatch(String team1Name, String team2Name, String score,
+                                 List<CardEnum> team1Cards, List<CardEnum> team2Cards) {
+        if (team1Name == null || team2Name == null) {
+            return "Team names can not be null.";
+        } if (score == null) {
+            return "The score can not be null.";
+        }
+        String cardsErrorMessage = CardTally.validate(team1Cards);
+        if (cardsErrorMessage == null) {
+            cardsErrorMessage = CardTally.validate(team2Cards);
+        } if (cardsErrorMessage == null && journal != null) {
+            cardsErrorMessage = GroupJournal.validateCards(team1Cards);
+            if (cardsErrorMessage == null) {
+                cardsErrorMessage = GroupJournal.validateCards(team2Cards);
+            }
+        } if (cardsErrorMessage != null) {
+            return cardsErrorMessage;
         }
         String errorMessage = ""; // error message for scoreInvalid and/or isPlayingAgainstItself
         if (Team.Match.isScoreInvalid(score)) {
@@ -85,25 +273,35 @@ public abstract class Group {
         } if (team1Name.equals(team2Name)) {
             errorMessage += "The names of the two teams facing each other cannot be the same.";
         } if (!errorMessage.isEmpty()) {
-            throw new IllegalArgumentException(errorMessage);
+            return errorMessage;
         }
         // check if both homeTeamName and awayTeamName correspond to teams in the group
-        Optional<Team> matchingTeam1 = Arrays.stream(teams).filter(t ->
-                t.getName().equals(team1Name)).findFirst();
-        Optional<Team> matchingTeam2 = Arrays.stream(teams).filter(t ->
-                t.getName().equals(team2Name)).findFirst();
-        if (matchingTeam1.isPresent() && matchingTeam2.isPresent()) {
-            Team team1 = matchingTeam1.get();
-            Team team2 = matchingTeam2.get();
-            Team.Match newHomeMatch = new Team.Match(team2Name, score, false, team1Cards, team2Cards);
-            team1.addMatch(newHomeMatch);
-            // if there are two legs, the awayTeam gets the match added to its awayMatches
-            team2.addMatch(team1.getName(), newHomeMatch.getReversedScore(),
-                    numberOfLegs == 2, team2Cards, team1Cards);
-            sortTeams(); // update the team positions
-        } else {
-            throw new IllegalArgumentException("Team names must be among the ones in the group.");
+        if (findTeam(team1Name) == null || findTeam(team2Name) == null) {
+            return "Team names must be among the ones in the group.";
         }
+        return null;
+    }
+
+    /**
+     * Appends a match that was validated by validateMatch to the journal, without waiting for it to be durable.
+     *
+     * @return The sequence number of the record in the journal.
+     */
+    private long journalMatch(String team1Name, String team2Name, String score,
+                              List<CardEnum> team1Cards, List<CardEnum> team2Cards) {
+        long goals = Team.Match.parseScore(score);
+        return journal.appendAddMatch(journalGroupId, team1Name, team2Name, (int) (goals >>> 32), (int) goals,
+                team1Cards, team2Cards);
+    }
+
+    /**
+     * Adds a match that was validated by validateMatch to the store, without re-ranking the group.
+     */
+    private void applyMatch(String team1Name, String team2Name, String score,
+                            List<CardEnum> team1Cards, List<CardEnum> team2Cards) {
+        long goals = Team.Match.parseScore(score);
+        store.putMatch(store.slotOf(team1Name), store.slotOf(team2Name), (int) (goals >>> 32), (int) goals,
+                CardTally.of(team1Cards), CardTally.of(team2Cards));
     }
 
     public void addMatch(String team1Name, String team2Name, String score) {
@@ -116,6 +314,7 @@ public abstract class Group {
      *
      * In single-legged tournaments, the match is removed from both teams' homeMatches.
      * In double-legged tournaments, the match is removed from team1Name's homeMatches and team2Name's awayMatches.
+     * Nothing happens if the match has not been played.
      *
      * @param team1Name The name of the first team. If the tournament is double-legged, this is the home team.
      * @param team2Name The name of the second team. If the tournament is double-legged, this is the away team.
@@ -127,21 +326,62 @@ public abstract class Group {
             throw new IllegalArgumentException("The names of the two teams facing each other cannot be the same.");
         }
         // check if both homeTeamName and awayTeamName correspond to teams in the group
-        Optional<Team> matchingTeam1 = Arrays.stream(teams).filter(t ->
-                t.getName().equals(team1Name)).findFirst();
-        Optional<Team> matchingTeam2 = Arrays.stream(teams).filter(t ->
-                t.getName().equals(team2Name)).findFirst();
-        if (matchingTeam1.isPresent() && matchingTeam2.isPresent()) {
-            Team team1 = matchingTeam1.get();
-            Team team2 = matchingTeam2.get();
-            team1.removeMatchByOpponentName(team2Name, false);
-            team2.removeMatchByOpponentName(team1Name, numberOfLegs == 2);
-            sortTeams();
+        int slot1 = store.slotOf(team1Name);
+        int slot2 = store.slotOf(team2Name);
+        if (slot1 >= 0 && slot2 >= 0) {
+            if (store.findMatch(slot1, slot2) < 0) {
+                return; // the match has not been played, so nothing is journaled and the ranking is kept
+            }
+            if (journal != null) {
+                journal.commit(journal.appendRemoveMatch(journalGroupId, team1Name, team2Name));
+            }
+            store.removeMatch(slot1, slot2);
+            rankingChanged();
         } else {
             throw new IllegalArgumentException("Team names must be among the ones in the group.");
         }
     }
 
+    /**
+     * Sets the number of points to deduct from a team of the group due to policy violations.
+     *
+     * @param teamName The name of a team in the group.
+     * @param points The number of points to deduct from the team.
+     * @throws IllegalArgumentException If no team of the given name is in the group or the number of points is negative.
+     */
+    public void setDeductedPoints(String teamName, int points) throws IllegalArgumentException {
+        Team team = teams[slotOf(teamName)];
+        if (points < 0) {
+            throw new IllegalArgumentException("Deducted points must be non-negative.");
+        }
+        if (journal != null) {
+            journal.commit(journal.appendSetDeductedPoints(journalGroupId, teamName, points));
+        }
+        team.updateDeductedPoints(points);
+        rankingChanged();
+    }
+
+    /**
+     * Adjusts the number of points deducted from a team of the group.
+     *
+     * @param teamName The name of a team in the group.
+     * @param points The number of points to adjust the total number of deducted points.
+     *               Adds to the total if non-negative, subtracts if negative.
+     * @throws IllegalArgumentException If no team of the given name is in the group
+     *                                  or the new total number of deducted points becomes negative.
+     */
+    public void adjustPenaltyPoints(String teamName, int points) throws IllegalArgumentException {
+        Team team = teams[slotOf(teamName)];
+        if (team.getDeductedPoints() + points < 0) {
+            throw new IllegalArgumentException("Deducted points must be non-negative.");
+        }
+        if (journal != null) {
+            journal.commit(journal.appendAdjustPenaltyPoints(journalGroupId, teamName, points));
+        }
+        team.updateDeductedPoints(team.getDeductedPoints() + points);
+        rankingChanged();
+    }
+
     /**
      * Takes the name of a team and return a clone of the Team object associated with it,
      * if a team of the given name exists in the group.
@@ -150,17 +390,75 @@ public abstract class Group {
      * @throws IllegalArgumentException If no team of the given name is in the group.
      */
     public Team getTeamByName(String teamName) throws IllegalArgumentException {
-        Optional<Team> matchingTeam = Arrays.stream(teams).filter(t -> t.getName().equals(teamName)).findFirst();
-        if (matchingTeam.isPresent()) {
-            // return a defensive copy
-            TeamFactory factory = new TeamFactory();
-            return factory.createTeam(matchingTeam.get().getName(), matchingTeam.get().getMatches());
-        }
-        throw new IllegalArgumentException(String.format("No team of name %s is in this group.", teamName));
+        Team matchingTeam = teams[slotOf(teamName)];
+        // return a defensive copy
+        TeamFactory factory = new TeamFactory();
+        return factory.createTeam(matchingTeam.getName(), matchingTeam.getMatches());
+    }
+
+    /**
+     * Takes the name of a team and returns a read-only view of the Team object associated with it,
+     * if a team of the given name exists in the group. Unlike getTeamByName, the team is not copied:
+     * the view reflects later changes made to the group.
+     *
+     * @param teamName The name of a team.
+     * @return A read-only view of the team.
+     * @throws IllegalArgumentException If no team of the given name is in the group.
+     */
+    public TeamView getTeamViewByName(String teamName) throws IllegalArgumentException {
+        return teams[slotOf(teamName)].asView();
+    }
+
+    /**
+     * Returns read-only views of the group's teams, without copying them.
+     *
+     * @return A read-only list of team views.
+     */
+    public List<TeamView> getTeamViews() {
+        return teamViews;
+    }
+
+    /**
+     * Takes the name of a team and returns the group's own Team object associated with it, without copying it.
+     * This is meant for the ranking systems of the subclasses, which must not modify the returned team.
+     *
+     * @param teamName The name of a team.
+     * @return The team of the given name.
+     * @throws IllegalArgumentException If no team of the given name is in the group.
+     */
+    protected Team teamByName(String teamName) throws IllegalArgumentException {
+        return teams[slotOf(teamName)];
+    }
+
+    /**
+     * Takes a slot and returns the group's own Team object in it, without copying it.
+     * This is meant for the ranking systems of the subclasses, which must not modify the returned team.
+     *
+     * @param slot The slot of a team, as returned by tiedSlots.
+     * @return The team in the given slot.
+     */
+    protected Team teamAt(int slot) {
+        return teams[slot];
+    }
+
+    /**
+     * Returns the group's own Team objects that satisfy the given condition, without copying them.
+     * This is meant for the ranking systems of the subclasses, which must not modify the returned teams.
+     *
+     * @param condition A condition on the teams.
+     * @return The teams of the group satisfying the condition.
+     */
+    protected Team[] filterTeams(Predicate<Team> condition) {
+        return Arrays.stream(teams).filter(condition).toArray(Team[]::new);
     }
 
+    /**
+     * Returns the names of the teams in the group.
+     *
+     * @return A read-only set of team names.
+     */
     public Set<String> getTeamNames() {
-        return Arrays.stream(teams).map(Team::getName).collect(Collectors.toSet());
+        return store.getTeamNames();
     }
 
     /**
@@ -189,7 +487,7 @@ public abstract class Group {
      *         a negative integer if team2 is ranked above team1.
      */
     public int compareTeams(String team1Name, String team2Name) {
-        return compareTeams(getTeamByName(team1Name), getTeamByName(team2Name));
+        return compareTeams(teamByName(team1Name), teamByName(team2Name));
     }
 
     /**
@@ -217,23 +515,314 @@ public abstract class Group {
      */
     protected abstract Group createSubGroup(Team team);
 
+    /**
+     * Takes a team and returns the group only consisting of the teams that are tied with it
+     * on all criteria before applying the head-to-head record. This is a helper method for createSubGroup.
+     * The ranking does not build sub-groups: it reads the head-to-head records from the store instead
+     * (see headToHeadRecord).
+     *
+     * @param team A team to be compared to other teams in the group.
+     * @param groupConstructor The constructor of the sub-group, taking the array of tied teams.
+     * @return A new group of tied teams.
+     */
+    protected <G extends Group> G headToHeadSubGroup(Team team, Function<Team[],G> groupConstructor) {
+        return groupConstructor.apply(filterTeams(t -> compareTeamsBeforeHeadToHead(team, t) == 0));
+    }
+
+    /**
+     * Returns the slots of the teams that are tied with the given team on all criteria
+     * before applying the head-to-head record, the given team included.
+     *
+     * @param team A team of the group.
+     * @return The slots of the tied teams, in increasing order.
+     */
+    protected int[] tiedSlots(Team team) {
+        return IntStream.range(0, teams.length).filter(slot -> compareTeamsBeforeHeadToHead(team, teams[slot]) == 0)
+                .toArray();
+    }
+
+    /**
+     * Sums the head-to-head record of a team in the matches it played against the given teams,
+     * straight from the matrix of results of the group. This gives the same record as the team has
+     * in the head-to-head sub-group of these teams, without building it.
+     *
+     * @param team A team of the group.
+     * @param slots The slots of the teams whose matches against each other are considered.
+     *              The slot of the team itself is ignored.
+     * @return The head-to-head record of the team.
+     */
+    protected HeadToHeadRecord headToHeadRecord(Team team, int[] slots) {
+        int slot = slotOf(team);
+        int points = 0;
+        int goalsFor = 0;
+        int goalsAgainst = 0;
+        int awayGoalsFor = 0;
+        for (int opponentSlot : slots) {
+            if (opponentSlot == slot) {
+                continue;
+            }
+            for (int leg = 0; leg < numberOfLegs; leg++) {
+                int goalsScored = store.getGoalsScored(leg, slot, opponentSlot);
+                if (goalsScored == MatchStore.NOT_PLAYED) {
+                    continue;
+                }
+                int goalsConceded = store.getGoalsScored(leg, opponentSlot, slot);
+                points += (goalsScored > goalsConceded) ? Team.Match.Outcome.WIN.getPoints()
+                        : (goalsScored == goalsConceded) ? Team.Match.Outcome.DRAW.getPoints()
+                        : Team.Match.Outcome.LOSS.getPoints();
+                goalsFor += goalsScored;
+                goalsAgainst += goalsConceded;
+                if (numberOfLegs == 2 && leg == store.legOf(opponentSlot, slot)) {
+                    awayGoalsFor += goalsScored;
+                }
+            }
+        }
+        return new HeadToHeadRecord(points, goalsFor - goalsAgainst, goalsFor, awayGoalsFor);
+    }
+
     /**
      * Sorts the group's teams from highest ranked to lowest ranked
      * depending on the competition's ranking system.
+     *
+     * The teams are first sorted on the criteria applied before the head-to-head record,
+     * which splits them into clusters of tied teams. Each cluster of more than one team
+     * is then resolved on its own with compareTeams, so that the head-to-head sub-group
+     * of a cluster is only built once, and the positions are assigned in the same pass.
+     *
+     * If the competition declares its ranking rules, the teams are ranked by a RankingKernel instead.
      */
     private void sortTeams() {
-        Arrays.sort(teams, (team1, team2) -> compareTeams(team2, team1));
+        RankingKernel.Rules rules = rankingRules();
+        if (rules != null) {
+            rankWithKernel(rules);
+            rankingOutdated = false;
+            return;
+        }
+        // sort a copy so that the slots of the teams, and therefore the name-to-slot index, stay valid
+        rankedTeams = teams.clone();
+        Arrays.sort(rankedTeams, (team1, team2) -> compareTeamsBeforeHeadToHead(team2, team1));
+        int clusterStart = 0;
+        while (clusterStart < rankedTeams.length) {
+            int clusterEnd = clusterStart + 1;
+            while (clusterEnd < rankedTeams.length
+                    && compareTeamsBeforeHeadToHead(rankedTeams[clusterStart], rankedTeams[clusterEnd]) == 0) {
+                clusterEnd++;
+            }
+            rankCluster(clusterStart, clusterEnd);
+            clusterStart = clusterEnd;
+        }
+        rankingOutdated = false;
+    }
+
+    /**
+     * Ranks the group's teams with a RankingKernel, which applies the same ranking system as compareTeams
+     * on the primitive statistics of the teams, without building any head-to-head sub-group.
+     * The lots it may draw are the ones used by compareByDrawingOfLots.
+     *
+     * @param rules The ranking rules of the competition.
+     */
+    private void rankWithKernel(RankingKernel.Rules rules) {
+        if (rankingKernel == null || rankingKernel.getRules() != rules) {
+            rankingKernel = new RankingKernel(rules, teams.length);
+        }
+        fillRankingKernel(rankingKernel);
+        rankingKernel.rank(drawnLots);
+        rankedTeams = new Team[teams.length];
+        for (int i = 0; i < teams.length; i++) {
+            rankedTeams[i] = teams[rankingKernel.getRankedSlot(i)];
+            positionBySlot[i] = rankingKernel.getPosition(i);
+        }
+    }
+
+    /**
+     * Loads the current table of the group into a RankingKernel, each team keeping its slot.
+     *
+     * @param kernel A kernel whose capacity is at least the number of teams in the group.
+     */
+    void fillRankingKernel(RankingKernel kernel) {
+        kernel.reset(teams.length);
+        for (int match = 0; match < store.getNumberOfMatches(); match++) {
+            int homeSlot = store.getHomeSlot(match);
+            int awaySlot = store.getAwaySlot(match);
+            int homeGoals = store.getHomeGoals(match);
+            int awayGoals = store.getAwayGoals(match);
+            kernel.addTeamResult(homeSlot, awaySlot, homeGoals, awayGoals);
+            kernel.addTeamResult(awaySlot, homeSlot, awayGoals, homeGoals);
+        }
+        for (int slot = 0; slot < teams.length; slot++) {
+            kernel.setDeductedPoints(slot, teams[slot].getDeductedPoints());
+            kernel.setFairPlayPoints(slot, store.getFairPlayPoints(slot));
+        }
+    }
+
+    /**
+     * Returns the matches that remain to be played in the group, as pairs of slots.
+     * In double-legged tournaments, the first slot of a pair is the home team.
+     *
+     * @return An array of {team1 slot, team2 slot} pairs.
+     */
+    int[][] remainingFixtures() {
+        List<int[]> fixtures = new ArrayList<>();
+        for (int slot1 = 0; slot1 < teams.length; slot1++) {
+            // every pair of teams is considered once if there is one leg, and twice (home and away) if there are two
+            for (int slot2 = (numberOfLegs == 1) ? slot1 + 1 : 0; slot2 < teams.length; slot2++) {
+                if (slot1 != slot2 && store.findMatch(slot1, slot2) < 0) {
+                    fixtures.add(new int[]{slot1, slot2});
+                }
+            }
+        }
+        return fixtures.toArray(int[][]::new);
+    }
+
+    /**
+     * Returns the ranking rules applied by a RankingKernel to rank the group, or null if the group
+     * is ranked with compareTeams. Subclasses that override compareTeams with a ranking system
+     * the kernel does not implement must return null.
+     *
+     * @return The ranking rules of the competition, or null.
+     */
+    protected RankingKernel.Rules rankingRules() {
+        return null;
+    }
+
+    /**
+     * Ranks the teams of rankedTeams between the two indices, which are tied on all criteria
+     * before applying the head-to-head record, and assigns their positions.
+     *
+     * @param from The index of the first team of the cluster, inclusive.
+     * @param to The index of the last team of the cluster, exclusive.
+     */
+    private void rankCluster(int from, int to) {
+        if (to - from > 1) {
+            Arrays.sort(rankedTeams, from, to, (team1, team2) -> compareTeams(team2, team1));
+        }
         // indices start at 0 so add 1 to get the position
-        IntStream.range(0, teams.length).forEach(i -> {
-            if (i == 0) {
-                teamByPosition.put(teams[i], 1);
-            } else if (compareTeams(teams[i], teams[i-1]) < 0) {
-                teamByPosition.put(teams[i], i+1); // + 1 because array indices start at 0
+        int previousSlot = slotOf(rankedTeams[from]);
+        positionBySlot[previousSlot] = from + 1;
+        for (int i = from + 1; i < to; i++) {
+            int slot = slotOf(rankedTeams[i]);
+            if (compareTeams(rankedTeams[i], rankedTeams[i-1]) < 0) {
+                positionBySlot[slot] = i+1; // + 1 because array indices start at 0
             } else {
                 // position is the same as the team last added
-                teamByPosition.put(teams[i], teamByPosition.get(teams[i-1]));
+                positionBySlot[slot] = positionBySlot[previousSlot];
+            }
+            previousSlot = slot;
+        }
+    }
+
+    /**
+     * Marks the ranking as outdated after a change of results.
+     * The group is re-ranked right away if eager ranking is enabled,
+     * otherwise on the first read of the ranking.
+     */
+    private void rankingChanged() {
+        rankingOutdated = true;
+        version++;
+        lotBySlot = null; // lots are drawn again for the new results
+        if (eagerRanking) {
+            sortTeams();
+        }
+    }
+
+    /**
+     * Re-ranks the group if its results changed since the last ranking.
+     */
+    private void ensureRanked() {
+        if (rankingOutdated) {
+            sortTeams();
+        }
+    }
+
+    /**
+     * Sets whether the group is re-ranked immediately after every change of results (eager ranking),
+     * or only when the ranking is read after a change (lazy ranking, the default).
+     *
+     * @param eagerRanking true to enable eager ranking, false to enable lazy ranking.
+     */
+    public void setEagerRanking(boolean eagerRanking) {
+        this.eagerRanking = eagerRanking;
+        if (eagerRanking) {
+            ensureRanked();
+        }
+    }
+
+    /**
+     * Returns the version of the results of the group, which changes whenever a result
+     * or the drawing of lots changes. A Tournament compares it with the version it last ranked
+     * to only re-rank the groups that changed.
+     *
+     * @return The version of the results.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    GroupJournal getJournal() {
+        return journal;
+    }
+
+    int getJournalGroupId() {
+        return journalGroupId;
+    }
+
+    /**
+     * Sets the journal the changes of the group are written to, as done by GroupJournal.attach.
+     *
+     * @param journal The journal, or null to stop journaling the group.
+     * @param journalGroupId The ID of the group in the journal.
+     */
+    void setJournal(GroupJournal journal, int journalGroupId) {
+        this.journal = journal;
+        this.journalGroupId = journalGroupId;
+    }
+
+    public int getNumberOfLegs() {
+        return numberOfLegs;
+    }
+
+    public boolean isEagerRanking() {
+        return eagerRanking;
+    }
+
+    /**
+     * Sets the drawer used for the drawing of lots. The lots already drawn are discarded
+     * and the group will be re-ranked.
+     *
+     * @param lotDrawer The drawer of lots, for instance a seeded RandomLotDrawer.
+     * @throws IllegalArgumentException If lotDrawer is null.
+     */
+    public void setLotDrawer(LotDrawer lotDrawer) throws IllegalArgumentException {
+        if (lotDrawer == null) {
+            throw new IllegalArgumentException("The lot drawer can not be null.");
+        }
+        this.lotDrawer = lotDrawer;
+        rankingChanged();
+    }
+
+    /**
+     * Compares two teams of the group by drawing of lots. The lots are drawn at most once
+     * for the current results of the group, so the same two teams are always compared
+     * the same way until the results change.
+     *
+     * @param team1 A team of the group.
+     * @param team2 Another team of the group that team1 is compared to.
+     * @return A positive integer if team1 drew the better lot, a negative integer otherwise.
+     */
+    protected int compareByDrawingOfLots(Team team1, Team team2) {
+        int[] lots = lotsOfCurrentResults();
+        // the lower the lot, the higher the team is ranked
+        return Integer.compare(lots[slotOf(team2)], lots[slotOf(team1)]);
+    }
+
+    private int[] lotsOfCurrentResults() {
+        if (lotBySlot == null) {
+            if (lotDrawer == null) {
+                lotDrawer = new RandomLotDrawer();
             }
-        });
+            lotBySlot = lotDrawer.drawLots(teams.length);
+        }
+        return lotBySlot;
     }
 
     /**
@@ -243,9 +832,8 @@ public abstract class Group {
      * @return A sorted array of teams.
      */
     public Team[] sortedTeams() {
-        Team[] cloneTeams = teams.clone();
-        Arrays.sort(cloneTeams, (team1, team2) -> compareTeams(team2, team1));
-        return cloneTeams;
+        ensureRanked();
+        return rankedTeams.clone();
     }
 
     public Team[] getTeams() {
@@ -261,7 +849,9 @@ public abstract class Group {
      *         a negative integer if team2 is ranked above team1.
      */
     public int getTeamPositionByName(String teamName) throws IllegalArgumentException {
-        return teamByPosition.get(getTeamByName(teamName));
+        int slot = slotOf(teamName);
+        ensureRanked();
+        return positionBySlot[slot];
     }
 
     /**
@@ -273,14 +863,17 @@ public abstract class Group {
      * @return true if team1 and team2 have played at least one match against each other, false otherwise.
      */
     public boolean havePlayedAgainst(Team team1, Team team2) {
-        return team1.getMatches().parallelStream().map(Team.Match::getOpponentName)
-                .anyMatch(m -> m.equals(team2.getName())) &&
-                team2.getMatches().parallelStream().map(Team.Match::getOpponentName)
-                        .anyMatch(m -> m.equals(team1.getName()));
+        int slot1 = store.slotOf(team1.getName());
+        int slot2 = store.slotOf(team2.getName());
+        if (slot1 < 0 || slot2 < 0) {
+            // teams that are not in the group
+            return team1.hasPlayedAgainst(team2.getName()) && team2.hasPlayedAgainst(team1.getName());
+        }
+        return slot1 != slot2 && store.havePlayedAgainst(slot1, slot2);
     }
 
     public boolean havePlayedAgainst(String team1Name, String team2Name) {
-        return havePlayedAgainst(getTeamByName(team1Name), getTeamByName(team2Name));
+        return havePlayedAgainst(teamByName(team1Name), teamByName(team2Name));
     }
 
     /**
@@ -290,8 +883,8 @@ public abstract class Group {
      * @return true if the group is complete, false otherwise.
      */
     public boolean isComplete() {
-        return Arrays.stream(teams).map(Team::getNumberOfMatchesPlayed)
-                .allMatch(n -> n == (teams.length-1)*numberOfLegs);
+        // every match is stored once, and the store holds at most one match per fixture
+        return store.getNumberOfMatches() == teams.length * (teams.length-1) / 2 * numberOfLegs;
     }
 
     /**
@@ -302,7 +895,7 @@ public abstract class Group {
      * @return information about the team.
      */
     public String getTableRowByTeamName(String teamName) {
-        Team team = getTeamByName(teamName);
+        Team team = teamByName(teamName);
         return String.format("%d: %s, Pld: %d, W: %d, D: %d, L: %d, GF: %d, GA: %d, GD: %s, Pts: %d",
                 getTeamPositionByName(teamName), teamName, team.getNumberOfMatchesPlayed(),
                 team.getNumberWins(), team.getNumberDraws(), team.getNumberLosses(), team.getGoalsFor(),
@@ -311,11 +904,55 @@ public abstract class Group {
 
     public String toString() {
         String initialString = this.getClass().getName() + "{teams={";
-        String result = Arrays.stream(getTeams()).map(Team::toString)
+        String result = Arrays.stream(teams).map(Team::toString)
                 .collect(Collectors.joining(", ", initialString, "}, groupSize=%d, numberOfLegs=%d}"));
         return String.format(result, groupSize, numberOfLegs);
     }
 
+    /**
+     * The result of a match played between two teams of a group, as passed to addMatches.
+     *
+     * @param team1Name The name of the first team. If the tournament is double-legged, this is the home team.
+     * @param team2Name The name of the second team. If the tournament is double-legged, this is the away team.
+     * @param score The score of the match. Each number is the number of goals scored by team1 and team2 respectively.
+     * @param team1Cards The list of penalty cards received by the first team.
+     * @param team2Cards The list of penalty cards received by the second team.
+     */
+    public record MatchResult(String team1Name, String team2Name, String score,
+                              List<CardEnum> team1Cards, List<CardEnum> team2Cards) {
+
+        public MatchResult(String team1Name, String team2Name, String score) {
+            this(team1Name, team2Name, score, List.of(), List.of());
+        }
+    }
+
+    /**
+     * The record of a team in the matches played between a set of tied teams, as returned by headToHeadRecord.
+     *
+     * @param points The number of points earned in these matches.
+     * @param goalDifference The goal difference in these matches.
+     * @param goalsFor The number of goals scored in these matches.
+     * @param awayGoalsFor The number of goals scored in the away matches among these matches.
+     */
+    protected record HeadToHeadRecord(int points, int goalDifference, int goalsFor, int awayGoalsFor) {
+
+        /**
+         * Compares two head-to-head records by points, then goal difference, then goals scored,
+         * as in the head-to-head criteria of the FIFA World Cup and the UEFA Euro.
+         *
+         * @return A positive integer if the first record is better, a negative integer if the second one is better,
+         *         or 0 if they are equal.
+         */
+        static int compareByPointsGoalDifferenceAndGoalsFor(HeadToHeadRecord record1, HeadToHeadRecord record2) {
+            if (record1.points != record2.points) {
+                return Integer.compare(record1.points, record2.points);
+            } if (record1.goalDifference != record2.goalDifference) {
+                return Integer.compare(record1.goalDifference, record2.goalDifference);
+            }
+            return Integer.compare(record1.goalsFor, record2.goalsFor);
+        }
+    }
+
     interface CardEnum {
         int getPenalty();
     }
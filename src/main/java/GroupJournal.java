@@ -0,0 +1,570 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * The GroupJournal class writes every change made to a set of groups to an append-only binary file,
+ * from which the groups can be rebuilt after a restart.
+ *
+ * Attributes:
+ * channel: the journal file, opened for appending.
+ * groupIdByKey: the ID given to the key of each group journaled so far, including in earlier runs.
+ * pendingRecords: the records appended but not written to the file yet.
+ * appendedSequence: the number of records appended since the journal was opened.
+ * durableSequence: the number of those records that were written to the file and forced to disk.
+ * flushing: whether a thread is currently writing the pending records.
+ * failure: the error that occurred while writing a batch, after which no record can be made durable.
+ *
+ * The file starts with MAGIC, followed by records. Each record is its payload length (int), the CRC32C of
+ * its payload (int) and its payload: the type of the record (byte) and the ID of its group (int), then
+ * DEFINE_GROUP: the key of the group (UTF).
+ * ADD_MATCH: the names of the two teams (UTF), their goals (int, int) and their cards.
+ * ADD_MATCHES: the number of matches (int), then each match as in ADD_MATCH.
+ * REMOVE_MATCH: the names of the two teams (UTF).
+ * SET_DEDUCTED_POINTS, ADJUST_PENALTY_POINTS: the name of the team (UTF) and the number of points (int).
+ * The cards of a team are the code of their enum in CARD_TYPES (byte, 0 if there are no cards)
+ * followed by the number of kinds of cards (byte) and the number of cards of each ordinal (byte).
+ *
+ * Usage:
+ * A group attached to the journal under a key writes a record for every addMatch, addMatches, removeMatch,
+ * setDeductedPoints and adjustPenaltyPoints, after the change is validated and before it is applied,
+ * and the change is only applied once its record is durable. The teams a group hands out can not be modified,
+ * so these methods are the only way to change an attached group. The file is forced to disk with group commit:
+ * a thread whose record is not durable yet either writes and forces every pending record in one go,
+ * or waits for the thread doing so, so that concurrent changes to different groups share a single fsync.
+ *
+ * After a restart, the groups are created again with the same keys and teams, and replay applies the records
+ * to them with ranking deferred: the groups are ranked once, at the end. A batch of matches passed to addMatches
+ * is a single ADD_MATCHES record, so that it is replayed either entirely or not at all. A record that was only partly written,
+ * or whose checksum does not match, ends the journal; it and anything after it are dropped when the journal
+ * is opened again.
+ *
+ * Example usage:
+ * ```
+ * GroupJournal journal = GroupJournal.open(Path.of("season.journal"));
+ * journal.replay(Map.of("premier-league", premierLeague));
+ * journal.attach("premier-league", premierLeague);
+ * premierLeague.addMatch("Arsenal", "Chelsea", "2-1"); // written to the journal
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public final class GroupJournal implements Closeable {
+
+    private static final int MAGIC = 0x52524A31; // "RRJ1"
+    private static final int RECORD_HEADER_SIZE = 8; // payload length and checksum
+    private static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    private static final byte DEFINE_GROUP = 0;
+    private static final byte ADD_MATCH = 1;
+    private static final byte REMOVE_MATCH = 2;
+    private static final byte SET_DEDUCTED_POINTS = 3;
+    private static final byte ADJUST_PENALTY_POINTS = 4;
+    private static final byte ADD_MATCHES = 5;
+
+    // the card enums that can be journaled, whose code is their index plus one: new enums go at the end
+    private static final List<Class<? extends Group.CardEnum>> CARD_TYPES = List.of(
+            FIFAWorldCupGroup.Card.class, UEFAEuroGroup.Card.class, PremierLeague.Card.class);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String,Integer> groupIdByKey = new HashMap<>();
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pendingRecords = new ByteArrayOutputStream();
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private IOException failure; // set if a batch could not be written, after which the journal can not be used
+
+    private GroupJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a journal, creating its file if it does not exist. The records are read one at a time, so the file
+     * can be of any size. A record that was only partly written at the end of the file, and anything from
+     * a record whose checksum does not match, is dropped.
+     *
+     * @param path The path of the journal file.
+     * @return The journal, ready to be replayed and attached to groups.
+     * @throws IOException If the file can not be read or written, or is not a journal.
+     */
+    public static GroupJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            GroupJournal journal = new GroupJournal(path, channel);
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, MAGIC));
+                channel.force(true);
+            }
+            long validSize = journal.scan(null);
+            if (validSize < channel.size()) {
+                channel.truncate(validSize);
+                channel.force(true);
+            }
+            channel.position(validSize);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Journals every later change made to a group. The key identifies the group across restarts.
+     *
+     * @param groupKey The key of the group, such as "premier-league" or "world-cup-C".
+     * @param group The group.
+     * @throws IllegalArgumentException If the group is already attached to a journal.
+     * @throws UncheckedIOException If the journal can not be written.
+     */
+    public void attach(String groupKey, Group group) throws IllegalArgumentException {
+        if (group.getJournal() != null) {
+            throw new IllegalArgumentException("The group is already attached to a journal.");
+        }
+        int groupId;
+        long sequence = 0;
+        synchronized (lock) {
+            Integer existingGroupId = groupIdByKey.get(groupKey);
+            if (existingGroupId != null) {
+                groupId = existingGroupId;
+            } else {
+                groupId = groupIdByKey.size();
+                groupIdByKey.put(groupKey, groupId);
+                sequence = append(DEFINE_GROUP, groupId, out -> out.writeUTF(groupKey));
+            }
+        }
+        commit(sequence);
+        group.setJournal(this, groupId);
+    }
+
+    /**
+     * Stops journaling the changes made to a group.
+     *
+     * @param group A group attached to this journal.
+     */
+    public void detach(Group group) {
+        if (group.getJournal() == this) {
+            group.setJournal(null, -1);
+        }
+    }
+
+    /**
+     * Applies the records of the journal to the groups of the given keys, with ranking deferred until the end.
+     * The groups must have been created with the same teams as when the records were written,
+     * and the records of other keys are skipped. The groups are then ranked once, sequentially.
+     *
+     * @param groupsByKey The groups to rebuild, by key.
+     * @return The number of records applied.
+     * @throws IOException If the journal can not be read.
+     */
+    public int replay(Map<String, ? extends Group> groupsByKey) throws IOException {
+        return replay(groupsByKey, ExecutionPolicy.sequential());
+    }
+
+    /**
+     * Applies the records of the journal to the groups of the given keys, with ranking deferred until the end,
+     * then ranks the groups that changed, one task per group.
+     *
+     * @param groupsByKey The groups to rebuild, by key.
+     * @param policy The policy ranking the groups at the end of the replay.
+     * @return The number of records applied.
+     * @throws IOException If the journal can not be read.
+     * @throws IllegalArgumentException If a record does not apply to its group, for example
+     *                                  because the group was created with other teams.
+     */
+    public int replay(Map<String, ? extends Group> groupsByKey, ExecutionPolicy policy) throws IOException {
+        sync();
+        Replay replay = new Replay(groupsByKey);
+        // ranking is deferred: no group is ranked and no record is journaled again while replaying
+        for (Group group : groupsByKey.values()) {
+            replay.suspend(group);
+        }
+        try {
+            scan(replay);
+        } finally {
+            replay.resume();
+        }
+        policy.map(replay.changedGroups, Group::sortedTeams);
+        return replay.numberOfAppliedRecords;
+    }
+
+    /**
+     * Forces every record appended so far to disk.
+     *
+     * @throws UncheckedIOException If the journal can not be written.
+     */
+    public void sync() {
+        long sequence;
+        synchronized (lock) {
+            sequence = appendedSequence;
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    long appendAddMatch(int groupId, String team1Name, String team2Name, int team1Goals, int team2Goals,
+                        List<? extends Group.CardEnum> team1Cards, List<? extends Group.CardEnum> team2Cards) {
+        return append(ADD_MATCH, groupId,
+                out -> writeMatch(out, team1Name, team2Name, team1Goals, team2Goals, team1Cards, team2Cards));
+    }
+
+    /**
+     * Appends the matches of a batch validated by the group as a single record.
+     */
+    long appendAddMatches(int groupId, Collection<Group.MatchResult> matchResults) {
+        return append(ADD_MATCHES, groupId, out -> {
+            out.writeInt(matchResults.size());
+            for (Group.MatchResult result : matchResults) {
+                long goals = Team.Match.parseScore(result.score());
+                writeMatch(out, result.team1Name(), result.team2Name(), (int) (goals >>> 32), (int) goals,
+                        result.team1Cards(), result.team2Cards());
+            }
+        });
+    }
+
+    long appendRemoveMatch(int groupId, String team1Name, String team2Name) {
+        return append(REMOVE_MATCH, groupId, out -> {
+            out.writeUTF(team1Name);
+            out.writeUTF(team2Name);
+        });
+    }
+
+    long appendSetDeductedPoints(int groupId, String teamName, int points) {
+        return append(SET_DEDUCTED_POINTS, groupId, out -> {
+            out.writeUTF(teamName);
+            out.writeInt(points);
+        });
+    }
+
+    long appendAdjustPenaltyPoints(int groupId, String teamName, int points) {
+        return append(ADJUST_PENALTY_POINTS, groupId, out -> {
+            out.writeUTF(teamName);
+            out.writeInt(points);
+        });
+    }
+
+    /**
+     * Checks whether cards already validated by CardTally can be journaled.
+     *
+     * @return The error message describing why the cards can not be journaled, or null if they can.
+     */
+    static String validateCards(List<? extends Group.CardEnum> cards) {
+        if (cards.isEmpty() || CARD_TYPES.contains(((Enum<?>) cards.get(0)).getDeclaringClass())) {
+            return null;
+        }
+        return String.format("Cards of type %s can not be journaled.",
+                ((Enum<?>) cards.get(0)).getDeclaringClass().getSimpleName());
+    }
+
+    private static void writeMatch(DataOutputStream out, String team1Name, String team2Name,
+                                   int team1Goals, int team2Goals, List<? extends Group.CardEnum> team1Cards,
+                                   List<? extends Group.CardEnum> team2Cards) throws IOException {
+        out.writeUTF(team1Name);
+        out.writeUTF(team2Name);
+        out.writeInt(team1Goals);
+        out.writeInt(team2Goals);
+        writeCards(out, team1Cards);
+        writeCards(out, team2Cards);
+    }
+
+    private static void writeCards(DataOutputStream out, List<? extends Group.CardEnum> cards) throws IOException {
+        if (cards.isEmpty()) {
+            out.writeByte(0);
+            return;
+        }
+        // validated by the group: the cards are constants of a journaled enum, at most 127 of each kind
+        Class<?> cardType = ((Enum<?>) cards.get(0)).getDeclaringClass();
+        byte[] counts = new byte[cardType.getEnumConstants().length];
+        for (Group.CardEnum card : cards) {
+            counts[((Enum<?>) card).ordinal()]++;
+        }
+        out.writeByte(CARD_TYPES.indexOf(cardType) + 1);
+        out.writeByte(counts.length);
+        out.write(counts);
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Adds a record to the pending records.
+     *
+     * @return The sequence number of the record, to be passed to commit.
+     * @throws IllegalArgumentException If the payload of the record is larger than MAX_PAYLOAD_SIZE.
+     */
+    private long append(byte type, int groupId, PayloadWriter payloadWriter) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeByte(type);
+            out.writeInt(groupId);
+            payloadWriter.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never thrown by a ByteArrayOutputStream
+        }
+        byte[] payloadBytes = payload.toByteArray();
+        if (payloadBytes.length > MAX_PAYLOAD_SIZE) {
+            // such a record would be dropped as corrupt when the journal is read
+            throw new IllegalArgumentException("The change is too large to be journaled.");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payloadBytes);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE)
+                .putInt(payloadBytes.length).putInt((int) crc.getValue());
+        synchronized (lock) {
+            pendingRecords.writeBytes(header.array());
+            pendingRecords.writeBytes(payloadBytes);
+            return ++appendedSequence;
+        }
+    }
+
+    /**
+     * Waits until the record of the given sequence number is durable. If no other thread is writing,
+     * this thread writes and forces every pending record at once, its own and those of other threads.
+     * The lock is released while writing, so that other threads keep appending to the next batch.
+     *
+     * @param sequence The sequence number returned by append.
+     * @throws UncheckedIOException If the journal can not be written.
+     */
+    void commit(long sequence) {
+        while (true) {
+            byte[] batch;
+            long batchSequence;
+            synchronized (lock) {
+                while (flushing && durableSequence < sequence && failure == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UncheckedIOException(
+                                new InterruptedIOException("Interrupted while waiting for the journal to be written."));
+                    }
+                }
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                } if (durableSequence >= sequence) {
+                    return;
+                }
+                flushing = true;
+                batch = pendingRecords.toByteArray();
+                batchSequence = appendedSequence;
+                pendingRecords = new ByteArrayOutputStream();
+            }
+            IOException writeFailure = null;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                writeFailure = e;
+            } finally {
+                synchronized (lock) {
+                    flushing = false;
+                    if (writeFailure != null) {
+                        // the records of the batch are lost, so no later record can be made durable either
+                        failure = writeFailure;
+                    } else {
+                        durableSequence = batchSequence;
+                    }
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the records of the journal from the start, one at a time, stopping at the first record that is
+     * incomplete or whose checksum does not match, and passes each record to the replay if there is one.
+     *
+     * @return The size of the valid part of the file: the end of the last record whose checksum was checked.
+     */
+    private long scan(Replay replay) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.limit(Integer.BYTES);
+        if (!readFully(header, 0) || header.getInt(0) != MAGIC) {
+            throw new IOException(String.format("%s is not a journal of groups.", path));
+        }
+        ByteBuffer payload = ByteBuffer.allocate(256);
+        CRC32C crc = new CRC32C();
+        long position = Integer.BYTES;
+        while (true) {
+            header.clear();
+            if (!readFully(header, position)) {
+                return position;
+            }
+            int payloadSize = header.getInt(0);
+            int checksum = header.getInt(Integer.BYTES);
+            if (payloadSize <= 0 || payloadSize > MAX_PAYLOAD_SIZE) {
+                return position;
+            }
+            if (payloadSize > payload.capacity()) {
+                payload = ByteBuffer.allocate(payloadSize);
+            }
+            payload.clear().limit(payloadSize);
+            if (!readFully(payload, position + RECORD_HEADER_SIZE)) {
+                return position;
+            }
+            crc.reset();
+            crc.update(payload.array(), 0, payloadSize);
+            if ((int) crc.getValue() != checksum) {
+                return position;
+            }
+            position += RECORD_HEADER_SIZE + payloadSize;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array(), 0, payloadSize));
+            byte type = in.readByte();
+            int groupId = in.readInt();
+            if (type == DEFINE_GROUP) {
+                String groupKey = in.readUTF();
+                groupIdByKey.putIfAbsent(groupKey, groupId);
+                if (replay != null) {
+                    replay.define(groupKey, groupId);
+                }
+            } else if (replay != null) {
+                replay.apply(type, groupId, in);
+            }
+        }
+    }
+
+    /**
+     * Fills the remaining part of a buffer with the bytes of the file from the given position.
+     *
+     * @return false if the file ends before the buffer is full.
+     */
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * The state of a replay: the groups it rebuilds and how they were configured before it started.
+     */
+    private class Replay {
+
+        private final Map<String, ? extends Group> groupsByKey;
+        private final Map<Integer,Group> groupsById = new HashMap<>();
+        private final Map<Group,Boolean> eagerRankingByGroup = new HashMap<>();
+        private final Map<Group,GroupJournal> journalByGroup = new HashMap<>();
+        private final Map<Group,Integer> journalGroupIdByGroup = new HashMap<>();
+        private final List<Group> changedGroups = new ArrayList<>();
+        private int numberOfAppliedRecords;
+
+        Replay(Map<String, ? extends Group> groupsByKey) {
+            this.groupsByKey = groupsByKey;
+        }
+
+        void suspend(Group group) {
+            eagerRankingByGroup.put(group, group.isEagerRanking());
+            journalByGroup.put(group, group.getJournal());
+            journalGroupIdByGroup.put(group, group.getJournalGroupId());
+            group.setEagerRanking(false);
+            group.setJournal(null, -1);
+        }
+
+        void resume() {
+            eagerRankingByGroup.forEach((group, eagerRanking) -> {
+                group.setJournal(journalByGroup.get(group), journalGroupIdByGroup.get(group));
+                group.setEagerRanking(eagerRanking);
+            });
+        }
+
+        void define(String groupKey, int groupId) {
+            Group group = groupsByKey.get(groupKey);
+            if (group != null && groupsById.putIfAbsent(groupId, group) == null) {
+                changedGroups.add(group);
+            }
+        }
+
+        void apply(byte type, int groupId, DataInputStream in) throws IOException {
+            Group group = groupsById.get(groupId);
+            if (group == null) {
+                return; // a group that is not being rebuilt
+            }
+            switch (type) {
+                case ADD_MATCH -> {
+                    Group.MatchResult result = readMatch(in);
+                    group.addMatch(result.team1Name(), result.team2Name(), result.score(),
+                            result.team1Cards(), result.team2Cards());
+                }
+                case ADD_MATCHES -> {
+                    int numberOfMatches = in.readInt();
+                    List<Group.MatchResult> matchResults = new ArrayList<>(numberOfMatches);
+                    for (int i = 0; i < numberOfMatches; i++) {
+                        matchResults.add(readMatch(in));
+                    }
+                    group.addMatches(matchResults);
+                }
+                case REMOVE_MATCH -> group.removeMatch(in.readUTF(), in.readUTF());
+                case SET_DEDUCTED_POINTS -> group.setDeductedPoints(in.readUTF(), in.readInt());
+                case ADJUST_PENALTY_POINTS -> group.adjustPenaltyPoints(in.readUTF(), in.readInt());
+                default -> throw new IOException(String.format("Unknown record type %d in %s.", type, path));
+            }
+            numberOfAppliedRecords++;
+        }
+
+        private Group.MatchResult readMatch(DataInputStream in) throws IOException {
+            String team1Name = in.readUTF();
+            String team2Name = in.readUTF();
+            String score = in.readInt() + "-" + in.readInt();
+            return new Group.MatchResult(team1Name, team2Name, score, readCards(in), readCards(in));
+        }
+
+        private List<Group.CardEnum> readCards(DataInputStream in) throws IOException {
+            int cardType = in.readUnsignedByte();
+            if (cardType == 0) {
+                return List.of();
+            } if (cardType > CARD_TYPES.size()) {
+                throw new IOException(String.format("Unknown card type %d in %s.", cardType, path));
+            }
+            Group.CardEnum[] constants = CARD_TYPES.get(cardType - 1).getEnumConstants();
+            int numberOfKinds = in.readUnsignedByte();
+            if (numberOfKinds > constants.length) {
+                throw new IOException(String.format("Unknown card of type %d in %s.", cardType, path));
+            }
+            List<Group.CardEnum> cards = new ArrayList<>();
+            for (int ordinal = 0; ordinal < numberOfKinds; ordinal++) {
+                for (int count = in.readUnsignedByte(); count > 0; count--) {
+                    cards.add(constants[ordinal]);
+                }
+            }
+            return cards;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The GroupSimulator class estimates, for every team of a partly played group, the probability
+ * of finishing in each position, by simulating the remaining matches of the group many times
+ * (Monte Carlo simulation).
+ *
+ * Attributes:
+ * teamNames: the names of the teams, indexed by their slot in the group.
+ * baseTable: a RankingKernel holding the results already played in the group.
+ * remainingFixtures: the matches that remain to be played, as pairs of slots.
+ * expectedGoals: the average number of goals scored by a team in a simulated match.
+ *
+ * Usage:
+ * The simulator takes a snapshot of the group on creation; later changes to the group are not seen.
+ * The score of each remaining match is drawn from two independent Poisson distributions of mean expectedGoals,
+ * and no cards are given in simulated matches. Each simulated season is ranked with the ranking rules
+ * of the group's competition, including the drawing of lots, through a RankingKernel.
+ *
+ * The seasons are split into chunks of CHUNK_SIZE seasons, run through an ExecutionPolicy given by the caller,
+ * so that the simulations of a server can run on a pool of their own. Each chunk draws its random numbers
+ * from its own SplittableRandom, split from the seed in the order of the chunks, so the result only depends
+ * on the seed and the number of seasons, whatever the number of threads. A GroupSimulator can be used
+ * by several threads at once.
+ *
+ * Example usage:
+ * ```
+ * GroupSimulator simulator = new GroupSimulator(premierLeague);
+ * GroupSimulator.Result result = simulator.simulate(1_000_000, 42);
+ * double titleOdds = result.getPositionProbability("Arsenal", 1);
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public class GroupSimulator {
+
+    /**
+     * The number of seasons simulated by one task. It must not depend on the number of threads,
+     * since the random stream of each chunk is determined by its index.
+     */
+    public static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The average number of goals scored by a team in a football match.
+     */
+    public static final double DEFAULT_EXPECTED_GOALS = 1.35;
+
+    private final String[] teamNames;
+    private final RankingKernel baseTable;
+    private final int[] remainingFixtures; // pairs of slots, stored one after the other
+    private final double expectedGoals;
+    private final double probabilityOfNoGoal; // e^(-expectedGoals), used to draw Poisson variables
+
+    public GroupSimulator(Group group) throws IllegalArgumentException {
+        this(group, DEFAULT_EXPECTED_GOALS);
+    }
+
+    public GroupSimulator(Group group, double expectedGoals) throws IllegalArgumentException {
+        RankingKernel.Rules rules = group.rankingRules();
+        if (rules == null) {
+            throw new IllegalArgumentException("The group must declare the ranking rules of its competition.");
+        } if (!(expectedGoals > 0)) {
+            throw new IllegalArgumentException("The expected number of goals must be positive.");
+        }
+        List<TeamView> teamViews = group.getTeamViews();
+        this.teamNames = teamViews.stream().map(TeamView::getName).toArray(String[]::new);
+        this.baseTable = new RankingKernel(rules, teamNames.length);
+        group.fillRankingKernel(baseTable);
+        this.remainingFixtures = Arrays.stream(group.remainingFixtures()).flatMapToInt(Arrays::stream).toArray();
+        this.expectedGoals = expectedGoals;
+        this.probabilityOfNoGoal = Math.exp(-expectedGoals);
+    }
+
+    public int getNumberOfRemainingMatches() {
+        return remainingFixtures.length / 2;
+    }
+
+    public double getExpectedGoals() {
+        return expectedGoals;
+    }
+
+    /**
+     * Simulates the rest of the group on the common ForkJoinPool.
+     *
+     * @param numberOfSeasons The number of times the remaining matches are simulated.
+     * @param seed The seed of the simulation. The same seed always gives the same result.
+     * @return The distribution of the final positions of the teams.
+     * @throws IllegalArgumentException If numberOfSeasons is not positive.
+     */
+    public Result simulate(long numberOfSeasons, long seed) throws IllegalArgumentException {
+        return simulate(numberOfSeasons, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates the rest of the group on the given ForkJoinPool.
+     *
+     * @param numberOfSeasons The number of times the remaining matches are simulated.
+     * @param seed The seed of the simulation. The same seed always gives the same result, whatever the pool.
+     * @param pool The pool running the simulation.
+     * @return The distribution of the final positions of the teams.
+     * @throws IllegalArgumentException If numberOfSeasons is not positive.
+     */
+    public Result simulate(long numberOfSeasons, long seed, ForkJoinPool pool) throws IllegalArgumentException {
+        return simulate(numberOfSeasons, seed, ExecutionPolicy.pool(pool));
+    }
+
+    /**
+     * Simulates the rest of the group, running the chunks of seasons with the given execution policy.
+     *
+     * @param numberOfSeasons The number of times the remaining matches are simulated.
+     * @param seed The seed of the simulation. The same seed always gives the same result, whatever the policy.
+     * @param policy The policy running the chunks of seasons.
+     * @return The distribution of the final positions of the teams.
+     * @throws IllegalArgumentException If numberOfSeasons is not positive or the policy is null.
+     */
+    public Result simulate(long numberOfSeasons, long seed, ExecutionPolicy policy) throws IllegalArgumentException {
+        if (policy == null) {
+            throw new IllegalArgumentException("The execution policy can not be null.");
+        } if (numberOfSeasons <= 0) {
+            throw new IllegalArgumentException("The number of seasons must be positive.");
+        }
+        int numberOfChunks = Math.toIntExact((numberOfSeasons + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        // split sequentially, so that the stream of each chunk does not depend on the scheduling of the tasks
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randomByChunk = new SplittableRandom[numberOfChunks];
+        for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+            randomByChunk[chunk] = root.split();
+        }
+        List<long[]> positionCountsByChunk = policy.map(IntStream.range(0, numberOfChunks).boxed().toList(),
+                chunk -> simulateChunk(randomByChunk[chunk],
+                        (int) Math.min(CHUNK_SIZE, numberOfSeasons - (long) chunk * CHUNK_SIZE)));
+        long[] positionCounts = new long[teamNames.length * teamNames.length];
+        for (long[] chunkPositionCounts : positionCountsByChunk) {
+            for (int i = 0; i < positionCounts.length; i++) {
+                positionCounts[i] += chunkPositionCounts[i];
+            }
+        }
+        return new Result(teamNames, positionCounts, numberOfSeasons);
+    }
+
+    /**
+     * Simulates a number of seasons with the given random stream.
+     *
+     * @return The number of times each team finished in each position,
+     *         at index slot * numberOfTeams + position - 1.
+     */
+    private long[] simulateChunk(SplittableRandom random, int numberOfSeasons) {
+        int numberOfTeams = teamNames.length;
+        long[] positionCounts = new long[numberOfTeams * numberOfTeams];
+        RankingKernel table = new RankingKernel(baseTable.getRules(), numberOfTeams);
+        LotDrawer lotDrawer = new RandomLotDrawer(random);
+        for (int season = 0; season < numberOfSeasons; season++) {
+            table.copyFrom(baseTable);
+            for (int i = 0; i < remainingFixtures.length; i += 2) {
+                table.addResult(remainingFixtures[i], remainingFixtures[i+1],
+                        drawGoals(random), drawGoals(random));
+            }
+            table.rank(lotDrawer);
+            for (int slot = 0; slot < numberOfTeams; slot++) {
+                positionCounts[slot * numberOfTeams + table.getPosition(slot) - 1]++;
+            }
+        }
+        return positionCounts;
+    }
+
+    /**
+     * Draws a number of goals from a Poisson distribution of mean expectedGoals,
+     * by multiplying uniform variables until their product falls below e^(-expectedGoals) (Knuth's algorithm).
+     */
+    private int drawGoals(SplittableRandom random) {
+        int goals = 0;
+        double product = random.nextDouble();
+        while (product > probabilityOfNoGoal) {
+            goals++;
+            product *= random.nextDouble();
+        }
+        return goals;
+    }
+
+    /**
+     * The Result class holds the distribution of the final positions of the teams of a simulated group.
+     * Teams sharing a position are all counted in that position.
+     */
+    public static class Result {
+
+        private final String[] teamNames;
+        private final long[] positionCounts; // at index slot * numberOfTeams + position - 1
+        private final long numberOfSeasons;
+
+        private Result(String[] teamNames, long[] positionCounts, long numberOfSeasons) {
+            this.teamNames = teamNames;
+            this.positionCounts = positionCounts;
+            this.numberOfSeasons = numberOfSeasons;
+        }
+
+        public long getNumberOfSeasons() {
+            return numberOfSeasons;
+        }
+
+        public List<String> getTeamNames() {
+            return List.of(teamNames);
+        }
+
+        /**
+         * Returns the number of simulated seasons in which a team finished in the given position.
+         *
+         * @param teamName The name of a team of the group.
+         * @param position A position, starting at 1.
+         * @return The number of seasons.
+         * @throws IllegalArgumentException If the team is not in the group or the position does not exist.
+         */
+        public long getPositionCount(String teamName, int position) throws IllegalArgumentException {
+            if (position < 1 || position > teamNames.length) {
+                throw new IllegalArgumentException(
+                        String.format("The position must be between 1 and %d.", teamNames.length));
+            }
+            return positionCounts[slotOf(teamName) * teamNames.length + position - 1];
+        }
+
+        public double getPositionProbability(String teamName, int position) throws IllegalArgumentException {
+            return (double) getPositionCount(teamName, position) / numberOfSeasons;
+        }
+
+        /**
+         * Returns the probabilities of a team finishing in each position.
+         *
+         * @param teamName The name of a team of the group.
+         * @return An array whose element i is the probability of finishing in position i + 1.
+         * @throws IllegalArgumentException If the team is not in the group.
+         */
+        public double[] getPositionProbabilities(String teamName) throws IllegalArgumentException {
+            int slot = slotOf(teamName);
+            double[] probabilities = new double[teamNames.length];
+            for (int i = 0; i < teamNames.length; i++) {
+                probabilities[i] = (double) positionCounts[slot * teamNames.length + i] / numberOfSeasons;
+            }
+            return probabilities;
+        }
+
+        private int slotOf(String teamName) throws IllegalArgumentException {
+            for (int slot = 0; slot < teamNames.length; slot++) {
+                if (teamNames[slot].equals(teamName)) {
+                    return slot;
+                }
+            }
+            throw new IllegalArgumentException(String.format("No team of name %s is in this group.", teamName));
+        }
+
+        @Override
+        public String toString() {
+            List<String> rows = new ArrayList<>();
+            for (String teamName : teamNames) {
+                StringBuilder row = new StringBuilder(teamName);
+                for (double probability : getPositionProbabilities(teamName)) {
+                    row.append(String.format(" %6.2f%%", 100 * probability));
+                }
+                rows.add(row.toString());
+            }
+            return String.join("\n", rows);
+        }
+    }
+}
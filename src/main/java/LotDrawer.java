@@ -0,0 +1,23 @@
+/**
+ * The LotDrawer interface represents the drawing of lots, the last criterion used to rank
+ * teams that are still tied after every other tie-breaker of their competition.
+ *
+ * Usage:
+ * A Group asks its LotDrawer for one lot order per ranking: the lots are kept until the results
+ * of the group change, so every comparison made while ranking the group sees the same outcome.
+ * The drawer can be replaced with Group.setLotDrawer, for instance by a seeded RandomLotDrawer
+ * so that the rankings of a simulation can be replayed exactly.
+ *
+ * @author Daniel Luo
+ */
+public interface LotDrawer {
+
+    /**
+     * Draws lots between a number of teams.
+     *
+     * @param numberOfTeams The number of teams taking part in the drawing of lots.
+     * @return A permutation of the integers from 0 to numberOfTeams - 1, where the team at
+     *         index i is ranked above every team that drew a greater lot than it.
+     */
+    int[] drawLots(int numberOfTeams);
+}
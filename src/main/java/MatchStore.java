@@ -0,0 +1,433 @@
+import java.util.*;
+
+/**
+ * The MatchStore class holds the results of the matches played within a group in columns:
+ * each match is stored once, as the slots of its two teams, their goals, their cards and its leg,
+ * instead of as two Match objects, one per team.
+ *
+ * Attributes:
+ * teamNames: the name of the team of each slot.
+ * teamKeys: the key of the team of each slot, given by TeamFactory, which keeps the ID of its name in use.
+ * sortedTeamIds, slotBySortedTeamId: the IDs of the teams in increasing order and the slot of each of them,
+ *                                    from which the slot of an ID is found by binary search.
+ * numberOfLegs: the number of matches played between two teams.
+ * homeSlots, awaySlots: the slots of the two teams of each match. In single-legged tournaments,
+ *                       the home team is the first team given when the match was added.
+ * homeGoals, awayGoals: the number of goals scored by each team of each match.
+ * homeCards, awayCards: the penalty cards received by each team of each match, packed as a CardTally.
+ * legs: the leg of each match, always 0 in single-legged tournaments. In double-legged tournaments,
+ *       the leg hosted by the team of lower slot is 0 and the other leg is 1.
+ * matchByFixture: the index of the match of each fixture plus one, 0 if the fixture has not been played.
+ * goalsByLeg: an N×N matrix per leg of the goals scored by each team against each other team,
+ *             NOT_PLAYED if they have not played that leg.
+ *
+ * The matrix of goals is what head-to-head records are summed from: the goals scored by a team against
+ * an opponent are read at goalsByLeg[leg][slot * N + opponentSlot], and the goals conceded at the transposed entry.
+ *
+ * The statistics of every team (wins, draws, losses, goals, away goals, fair play points and number
+ * of matches played) are running totals kept in arrays indexed by slot, updated whenever a match
+ * is added, replaced or removed.
+ *
+ * Usage:
+ * A group owns a MatchStore, and the teams of the group are views over it: their statistics are read
+ * from the running totals and their matches are built from the columns when they are iterated.
+ * Rankings and head-to-head sub-groups scan the columns directly, which only touches a few int arrays.
+ *
+ * The matches are kept in the order they were added, so the matches of a team are listed
+ * in the same order as when they were stored in the team itself.
+ *
+ * @author Daniel Luo
+ */
+final class MatchStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+    static final int NOT_PLAYED = -1; // entry of goalsByLeg for the legs that have not been played
+
+    private final String[] teamNames;
+    private final TeamFactory.TeamKey[] teamKeys;
+    private final int[] sortedTeamIds;
+    private final int[] slotBySortedTeamId;
+    private final Set<String> teamNameSet;
+    private final int numberOfLegs;
+    private int numberOfMatches;
+
+    // one entry per match, in the order the matches were added
+    private int[] homeSlots = new int[INITIAL_CAPACITY];
+    private int[] awaySlots = new int[INITIAL_CAPACITY];
+    private int[] homeGoals = new int[INITIAL_CAPACITY];
+    private int[] awayGoals = new int[INITIAL_CAPACITY];
+    private byte[] legs = new byte[INITIAL_CAPACITY];
+    private int[] homeCards = new int[INITIAL_CAPACITY];
+    private int[] awayCards = new int[INITIAL_CAPACITY];
+    private final int[] matchByFixture;
+    private final int[][] goalsByLeg;
+
+    // running totals by slot
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] losses;
+    private final int[] goalsFor;
+    private final int[] goalsAgainst;
+    private final int[] awayGoalsFor;
+    private final int[] fairPlayPoints;
+    private final int[] matchesPlayed;
+    private final int[] awayMatchesPlayed; // matches played as the away team of a double-legged tournament
+
+    /**
+     * Creates an empty store for the given teams.
+     *
+     * @param teamNames The names of the teams, each team's slot being its index in the array.
+     * @param numberOfLegs The number of matches played between two teams, 1 or 2.
+     */
+    MatchStore(String[] teamNames, int numberOfLegs) {
+        int numberOfTeams = teamNames.length;
+        this.teamNames = teamNames.clone();
+        this.teamKeys = new TeamFactory.TeamKey[numberOfTeams];
+        this.numberOfLegs = numberOfLegs;
+        long[] idsAndSlots = new long[numberOfTeams];
+        for (int slot = 0; slot < numberOfTeams; slot++) {
+            teamKeys[slot] = TeamFactory.teamKey(teamNames[slot]);
+            idsAndSlots[slot] = (long) teamKeys[slot].id() << 32 | slot;
+        }
+        Arrays.sort(idsAndSlots);
+        this.sortedTeamIds = new int[numberOfTeams];
+        this.slotBySortedTeamId = new int[numberOfTeams];
+        for (int i = 0; i < numberOfTeams; i++) {
+            sortedTeamIds[i] = (int) (idsAndSlots[i] >>> 32);
+            slotBySortedTeamId[i] = (int) idsAndSlots[i];
+        }
+        this.teamNameSet = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(teamNames)));
+        this.matchByFixture = new int[numberOfTeams * numberOfTeams * numberOfLegs];
+        this.goalsByLeg = new int[numberOfLegs][numberOfTeams * numberOfTeams];
+        for (int[] goals : goalsByLeg) {
+            Arrays.fill(goals, NOT_PLAYED);
+        }
+        this.wins = new int[numberOfTeams];
+        this.draws = new int[numberOfTeams];
+        this.losses = new int[numberOfTeams];
+        this.goalsFor = new int[numberOfTeams];
+        this.goalsAgainst = new int[numberOfTeams];
+        this.awayGoalsFor = new int[numberOfTeams];
+        this.fairPlayPoints = new int[numberOfTeams];
+        this.matchesPlayed = new int[numberOfTeams];
+        this.awayMatchesPlayed = new int[numberOfTeams];
+    }
+
+    /**
+     * Returns a new store holding the matches of this store played between the given teams only,
+     * found in a single scan of the columns. This is how the head-to-head sub-groups are built.
+     *
+     * @param slots The slots in this store of the teams to keep, in the order of their slots in the new store.
+     * @return A new store with the matches played between the given teams.
+     */
+    MatchStore restrictTo(int[] slots) {
+        String[] names = new String[slots.length];
+        int[] newSlotBySlot = new int[teamNames.length];
+        Arrays.fill(newSlotBySlot, -1);
+        for (int i = 0; i < slots.length; i++) {
+            names[i] = teamNames[slots[i]];
+            newSlotBySlot[slots[i]] = i;
+        }
+        MatchStore subStore = new MatchStore(names, numberOfLegs);
+        for (int match = 0; match < numberOfMatches; match++) {
+            int homeSlot = newSlotBySlot[homeSlots[match]];
+            int awaySlot = newSlotBySlot[awaySlots[match]];
+            if (homeSlot >= 0 && awaySlot >= 0) {
+                subStore.putMatch(homeSlot, awaySlot, homeGoals[match], awayGoals[match],
+                        homeCards[match], awayCards[match]);
+            }
+        }
+        return subStore;
+    }
+
+    /**
+     * Takes the name of a team and returns its slot.
+     *
+     * @param teamName The name of a team.
+     * @return The slot of the team, or -1 if no team of the given name is in the store.
+     */
+    int slotOf(String teamName) {
+        TeamFactory.TeamKey key = TeamFactory.findTeamKey(teamName);
+        return key == null ? -1 : slotOfId(key.id());
+    }
+
+    /**
+     * Takes the ID of a team and returns its slot.
+     *
+     * @param teamId The ID of a team.
+     * @return The slot of the team, or -1 if no team of the given ID is in the store.
+     */
+    int slotOfId(int teamId) {
+        int index = Arrays.binarySearch(sortedTeamIds, teamId);
+        return index < 0 ? -1 : slotBySortedTeamId[index];
+    }
+
+    String getTeamName(int slot) {
+        return teamNames[slot];
+    }
+
+    TeamFactory.TeamKey getTeamKey(int slot) {
+        return teamKeys[slot];
+    }
+
+    /**
+     * Returns the names of the teams of the store.
+     *
+     * @return A read-only set of team names.
+     */
+    Set<String> getTeamNames() {
+        return teamNameSet;
+    }
+
+    int getNumberOfTeams() {
+        return teamNames.length;
+    }
+
+    int getNumberOfLegs() {
+        return numberOfLegs;
+    }
+
+    int getNumberOfMatches() {
+        return numberOfMatches;
+    }
+
+    /**
+     * Returns the leg of the match between two teams. In single-legged tournaments, there is only leg 0;
+     * in double-legged tournaments, leg 0 is hosted by the team of lower slot.
+     *
+     * @param homeSlot The slot of the home team.
+     * @param awaySlot The slot of the away team.
+     * @return The leg of the match.
+     */
+    int legOf(int homeSlot, int awaySlot) {
+        return (numberOfLegs == 2 && homeSlot > awaySlot) ? 1 : 0;
+    }
+
+    /**
+     * Returns the fixture of the match between two teams, which identifies it whatever the order
+     * of the teams in single-legged tournaments.
+     */
+    private int fixtureOf(int homeSlot, int awaySlot) {
+        int pair = Math.min(homeSlot, awaySlot) * teamNames.length + Math.max(homeSlot, awaySlot);
+        return pair * numberOfLegs + legOf(homeSlot, awaySlot);
+    }
+
+    /**
+     * Returns the index of the match hosted by a team against another one. In single-legged tournaments,
+     * the order of the two teams does not matter.
+     *
+     * @param homeSlot The slot of the home team.
+     * @param awaySlot The slot of the away team.
+     * @return The index of the match, or -1 if it has not been played.
+     */
+    int findMatch(int homeSlot, int awaySlot) {
+        return matchByFixture[fixtureOf(homeSlot, awaySlot)] - 1;
+    }
+
+    /**
+     * Returns whether two teams have played at least one match against each other.
+     *
+     * @param slot1 The slot of a team.
+     * @param slot2 The slot of another team.
+     * @return true if a match between the two teams is in the store, false otherwise.
+     */
+    boolean havePlayedAgainst(int slot1, int slot2) {
+        int entry = slot1 * teamNames.length + slot2;
+        for (int[] goals : goalsByLeg) {
+            if (goals[entry] != NOT_PLAYED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of goals scored by a team against another one in a leg of their fixture.
+     *
+     * @param leg The leg, 0 or 1 (see getLeg).
+     * @param slot The slot of the team.
+     * @param opponentSlot The slot of the opponent.
+     * @return The number of goals scored, or NOT_PLAYED if the two teams have not played that leg.
+     */
+    int getGoalsScored(int leg, int slot, int opponentSlot) {
+        return goalsByLeg[leg][slot * teamNames.length + opponentSlot];
+    }
+
+    /**
+     * Adds a match, replacing the result of the same fixture if it has already been played.
+     *
+     * @param homeSlot The slot of the home team, or of the first team in single-legged tournaments.
+     * @param awaySlot The slot of the away team, or of the second team in single-legged tournaments.
+     * @param homeTeamGoals The number of goals scored by the home team, non-negative.
+     * @param awayTeamGoals The number of goals scored by the away team, non-negative.
+     * @param homeTeamCards The tally of the penalty cards received by the home team.
+     * @param awayTeamCards The tally of the penalty cards received by the away team.
+     */
+    void putMatch(int homeSlot, int awaySlot, int homeTeamGoals, int awayTeamGoals,
+                  int homeTeamCards, int awayTeamCards) {
+        int fixture = fixtureOf(homeSlot, awaySlot);
+        int match = matchByFixture[fixture] - 1;
+        if (match >= 0) {
+            recordMatch(match, -1);
+        } else {
+            ensureCapacity(numberOfMatches + 1);
+            match = numberOfMatches++;
+            matchByFixture[fixture] = match + 1;
+        }
+        homeSlots[match] = homeSlot;
+        awaySlots[match] = awaySlot;
+        homeGoals[match] = homeTeamGoals;
+        awayGoals[match] = awayTeamGoals;
+        legs[match] = (byte) legOf(homeSlot, awaySlot);
+        homeCards[match] = homeTeamCards;
+        awayCards[match] = awayTeamCards;
+        goalsByLeg[legs[match]][homeSlot * teamNames.length + awaySlot] = homeTeamGoals;
+        goalsByLeg[legs[match]][awaySlot * teamNames.length + homeSlot] = awayTeamGoals;
+        recordMatch(match, 1);
+    }
+
+    /**
+     * Removes the match hosted by a team against another one. In single-legged tournaments,
+     * the order of the two teams does not matter. It does nothing if the match has not been played.
+     * The matches added afterwards are shifted, so that the order of the matches is kept.
+     *
+     * @param homeSlot The slot of the home team.
+     * @param awaySlot The slot of the away team.
+     */
+    void removeMatch(int homeSlot, int awaySlot) {
+        int fixture = fixtureOf(homeSlot, awaySlot);
+        int match = matchByFixture[fixture] - 1;
+        if (match < 0) {
+            return;
+        }
+        recordMatch(match, -1);
+        matchByFixture[fixture] = 0;
+        goalsByLeg[legs[match]][homeSlots[match] * teamNames.length + awaySlots[match]] = NOT_PLAYED;
+        goalsByLeg[legs[match]][awaySlots[match] * teamNames.length + homeSlots[match]] = NOT_PLAYED;
+        int shifted = numberOfMatches - match - 1;
+        System.arraycopy(homeSlots, match + 1, homeSlots, match, shifted);
+        System.arraycopy(awaySlots, match + 1, awaySlots, match, shifted);
+        System.arraycopy(homeGoals, match + 1, homeGoals, match, shifted);
+        System.arraycopy(awayGoals, match + 1, awayGoals, match, shifted);
+        System.arraycopy(legs, match + 1, legs, match, shifted);
+        System.arraycopy(homeCards, match + 1, homeCards, match, shifted);
+        System.arraycopy(awayCards, match + 1, awayCards, match, shifted);
+        numberOfMatches--;
+        for (int i = match; i < numberOfMatches; i++) {
+            matchByFixture[fixtureOf(homeSlots[i], awaySlots[i])] = i + 1;
+        }
+    }
+
+    /**
+     * Adds (sign = 1) or subtracts (sign = -1) the contribution of a match to the running totals of its teams.
+     *
+     * @param match The index of a match.
+     * @param sign 1 to include the match in the totals, -1 to exclude it.
+     */
+    private void recordMatch(int match, int sign) {
+        int homeSlot = homeSlots[match];
+        int awaySlot = awaySlots[match];
+        int homeTeamGoals = homeGoals[match];
+        int awayTeamGoals = awayGoals[match];
+        if (homeTeamGoals > awayTeamGoals) {
+            wins[homeSlot] += sign;
+            losses[awaySlot] += sign;
+        } else if (homeTeamGoals == awayTeamGoals) {
+            draws[homeSlot] += sign;
+            draws[awaySlot] += sign;
+        } else {
+            losses[homeSlot] += sign;
+            wins[awaySlot] += sign;
+        }
+        goalsFor[homeSlot] += sign * homeTeamGoals;
+        goalsAgainst[homeSlot] += sign * awayTeamGoals;
+        goalsFor[awaySlot] += sign * awayTeamGoals;
+        goalsAgainst[awaySlot] += sign * homeTeamGoals;
+        matchesPlayed[homeSlot] += sign;
+        matchesPlayed[awaySlot] += sign;
+        if (numberOfLegs == 2) {
+            awayGoalsFor[awaySlot] += sign * awayTeamGoals;
+            awayMatchesPlayed[awaySlot] += sign;
+        }
+        fairPlayPoints[homeSlot] += sign * CardTally.penaltyOf(homeCards[match]);
+        fairPlayPoints[awaySlot] += sign * CardTally.penaltyOf(awayCards[match]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= homeSlots.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, 2 * homeSlots.length);
+        homeSlots = Arrays.copyOf(homeSlots, newCapacity);
+        awaySlots = Arrays.copyOf(awaySlots, newCapacity);
+        homeGoals = Arrays.copyOf(homeGoals, newCapacity);
+        awayGoals = Arrays.copyOf(awayGoals, newCapacity);
+        legs = Arrays.copyOf(legs, newCapacity);
+        homeCards = Arrays.copyOf(homeCards, newCapacity);
+        awayCards = Arrays.copyOf(awayCards, newCapacity);
+    }
+
+    int getHomeSlot(int match) {
+        return homeSlots[match];
+    }
+
+    int getAwaySlot(int match) {
+        return awaySlots[match];
+    }
+
+    int getHomeGoals(int match) {
+        return homeGoals[match];
+    }
+
+    int getAwayGoals(int match) {
+        return awayGoals[match];
+    }
+
+    int getLeg(int match) {
+        return legs[match];
+    }
+
+    int getHomeCards(int match) {
+        return homeCards[match];
+    }
+
+    int getAwayCards(int match) {
+        return awayCards[match];
+    }
+
+    int getNumberWins(int slot) {
+        return wins[slot];
+    }
+
+    int getNumberDraws(int slot) {
+        return draws[slot];
+    }
+
+    int getNumberLosses(int slot) {
+        return losses[slot];
+    }
+
+    int getGoalsFor(int slot) {
+        return goalsFor[slot];
+    }
+
+    int getGoalsAgainst(int slot) {
+        return goalsAgainst[slot];
+    }
+
+    int getAwayGoalsFor(int slot) {
+        return awayGoalsFor[slot];
+    }
+
+    int getFairPlayPoints(int slot) {
+        return fairPlayPoints[slot];
+    }
+
+    int getNumberOfMatchesPlayed(int slot) {
+        return matchesPlayed[slot];
+    }
+
+    int getNumberOfAwayMatchesPlayed(int slot) {
+        return awayMatchesPlayed[slot];
+    }
+}
@@ -1,9 +1,88 @@
+import java.util.OptionalInt;
+
 public class PremierLeague extends Group {
 
+    /**
+     * The number of clubs relegated at the end of the season.
+     */
+    public static final int NUMBER_OF_RELEGATED_TEAMS = 3;
+
     public PremierLeague(Team[] teams) {
         super(teams, 20, 2);
     }
 
+    /**
+     * Returns the best position that a team can still reach on points, given the matches that remain to be played.
+     * A tie on points is counted in favour of the team, since goal difference and goals scored can still change.
+     * See EliminationSolver for the method and its guarantees.
+     *
+     * @param teamName The name of a team in the league.
+     * @return The best possible position, starting at 1,
+     *         or an empty OptionalInt if it could not be proven with many matches left to play.
+     * @throws IllegalArgumentException If no team of the given name is in the league.
+     */
+    public OptionalInt getBestPossiblePosition(String teamName) throws IllegalArgumentException {
+        return eliminationSolver().bestPossiblePosition(slotOf(teamName));
+    }
+
+    /**
+     * Returns the worst position that a team can still fall to on points, given the matches that remain to be played.
+     * A tie on points is counted against the team, since goal difference and goals scored can still change.
+     * See EliminationSolver for the method and its guarantees.
+     *
+     * @param teamName The name of a team in the league.
+     * @return The worst possible position, starting at 1,
+     *         or an empty OptionalInt if it could not be proven with many matches left to play.
+     * @throws IllegalArgumentException If no team of the given name is in the league.
+     */
+    public OptionalInt getWorstPossiblePosition(String teamName) throws IllegalArgumentException {
+        return eliminationSolver().worstPossiblePosition(slotOf(teamName));
+    }
+
+    /**
+     * Returns whether a team can still finish in one of the first positions of the league,
+     * for instance in the top 4 to qualify for the Champions League.
+     * A team is only reported as eliminated once it is proven, so the answer is true if the best possible
+     * position of the team could not be proven.
+     *
+     * @param teamName The name of a team in the league.
+     * @param numberOfPositions The number of positions at the top of the league.
+     * @return true if the team is not proven to be eliminated from these positions, false otherwise.
+     * @throws IllegalArgumentException If no team of the given name is in the league.
+     */
+    public boolean canStillFinishInTop(String teamName, int numberOfPositions) throws IllegalArgumentException {
+        OptionalInt bestPossiblePosition = getBestPossiblePosition(teamName);
+        return bestPossiblePosition.isEmpty() || bestPossiblePosition.getAsInt() <= numberOfPositions;
+    }
+
+    public boolean canStillFinishFirst(String teamName) throws IllegalArgumentException {
+        return canStillFinishInTop(teamName, 1);
+    }
+
+    public boolean canStillAvoidRelegation(String teamName) throws IllegalArgumentException {
+        return canStillFinishInTop(teamName, getTeamViews().size() - NUMBER_OF_RELEGATED_TEAMS);
+    }
+
+    /**
+     * Returns whether a team is sure to finish in one of the first positions of the league, whatever the results
+     * of the remaining matches. A clinch is only reported once it is proven, so the answer is false
+     * if the worst possible position of the team could not be proven.
+     *
+     * @param teamName The name of a team in the league.
+     * @param numberOfPositions The number of positions at the top of the league.
+     * @return true if the team is proven to have clinched one of these positions, false otherwise.
+     * @throws IllegalArgumentException If no team of the given name is in the league.
+     */
+    public boolean hasClinchedTop(String teamName, int numberOfPositions) throws IllegalArgumentException {
+        OptionalInt worstPossiblePosition = getWorstPossiblePosition(teamName);
+        return worstPossiblePosition.isPresent() && worstPossiblePosition.getAsInt() <= numberOfPositions;
+    }
+
+    private EliminationSolver eliminationSolver() {
+        int[] points = getTeamViews().stream().mapToInt(TeamView::getPoints).toArray();
+        return new EliminationSolver(points, remainingFixtures());
+    }
+
     /**
      * How the Premier League ranking system breaks ties:
      *
@@ -53,11 +132,14 @@ public class PremierLeague extends Group {
         return 0;
     }
 
+    @Override
+    protected RankingKernel.Rules rankingRules() {
+        return RankingKernel.Rules.PREMIER_LEAGUE;
+    }
+
     @Override
     protected Group createSubGroup(Team team) {
-        Team[] headToHeadTeams = this.getTeamNames().parallelStream()
-                .map(this::getTeamByName).filter(t -> compareTeamsBeforeHeadToHead(team, t) == 0).toArray(Team[]::new);
-        return new PremierLeague(headToHeadTeams);
+        return headToHeadSubGroup(team, PremierLeague::new);
     }
 
     enum Card implements CardEnum {
@@ -0,0 +1,69 @@
+import java.util.SplittableRandom;
+
+/**
+ * The RandomLotDrawer class draws lots uniformly at random, every ordering of the teams
+ * being equally likely.
+ *
+ * Attribute:
+ * random: the source of randomness, seeded on creation.
+ *
+ * Usage:
+ * A RandomLotDrawer created with a seed always draws the same sequence of lot orders,
+ * which makes simulations reproducible. A RandomLotDrawer is not thread-safe: give each
+ * thread its own drawer, for instance with split.
+ *
+ * @author Daniel Luo
+ */
+public class RandomLotDrawer implements LotDrawer {
+
+    private final SplittableRandom random;
+
+    public RandomLotDrawer() {
+        this(new SplittableRandom());
+    }
+
+    public RandomLotDrawer(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Creates a drawer that shares its source of randomness with its caller,
+     * for instance a simulation drawing both scores and lots from one stream.
+     *
+     * @param random The source of randomness.
+     */
+    RandomLotDrawer(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Draws lots by shuffling the teams with the Fisher-Yates algorithm.
+     *
+     * @param numberOfTeams The number of teams taking part in the drawing of lots.
+     * @return A random permutation of the integers from 0 to numberOfTeams - 1.
+     */
+    @Override
+    public int[] drawLots(int numberOfTeams) {
+        int[] lots = new int[numberOfTeams];
+        for (int i = 0; i < numberOfTeams; i++) {
+            lots[i] = i;
+        }
+        for (int i = numberOfTeams - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int lot = lots[i];
+            lots[i] = lots[j];
+            lots[j] = lot;
+        }
+        return lots;
+    }
+
+    /**
+     * Returns a new drawer whose sequence of lot orders is independent of this one,
+     * and which can be used by another thread.
+     *
+     * @return A new RandomLotDrawer.
+     */
+    public RandomLotDrawer split() {
+        return new RandomLotDrawer(random.split());
+    }
+}
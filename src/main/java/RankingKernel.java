@@ -0,0 +1,543 @@
+/**
+ * The RankingKernel class ranks the teams of a round-robin group from primitive arrays,
+ * without allocating anything while ranking. It reproduces the ranking systems of
+ * PremierLeague, FIFAWorldCupGroup and UEFAEuroGroup.
+ *
+ * Attributes:
+ * rules: the ranking system applied by the kernel.
+ * capacity: the maximum number of teams that the kernel can rank.
+ *
+ * The teams are identified by their slot, an integer from 0 to numberOfTeams - 1. For every slot,
+ * the kernel keeps the team's totals (wins, draws, goals, matches played, deducted points and fair play points),
+ * and for every pair of slots, the head-to-head table of the matches played between the two teams.
+ * The criteria applied before the head-to-head record are packed into one long sort key per team.
+ * If a criterion does not fit in its bits, for instance with a score of over a million goals,
+ * the ranking compares the criteria one by one instead.
+ *
+ * Usage:
+ * Call reset with the number of teams, add the results with addResult (or addTeamResult for one side
+ * of a match at a time), set the deducted points and fair play points if any, then call rank.
+ * The ranking is read through getRankedSlot and getPosition. All the arrays are allocated on creation,
+ * so a single kernel can rank any number of hypothetical tables, for instance in a simulation.
+ * The only allocation happens when the drawing of lots is reached, and it is made by the LotDrawer.
+ *
+ * Group uses a RankingKernel internally when its subclass declares its ranking rules.
+ * A RankingKernel is not thread-safe: give each thread its own kernel.
+ *
+ * As in Group, tied teams are compared pairwise, and the head-to-head record is only applied between
+ * two teams that have faced each other. While a group is incomplete, these rules may rank three teams
+ * in a cycle, in which case the order of the cycle depends on the sorting algorithm
+ * and may differ from the order given by Group's comparator.
+ *
+ * Example usage:
+ * ```
+ * RankingKernel kernel = new RankingKernel(RankingKernel.Rules.FIFA_WORLD_CUP, 4);
+ * kernel.reset(4);
+ * kernel.addResult(0, 1, 2, 1);
+ * kernel.addResult(2, 3, 0, 0);
+ * kernel.rank(new RandomLotDrawer(2022));
+ * int leader = kernel.getRankedSlot(0); // 0
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public final class RankingKernel {
+
+    /**
+     * The ranking systems that the kernel can apply.
+     */
+    public enum Rules {
+
+        /**
+         * Points, goal difference and goals for, tied teams sharing their position (see PremierLeague).
+         */
+        PREMIER_LEAGUE,
+
+        /**
+         * Points, goal difference and goals for, then the same criteria between the tied teams,
+         * fair play points and drawing of lots (see FIFAWorldCupGroup).
+         */
+        FIFA_WORLD_CUP,
+
+        /**
+         * Points, then points, goal difference and goals for between the tied teams, applied again to the teams
+         * still tied on points, then goal difference, goals for, wins, fair play points if more than two teams
+         * are tied, and drawing of lots (see UEFAEuroGroup).
+         */
+        UEFA_EURO
+    }
+
+    // each criterion of a sort key is stored with a bias, on KEY_BITS bits
+    private static final int KEY_BITS = 21;
+    private static final int KEY_BIAS = 1 << (KEY_BITS - 1);
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    // below this number of teams, insertion sort is faster than merge sort
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final Rules rules;
+    private final int capacity;
+    private int numberOfTeams;
+
+    // totals of each team, indexed by slot
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] goalsFor;
+    private final int[] goalsAgainst;
+    private final int[] matchesPlayed;
+    private final int[] deductedPoints;
+    private final int[] fairPlayPoints;
+
+    // head-to-head tables, indexed by slot * capacity + opponent slot, from the point of view of the slot
+    private final int[] headToHeadPoints;
+    private final int[] headToHeadGoalsFor;
+    private final int[] headToHeadGoalsAgainst;
+    private final int[] headToHeadMatches;
+
+    // scratch space of a ranking
+    private final long[] sortKeys; // indexed by slot
+    private boolean sortKeysOverflow; // whether a criterion did not fit in its sort key, which are then not used
+    private final int[] rankedSlots; // slots from highest ranked to lowest ranked
+    private final int[] mergeBuffer;
+    private final int[] positionBySlot;
+    // points, goal difference and goals for in the matches between the teams of a cluster, indexed by slot
+    private final int[] clusterPoints;
+    private final int[] clusterGoalDifference;
+    private final int[] clusterGoalsFor;
+    // the same statistics between the teams of a cluster that are still tied on cluster points (UEFA only)
+    private final int[] innerPoints;
+    private final int[] innerGoalDifference;
+    private final int[] innerGoalsFor;
+    // the number of teams tied on points, goal difference and goals for with each team (UEFA only)
+    private final int[] numberOfTiedTeams;
+    private LotDrawer lotDrawer;
+    private int[] lotBySlot; // drawn at most once per ranking, when the drawing of lots is reached
+
+    public RankingKernel(Rules rules, int capacity) throws IllegalArgumentException {
+        if (rules == null) {
+            throw new IllegalArgumentException("The ranking rules can not be null.");
+        } if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must be non-negative.");
+        }
+        this.rules = rules;
+        this.capacity = capacity;
+        wins = new int[capacity];
+        draws = new int[capacity];
+        goalsFor = new int[capacity];
+        goalsAgainst = new int[capacity];
+        matchesPlayed = new int[capacity];
+        deductedPoints = new int[capacity];
+        fairPlayPoints = new int[capacity];
+        headToHeadPoints = new int[capacity * capacity];
+        headToHeadGoalsFor = new int[capacity * capacity];
+        headToHeadGoalsAgainst = new int[capacity * capacity];
+        headToHeadMatches = new int[capacity * capacity];
+        sortKeys = new long[capacity];
+        rankedSlots = new int[capacity];
+        mergeBuffer = new int[capacity];
+        positionBySlot = new int[capacity];
+        clusterPoints = new int[capacity];
+        clusterGoalDifference = new int[capacity];
+        clusterGoalsFor = new int[capacity];
+        innerPoints = new int[capacity];
+        innerGoalDifference = new int[capacity];
+        innerGoalsFor = new int[capacity];
+        numberOfTiedTeams = new int[capacity];
+    }
+
+    public Rules getRules() {
+        return rules;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getNumberOfTeams() {
+        return numberOfTeams;
+    }
+
+    /**
+     * Clears the table and sets the number of teams to be ranked.
+     *
+     * @param numberOfTeams The number of teams, whose slots go from 0 to numberOfTeams - 1.
+     * @throws IllegalArgumentException If numberOfTeams is negative or greater than the capacity of the kernel.
+     */
+    public void reset(int numberOfTeams) throws IllegalArgumentException {
+        if (numberOfTeams < 0 || numberOfTeams > capacity) {
+            throw new IllegalArgumentException(
+                    String.format("The number of teams must be between 0 and %d.", capacity));
+        }
+        this.numberOfTeams = numberOfTeams;
+        for (int slot = 0; slot < numberOfTeams; slot++) {
+            wins[slot] = 0;
+            draws[slot] = 0;
+            goalsFor[slot] = 0;
+            goalsAgainst[slot] = 0;
+            matchesPlayed[slot] = 0;
+            deductedPoints[slot] = 0;
+            fairPlayPoints[slot] = 0;
+            int row = slot * capacity;
+            for (int opponentSlot = 0; opponentSlot < numberOfTeams; opponentSlot++) {
+                headToHeadPoints[row + opponentSlot] = 0;
+                headToHeadGoalsFor[row + opponentSlot] = 0;
+                headToHeadGoalsAgainst[row + opponentSlot] = 0;
+                headToHeadMatches[row + opponentSlot] = 0;
+            }
+        }
+    }
+
+    /**
+     * Replaces the table of this kernel with a copy of the table of another kernel,
+     * without allocating anything. This is faster than replaying the results of the other kernel.
+     *
+     * @param other A kernel with the same rules and capacity.
+     * @throws IllegalArgumentException If the rules or the capacity of the kernels differ.
+     */
+    public void copyFrom(RankingKernel other) throws IllegalArgumentException {
+        if (other.rules != rules || other.capacity != capacity) {
+            throw new IllegalArgumentException("Can only copy a kernel with the same rules and capacity.");
+        }
+        numberOfTeams = other.numberOfTeams;
+        System.arraycopy(other.wins, 0, wins, 0, numberOfTeams);
+        System.arraycopy(other.draws, 0, draws, 0, numberOfTeams);
+        System.arraycopy(other.goalsFor, 0, goalsFor, 0, numberOfTeams);
+        System.arraycopy(other.goalsAgainst, 0, goalsAgainst, 0, numberOfTeams);
+        System.arraycopy(other.matchesPlayed, 0, matchesPlayed, 0, numberOfTeams);
+        System.arraycopy(other.deductedPoints, 0, deductedPoints, 0, numberOfTeams);
+        System.arraycopy(other.fairPlayPoints, 0, fairPlayPoints, 0, numberOfTeams);
+        int tableSize = numberOfTeams == 0 ? 0 : (numberOfTeams - 1) * capacity + numberOfTeams;
+        System.arraycopy(other.headToHeadPoints, 0, headToHeadPoints, 0, tableSize);
+        System.arraycopy(other.headToHeadGoalsFor, 0, headToHeadGoalsFor, 0, tableSize);
+        System.arraycopy(other.headToHeadGoalsAgainst, 0, headToHeadGoalsAgainst, 0, tableSize);
+        System.arraycopy(other.headToHeadMatches, 0, headToHeadMatches, 0, tableSize);
+    }
+
+    /**
+     * Adds a match played between two teams to the table, for both teams.
+     *
+     * @param slot1 The slot of the first team.
+     * @param slot2 The slot of the second team.
+     * @param goals1 The number of goals scored by the first team.
+     * @param goals2 The number of goals scored by the second team.
+     */
+    public void addResult(int slot1, int slot2, int goals1, int goals2) {
+        addTeamResult(slot1, slot2, goals1, goals2);
+        addTeamResult(slot2, slot1, goals2, goals1);
+    }
+
+    /**
+     * Adds a match to the table from the point of view of one of the two teams only.
+     * The match must also be added from the point of view of the opponent.
+     *
+     * @param slot The slot of the team.
+     * @param opponentSlot The slot of the opponent.
+     * @param goalsScored The number of goals scored by the team.
+     * @param goalsConceded The number of goals conceded by the team.
+     */
+    public void addTeamResult(int slot, int opponentSlot, int goalsScored, int goalsConceded) {
+        int points;
+        if (goalsScored > goalsConceded) {
+            wins[slot]++;
+            points = Team.Match.Outcome.WIN.getPoints();
+        } else if (goalsScored == goalsConceded) {
+            draws[slot]++;
+            points = Team.Match.Outcome.DRAW.getPoints();
+        } else {
+            points = Team.Match.Outcome.LOSS.getPoints();
+        }
+        goalsFor[slot] += goalsScored;
+        goalsAgainst[slot] += goalsConceded;
+        matchesPlayed[slot]++;
+        int pair = slot * capacity + opponentSlot;
+        headToHeadPoints[pair] += points;
+        headToHeadGoalsFor[pair] += goalsScored;
+        headToHeadGoalsAgainst[pair] += goalsConceded;
+        headToHeadMatches[pair]++;
+    }
+
+    public void setDeductedPoints(int slot, int points) {
+        deductedPoints[slot] = points;
+    }
+
+    public void setFairPlayPoints(int slot, int points) {
+        fairPlayPoints[slot] = points;
+    }
+
+    public int getPoints(int slot) {
+        return wins[slot] * Team.Match.Outcome.WIN.getPoints() + draws[slot] * Team.Match.Outcome.DRAW.getPoints()
+                + (matchesPlayed[slot] - wins[slot] - draws[slot]) * Team.Match.Outcome.LOSS.getPoints()
+                - deductedPoints[slot];
+    }
+
+    public int getGoalDifference(int slot) {
+        return goalsFor[slot] - goalsAgainst[slot];
+    }
+
+    /**
+     * Returns the slot of the team ranked at the given index after the last call to rank.
+     *
+     * @param rank The index in the ranking, 0 being the highest ranked team.
+     * @return The slot of the team.
+     */
+    public int getRankedSlot(int rank) {
+        return rankedSlots[rank];
+    }
+
+    /**
+     * Returns the position of a team after the last call to rank.
+     * Teams that can not be separated share the same position.
+     *
+     * @param slot The slot of the team.
+     * @return The position of the team, starting at 1.
+     */
+    public int getPosition(int slot) {
+        return positionBySlot[slot];
+    }
+
+    /**
+     * Ranks the teams of the table from highest ranked to lowest ranked.
+     *
+     * @param lotDrawer The drawer used if teams are still tied after every other criterion.
+     *                  It is asked for lots at most once.
+     */
+    public void rank(LotDrawer lotDrawer) {
+        this.lotDrawer = lotDrawer;
+        this.lotBySlot = null;
+        this.sortKeysOverflow = false;
+        for (int slot = 0; slot < numberOfTeams; slot++) {
+            rankedSlots[slot] = slot;
+            int points = getPoints(slot);
+            int goalDifference = rules == Rules.UEFA_EURO ? 0 : getGoalDifference(slot);
+            int goals = rules == Rules.UEFA_EURO ? 0 : goalsFor[slot];
+            sortKeysOverflow |= !fitsInSortKey(points) || !fitsInSortKey(goalDifference) || !fitsInSortKey(goals);
+            sortKeys[slot] = packSortKey(points, goalDifference, goals);
+        }
+        sortBySortKey();
+        int clusterStart = 0;
+        while (clusterStart < numberOfTeams) {
+            int clusterEnd = clusterStart + 1;
+            while (clusterEnd < numberOfTeams
+                    && compareSortKeys(rankedSlots[clusterEnd], rankedSlots[clusterStart]) == 0) {
+                clusterEnd++;
+            }
+            rankCluster(clusterStart, clusterEnd);
+            clusterStart = clusterEnd;
+        }
+        this.lotDrawer = null;
+    }
+
+    private static boolean fitsInSortKey(int criterion) {
+        return criterion >= -KEY_BIAS && criterion < KEY_BIAS;
+    }
+
+    /**
+     * Packs three criteria into a sort key, the first criterion being the most significant.
+     * Each criterion must be greater than or equal to -2^20 and smaller than 2^20, as checked by fitsInSortKey.
+     */
+    private static long packSortKey(int first, int second, int third) {
+        return ((first + KEY_BIAS) & KEY_MASK) << (2 * KEY_BITS)
+                | ((second + KEY_BIAS) & KEY_MASK) << KEY_BITS
+                | ((third + KEY_BIAS) & KEY_MASK);
+    }
+
+    /**
+     * Compares the criteria packed into the sort keys of two teams, one by one if they did not all fit.
+     *
+     * @return A positive integer if the team in slot1 is ranked above the team in slot2 on these criteria,
+     *         a negative integer if it is ranked below, or 0 if they are tied.
+     */
+    private int compareSortKeys(int slot1, int slot2) {
+        if (!sortKeysOverflow) {
+            return Long.compare(sortKeys[slot1], sortKeys[slot2]);
+        }
+        if (getPoints(slot1) != getPoints(slot2) || rules == Rules.UEFA_EURO) {
+            return Integer.compare(getPoints(slot1), getPoints(slot2));
+        }
+        if (getGoalDifference(slot1) != getGoalDifference(slot2)) {
+            return Integer.compare(getGoalDifference(slot1), getGoalDifference(slot2));
+        }
+        return Integer.compare(goalsFor[slot1], goalsFor[slot2]);
+    }
+
+    /**
+     * Sorts rankedSlots by decreasing sort key. The sort is stable, so teams with equal keys keep the order
+     * of their slots, like Arrays.sort does on the teams of a Group.
+     */
+    private void sortBySortKey() {
+        if (numberOfTeams <= INSERTION_SORT_THRESHOLD) {
+            for (int i = 1; i < numberOfTeams; i++) {
+                int slot = rankedSlots[i];
+                int j = i - 1;
+                while (j >= 0 && compareSortKeys(rankedSlots[j], slot) < 0) {
+                    rankedSlots[j + 1] = rankedSlots[j];
+                    j--;
+                }
+                rankedSlots[j + 1] = slot;
+            }
+            return;
+        }
+        // bottom-up merge sort, alternating between rankedSlots and mergeBuffer
+        int[] source = rankedSlots;
+        int[] destination = mergeBuffer;
+        for (int width = 1; width < numberOfTeams; width *= 2) {
+            for (int start = 0; start < numberOfTeams; start += 2 * width) {
+                int middle = Math.min(start + width, numberOfTeams);
+                int end = Math.min(start + 2 * width, numberOfTeams);
+                int left = start;
+                int right = middle;
+                for (int k = start; k < end; k++) {
+                    // take from the left run on equal keys to keep the sort stable
+                    if (left < middle && (right >= end || compareSortKeys(source[left], source[right]) >= 0)) {
+                        destination[k] = source[left++];
+                    } else {
+                        destination[k] = source[right++];
+                    }
+                }
+            }
+            int[] swap = source;
+            source = destination;
+            destination = swap;
+        }
+        if (source != rankedSlots) {
+            System.arraycopy(source, 0, rankedSlots, 0, numberOfTeams);
+        }
+    }
+
+    /**
+     * Ranks the teams of rankedSlots between the two indices, which have the same sort key,
+     * and assigns their positions.
+     *
+     * @param from The index of the first team of the cluster, inclusive.
+     * @param to The index of the last team of the cluster, exclusive.
+     */
+    private void rankCluster(int from, int to) {
+        if (to - from > 1 && rules != Rules.PREMIER_LEAGUE) {
+            computeClusterStatistics(from, to);
+            // stable insertion sort, clusters being small
+            for (int i = from + 1; i < to; i++) {
+                int slot = rankedSlots[i];
+                int j = i - 1;
+                while (j >= from && compareTiedTeams(slot, rankedSlots[j]) > 0) {
+                    rankedSlots[j + 1] = rankedSlots[j];
+                    j--;
+                }
+                rankedSlots[j + 1] = slot;
+            }
+        }
+        positionBySlot[rankedSlots[from]] = from + 1; // + 1 because indices start at 0
+        for (int i = from + 1; i < to; i++) {
+            if (rules != Rules.PREMIER_LEAGUE && compareTiedTeams(rankedSlots[i], rankedSlots[i-1]) < 0) {
+                positionBySlot[rankedSlots[i]] = i + 1;
+            } else {
+                // the Premier League does not break ties further for now
+                positionBySlot[rankedSlots[i]] = positionBySlot[rankedSlots[i-1]];
+            }
+        }
+    }
+
+    /**
+     * Computes the head-to-head statistics of the teams of a cluster, as the sub-groups of Group would.
+     */
+    private void computeClusterStatistics(int from, int to) {
+        for (int i = from; i < to; i++) {
+            int slot = rankedSlots[i];
+            int row = slot * capacity;
+            int points = 0;
+            int goalsScored = 0;
+            int goalsConceded = 0;
+            for (int k = from; k < to; k++) {
+                int opponentSlot = rankedSlots[k];
+                points += headToHeadPoints[row + opponentSlot];
+                goalsScored += headToHeadGoalsFor[row + opponentSlot];
+                goalsConceded += headToHeadGoalsAgainst[row + opponentSlot];
+            }
+            clusterPoints[slot] = points;
+            clusterGoalDifference[slot] = goalsScored - goalsConceded;
+            clusterGoalsFor[slot] = goalsScored;
+        }
+        if (rules != Rules.UEFA_EURO) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            int slot = rankedSlots[i];
+            int row = slot * capacity;
+            int points = 0;
+            int goalsScored = 0;
+            int goalsConceded = 0;
+            int tiedTeams = 0;
+            for (int k = from; k < to; k++) {
+                int otherSlot = rankedSlots[k];
+                if (clusterPoints[otherSlot] == clusterPoints[slot]) {
+                    points += headToHeadPoints[row + otherSlot];
+                    goalsScored += headToHeadGoalsFor[row + otherSlot];
+                    goalsConceded += headToHeadGoalsAgainst[row + otherSlot];
+                }
+                // teams tied on points are all in the cluster
+                if (getGoalDifference(otherSlot) == getGoalDifference(slot) && goalsFor[otherSlot] == goalsFor[slot]) {
+                    tiedTeams++;
+                }
+            }
+            innerPoints[slot] = points;
+            innerGoalDifference[slot] = goalsScored - goalsConceded;
+            innerGoalsFor[slot] = goalsScored;
+            numberOfTiedTeams[slot] = tiedTeams;
+        }
+    }
+
+    /**
+     * Compares two teams of the same cluster, that is, two teams with the same sort key.
+     *
+     * @return A positive integer if slot1 is ranked above slot2, a negative integer if slot2 is ranked above slot1,
+     *         or 0 if they can not be separated.
+     */
+    private int compareTiedTeams(int slot1, int slot2) {
+        if (rules == Rules.UEFA_EURO && matchesPlayed[slot1] == 0 && matchesPlayed[slot2] == 0) {
+            return 0;
+        }
+        // comparing head-to-head record can only be done if both teams have faced each other
+        if (headToHeadMatches[slot1 * capacity + slot2] > 0 && headToHeadMatches[slot2 * capacity + slot1] > 0) {
+            int result = compareStatistics(clusterPoints, clusterGoalDifference, clusterGoalsFor, slot1, slot2);
+            if (result != 0) {
+                return result;
+            }
+            if (rules == Rules.UEFA_EURO) {
+                result = compareStatistics(innerPoints, innerGoalDifference, innerGoalsFor, slot1, slot2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+        }
+        if (rules == Rules.UEFA_EURO) {
+            if (getGoalDifference(slot1) != getGoalDifference(slot2)) {
+                return Integer.compare(getGoalDifference(slot1), getGoalDifference(slot2));
+            }
+            if (goalsFor[slot1] != goalsFor[slot2]) {
+                return Integer.compare(goalsFor[slot1], goalsFor[slot2]);
+            }
+            if (wins[slot1] != wins[slot2]) {
+                return Integer.compare(wins[slot1], wins[slot2]);
+            }
+        }
+        // in the Euros, fair play points only apply if more than two teams are tied
+        if (rules == Rules.FIFA_WORLD_CUP || numberOfTiedTeams[slot1] > 2) {
+            if (fairPlayPoints[slot1] != fairPlayPoints[slot2]) {
+                return Integer.compare(fairPlayPoints[slot1], fairPlayPoints[slot2]);
+            }
+        }
+        if (lotBySlot == null) {
+            lotBySlot = lotDrawer.drawLots(numberOfTeams);
+        }
+        // the lower the lot, the higher the team is ranked
+        return Integer.compare(lotBySlot[slot2], lotBySlot[slot1]);
+    }
+
+    private static int compareStatistics(int[] points, int[] goalDifference, int[] goalsFor, int slot1, int slot2) {
+        if (points[slot1] != points[slot2]) {
+            return Integer.compare(points[slot1], points[slot2]);
+        }
+        if (goalDifference[slot1] != goalDifference[slot2]) {
+            return Integer.compare(goalDifference[slot1], goalDifference[slot2]);
+        }
+        return Integer.compare(goalsFor[slot1], goalsFor[slot2]);
+    }
+}
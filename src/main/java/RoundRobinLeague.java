@@ -0,0 +1,765 @@
+import java.util.*;
+
+/**
+ * The RoundRobinLeague class represents a league of any size in which every team faces every other team
+ * once or twice, ranked by points and then by a configurable list of tie-breakers.
+ * It is meant for large leagues, such as amateur or esports ladders with thousands of teams,
+ * for which the Group class is not designed.
+ *
+ * Attributes:
+ * teamNames: the names of the teams, indexed by their slot.
+ * numberOfLegs: the number of matches played between two teams.
+ * tieBreakers: the criteria applied, in order, to teams level on points.
+ *
+ * The results are stored in columns (home slot, away slot, home goals and away goals), one entry per match,
+ * with an index from each fixture to its entry and, for every team, the list of the entries of its matches.
+ * The totals of every team are kept as running totals. Adding, replacing or removing a match therefore takes
+ * constant time, whatever the number of teams, and the league holds no table whose size grows with
+ * the square of the number of teams.
+ *
+ * Usage:
+ * The ranking is computed lazily, the first time it is read after a change of results. The teams are sorted
+ * on points, then every run of tied teams is sorted on the next tie-breaker and split again, and so on.
+ * Each team takes part in at most one sort per criterion, so ranking takes O(n log n) time for n teams,
+ * plus, for the head-to-head criteria, time proportional to the number of matches played by the tied teams.
+ *
+ * The head-to-head criteria are computed once, on the mini-table of the matches played between the teams
+ * tied on every criterion that precedes the first head-to-head criterion, as in FIFAWorldCupGroup.
+ * Teams still tied after every tie-breaker share their position, unless the last tie-breaker
+ * is the drawing of lots, which is made at most once for the current results.
+ *
+ * In double-legged leagues, the first team of a match is the home team.
+ * In single-legged leagues, the two teams of a match play one fixture, whatever their order.
+ *
+ * Example usage:
+ * ```
+ * RoundRobinLeague ladder = new RoundRobinLeague(teamNames, 2, List.of(
+ *         RoundRobinLeague.TieBreaker.GOAL_DIFFERENCE,
+ *         RoundRobinLeague.TieBreaker.HEAD_TO_HEAD_POINTS,
+ *         RoundRobinLeague.TieBreaker.DRAWING_OF_LOTS));
+ * ladder.addMatch("Team Liquid", "Fnatic", "2-1");
+ * String leader = ladder.sortedTeamNames()[0];
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public class RoundRobinLeague {
+
+    /**
+     * The criteria that can be used to rank teams level on points, the higher value ranking higher.
+     */
+    public enum TieBreaker {
+
+        GOAL_DIFFERENCE(false),
+        GOALS_FOR(false),
+
+        /**
+         * Goals scored in away matches. It only separates teams in double-legged leagues.
+         */
+        AWAY_GOALS_FOR(false),
+
+        WINS(false),
+
+        /**
+         * Points won in the matches played between the tied teams.
+         */
+        HEAD_TO_HEAD_POINTS(true),
+
+        HEAD_TO_HEAD_GOAL_DIFFERENCE(true),
+        HEAD_TO_HEAD_GOALS_FOR(true),
+        HEAD_TO_HEAD_AWAY_GOALS_FOR(true),
+
+        /**
+         * Drawing of lots. It must be the last tie-breaker, since it separates every team.
+         */
+        DRAWING_OF_LOTS(false);
+
+        private final boolean headToHead;
+
+        TieBreaker(boolean headToHead) {
+            this.headToHead = headToHead;
+        }
+
+        public boolean isHeadToHead() {
+            return headToHead;
+        }
+    }
+
+    /**
+     * The tie-breakers used when none are given: goal difference, goals scored,
+     * the same three criteria between the tied teams, then drawing of lots.
+     */
+    public static final List<TieBreaker> DEFAULT_TIE_BREAKERS = List.of(
+            TieBreaker.GOAL_DIFFERENCE, TieBreaker.GOALS_FOR, TieBreaker.HEAD_TO_HEAD_POINTS,
+            TieBreaker.HEAD_TO_HEAD_GOAL_DIFFERENCE, TieBreaker.HEAD_TO_HEAD_GOALS_FOR, TieBreaker.DRAWING_OF_LOTS);
+
+    private static final int INITIAL_CAPACITY = 16;
+    // a counting sort is used when the values to sort span less than twice the number of teams plus this slack
+    private static final int COUNTING_SORT_SLACK = 64;
+
+    private final String[] teamNames;
+    private final Map<String,Integer> slotByName = new HashMap<>();
+    private final int numberOfLegs;
+    private final TieBreaker[] tieBreakers;
+
+    // the matches, one entry per match
+    private int numberOfMatches;
+    private int[] homeSlots = new int[INITIAL_CAPACITY];
+    private int[] awaySlots = new int[INITIAL_CAPACITY];
+    private int[] homeGoals = new int[INITIAL_CAPACITY];
+    private int[] awayGoals = new int[INITIAL_CAPACITY];
+    // index of each match in the match lists of its home and away team
+    private int[] homeListIndices = new int[INITIAL_CAPACITY];
+    private int[] awayListIndices = new int[INITIAL_CAPACITY];
+    private final Map<Long,Integer> matchByFixture = new HashMap<>();
+    // the matches of each team, indexed by slot, followed by unused entries
+    private final int[][] matchesBySlot;
+    private final int[][] opponentsBySlot; // the opponent in each match of matchesBySlot
+    private final int[] numberOfMatchesBySlot;
+
+    // running totals of each team, indexed by slot
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] goalsFor;
+    private final int[] goalsAgainst;
+    private final int[] awayGoalsFor;
+    private final int[] deductedPoints;
+
+    // ranking
+    private boolean rankingOutdated = true;
+    private final int[] rankedSlots;
+    private final int[] positionBySlot;
+    private final int[] sortValues; // the value of the criterion being sorted on, in the order of rankedSlots
+    private final long[] sortKeys; // a team's value for the criterion being sorted on, followed by its slot
+    private final int[] countBuffer;
+    private final int[] slotBuffer;
+    private final int[] valueBuffer;
+    // statistics in the matches between the teams of a cluster, indexed by slot
+    private final int[] headToHeadPoints;
+    private final int[] headToHeadGoalsFor;
+    private final int[] headToHeadGoalsAgainst;
+    private final int[] headToHeadAwayGoalsFor;
+    private final int[] clusterBySlot; // identifies the cluster whose mini-table was last computed for each team
+    private int lastCluster; // never reused, so that the identifiers left by earlier rankings do not match
+    private LotDrawer lotDrawer;
+    private int[] lotBySlot; // lots drawn for the current results, null if not drawn yet
+
+    public RoundRobinLeague(List<String> teamNames, int numberOfLegs) throws IllegalArgumentException {
+        this(teamNames, numberOfLegs, DEFAULT_TIE_BREAKERS);
+    }
+
+    /**
+     * Creates a league without any match played.
+     *
+     * @param teamNames The names of the teams. Their order gives the order of teams that share a position.
+     * @param numberOfLegs The number of matches played between two teams, 1 or 2.
+     * @param tieBreakers The criteria applied, in order, to teams level on points.
+     * @throws IllegalArgumentException If two teams have the same name, the number of legs is neither 1 nor 2,
+     *                                  or a tie-breaker is null, repeated, or follows the drawing of lots.
+     */
+    public RoundRobinLeague(List<String> teamNames, int numberOfLegs,
+                            List<TieBreaker> tieBreakers) throws IllegalArgumentException {
+        if (numberOfLegs != 1 && numberOfLegs != 2) {
+            throw new IllegalArgumentException("The number of legs must be either 1 or 2.");
+        } if (tieBreakers.stream().anyMatch(Objects::isNull)
+                || new HashSet<>(tieBreakers).size() != tieBreakers.size()) {
+            throw new IllegalArgumentException("Tie-breakers can not be null or repeated.");
+        } if (tieBreakers.contains(TieBreaker.DRAWING_OF_LOTS)
+                && tieBreakers.get(tieBreakers.size() - 1) != TieBreaker.DRAWING_OF_LOTS) {
+            throw new IllegalArgumentException("The drawing of lots must be the last tie-breaker.");
+        }
+        this.teamNames = teamNames.toArray(String[]::new);
+        for (int slot = 0; slot < this.teamNames.length; slot++) {
+            if (slotByName.put(this.teamNames[slot], slot) != null) {
+                throw new IllegalArgumentException("Teams with duplicate names detected.");
+            }
+        }
+        this.numberOfLegs = numberOfLegs;
+        this.tieBreakers = tieBreakers.toArray(TieBreaker[]::new);
+        int numberOfTeams = this.teamNames.length;
+        matchesBySlot = new int[numberOfTeams][];
+        opponentsBySlot = new int[numberOfTeams][];
+        numberOfMatchesBySlot = new int[numberOfTeams];
+        wins = new int[numberOfTeams];
+        draws = new int[numberOfTeams];
+        goalsFor = new int[numberOfTeams];
+        goalsAgainst = new int[numberOfTeams];
+        awayGoalsFor = new int[numberOfTeams];
+        deductedPoints = new int[numberOfTeams];
+        rankedSlots = new int[numberOfTeams];
+        positionBySlot = new int[numberOfTeams];
+        sortValues = new int[numberOfTeams];
+        sortKeys = new long[numberOfTeams];
+        countBuffer = new int[2 * numberOfTeams + COUNTING_SORT_SLACK + 1];
+        slotBuffer = new int[numberOfTeams];
+        valueBuffer = new int[numberOfTeams];
+        headToHeadPoints = new int[numberOfTeams];
+        headToHeadGoalsFor = new int[numberOfTeams];
+        headToHeadGoalsAgainst = new int[numberOfTeams];
+        headToHeadAwayGoalsFor = new int[numberOfTeams];
+        clusterBySlot = new int[numberOfTeams];
+    }
+
+    /**
+     * Adds a match played between two teams of the league or updates the score of an existing match.
+     *
+     * @param team1Name The name of the first team. If the league is double-legged, this is the home team.
+     * @param team2Name The name of the second team. If the league is double-legged, this is the away team.
+     * @param score The score of the match. Each number is the number of goals scored by team1 and team2 respectively.
+     * @throws IllegalArgumentException If at least one of the teams' name does not correspond to a team in the league,
+     *                                  both names are equal, or the match's score is not expressed
+     *                                  in the following format: two nonnegative integers separated by a '-'.
+     */
+    public void addMatch(String team1Name, String team2Name, String score) throws IllegalArgumentException {
+        long goals = Team.Match.parseScore(score);
+        String errorMessage = ""; // same messages as Group.addMatch
+        if (goals == Team.Match.INVALID_SCORE) {
+            errorMessage += "The score must be two nonnegative integers separated by '-'.\n";
+        } if (team1Name.equals(team2Name)) {
+            errorMessage += "The names of the two teams facing each other cannot be the same.";
+        } if (!errorMessage.isEmpty()) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+        Integer slot1 = slotByName.get(team1Name);
+        Integer slot2 = slotByName.get(team2Name);
+        if (slot1 == null || slot2 == null) {
+            throw new IllegalArgumentException("Team names must be among the ones in the league.");
+        }
+        int goals1 = (int) (goals >>> 32);
+        int goals2 = (int) goals;
+        Integer existingMatch = matchByFixture.get(fixtureKey(slot1, slot2));
+        if (existingMatch != null) {
+            int match = existingMatch;
+            recordMatch(match, -1);
+            // in single-legged leagues, the teams may be given in the other order than when the match was added
+            boolean sameOrder = homeSlots[match] == slot1;
+            homeGoals[match] = sameOrder ? goals1 : goals2;
+            awayGoals[match] = sameOrder ? goals2 : goals1;
+            recordMatch(match, 1);
+        } else {
+            insertMatch(slot1, slot2, goals1, goals2);
+        }
+        rankingOutdated = true;
+        lotBySlot = null;
+    }
+
+    /**
+     * Removes the match played between two teams of the league.
+     * It does nothing if the teams have not played that match.
+     *
+     * @param team1Name The name of the first team. If the league is double-legged, this is the home team.
+     * @param team2Name The name of the second team. If the league is double-legged, this is the away team.
+     * @throws IllegalArgumentException If at least one of the teams' name does not correspond to a team in the league,
+     *                                  or both names are equal.
+     */
+    public void removeMatch(String team1Name, String team2Name) throws IllegalArgumentException {
+        if (team1Name.equals(team2Name)) {
+            throw new IllegalArgumentException("The names of the two teams facing each other cannot be the same.");
+        }
+        Integer match = matchByFixture.get(fixtureKey(slotOf(team1Name), slotOf(team2Name)));
+        if (match != null) {
+            deleteMatch(match);
+            rankingOutdated = true;
+            lotBySlot = null;
+        }
+    }
+
+    /**
+     * Returns the key of the fixture between two teams: ordered by home and away team if the league
+     * is double-legged, unordered otherwise.
+     */
+    private long fixtureKey(int slot1, int slot2) {
+        if (numberOfLegs == 1 && slot1 > slot2) {
+            return (long) slot2 * teamNames.length + slot1;
+        }
+        return (long) slot1 * teamNames.length + slot2;
+    }
+
+    private void insertMatch(int homeSlot, int awaySlot, int goalsOfHomeTeam, int goalsOfAwayTeam) {
+        if (numberOfMatches == homeSlots.length) {
+            int capacity = 2 * homeSlots.length;
+            homeSlots = Arrays.copyOf(homeSlots, capacity);
+            awaySlots = Arrays.copyOf(awaySlots, capacity);
+            homeGoals = Arrays.copyOf(homeGoals, capacity);
+            awayGoals = Arrays.copyOf(awayGoals, capacity);
+            homeListIndices = Arrays.copyOf(homeListIndices, capacity);
+            awayListIndices = Arrays.copyOf(awayListIndices, capacity);
+        }
+        int match = numberOfMatches++;
+        homeSlots[match] = homeSlot;
+        awaySlots[match] = awaySlot;
+        homeGoals[match] = goalsOfHomeTeam;
+        awayGoals[match] = goalsOfAwayTeam;
+        homeListIndices[match] = appendToMatchList(homeSlot, match, awaySlot);
+        awayListIndices[match] = appendToMatchList(awaySlot, match, homeSlot);
+        matchByFixture.put(fixtureKey(homeSlot, awaySlot), match);
+        recordMatch(match, 1);
+    }
+
+    /**
+     * Removes a match from the columns by moving the last match into its entry.
+     */
+    private void deleteMatch(int match) {
+        recordMatch(match, -1);
+        removeFromMatchList(homeSlots[match], homeListIndices[match]);
+        removeFromMatchList(awaySlots[match], awayListIndices[match]);
+        matchByFixture.remove(fixtureKey(homeSlots[match], awaySlots[match]));
+        int lastMatch = --numberOfMatches;
+        if (match != lastMatch) {
+            homeSlots[match] = homeSlots[lastMatch];
+            awaySlots[match] = awaySlots[lastMatch];
+            homeGoals[match] = homeGoals[lastMatch];
+            awayGoals[match] = awayGoals[lastMatch];
+            homeListIndices[match] = homeListIndices[lastMatch];
+            awayListIndices[match] = awayListIndices[lastMatch];
+            matchesBySlot[homeSlots[match]][homeListIndices[match]] = match;
+            matchesBySlot[awaySlots[match]][awayListIndices[match]] = match;
+            matchByFixture.put(fixtureKey(homeSlots[match], awaySlots[match]), match);
+        }
+    }
+
+    /**
+     * Appends a match to the match list of a team.
+     *
+     * @return The index of the match in the list.
+     */
+    private int appendToMatchList(int slot, int match, int opponentSlot) {
+        int[] matches = matchesBySlot[slot];
+        int size = numberOfMatchesBySlot[slot];
+        if (matches == null || size == matches.length) {
+            int capacity = (matches == null) ? Math.min(INITIAL_CAPACITY, numberOfLegs * teamNames.length)
+                    : Math.min(2 * size, numberOfLegs * teamNames.length);
+            matches = matchesBySlot[slot] = (matches == null) ? new int[capacity] : Arrays.copyOf(matches, capacity);
+            opponentsBySlot[slot] = (opponentsBySlot[slot] == null)
+                    ? new int[capacity] : Arrays.copyOf(opponentsBySlot[slot], capacity);
+        }
+        matches[size] = match;
+        opponentsBySlot[slot][size] = opponentSlot;
+        numberOfMatchesBySlot[slot] = size + 1;
+        return size;
+    }
+
+    /**
+     * Removes the match at the given index of the match list of a team by moving the last match of the list there.
+     */
+    private void removeFromMatchList(int slot, int index) {
+        int[] matches = matchesBySlot[slot];
+        int lastIndex = --numberOfMatchesBySlot[slot];
+        int movedMatch = matches[lastIndex];
+        matches[index] = movedMatch;
+        opponentsBySlot[slot][index] = opponentsBySlot[slot][lastIndex];
+        if (homeSlots[movedMatch] == slot) {
+            homeListIndices[movedMatch] = index;
+        } else {
+            awayListIndices[movedMatch] = index;
+        }
+    }
+
+    /**
+     * Adds (sign = 1) or subtracts (sign = -1) the contribution of a match to the running totals of both teams.
+     */
+    private void recordMatch(int match, int sign) {
+        int homeSlot = homeSlots[match];
+        int awaySlot = awaySlots[match];
+        if (homeGoals[match] > awayGoals[match]) {
+            wins[homeSlot] += sign;
+        } else if (homeGoals[match] < awayGoals[match]) {
+            wins[awaySlot] += sign;
+        } else {
+            draws[homeSlot] += sign;
+            draws[awaySlot] += sign;
+        }
+        goalsFor[homeSlot] += sign * homeGoals[match];
+        goalsAgainst[homeSlot] += sign * awayGoals[match];
+        goalsFor[awaySlot] += sign * awayGoals[match];
+        goalsAgainst[awaySlot] += sign * homeGoals[match];
+        if (numberOfLegs == 2) {
+            awayGoalsFor[awaySlot] += sign * awayGoals[match];
+        }
+    }
+
+    /**
+     * Sets the number of points to deduct from a team due to policy violations.
+     *
+     * @param teamName The name of a team in the league.
+     * @param points The number of points to deduct from the team.
+     * @throws IllegalArgumentException If no team of the given name is in the league or the number of points is negative.
+     */
+    public void setDeductedPoints(String teamName, int points) throws IllegalArgumentException {
+        int slot = slotOf(teamName);
+        if (points < 0) {
+            throw new IllegalArgumentException("Deducted points must be non-negative.");
+        }
+        deductedPoints[slot] = points;
+        rankingOutdated = true;
+        lotBySlot = null;
+    }
+
+    /**
+     * Sets the drawer used for the drawing of lots. The lots already drawn are discarded.
+     *
+     * @param lotDrawer The drawer of lots, for instance a seeded RandomLotDrawer.
+     * @throws IllegalArgumentException If lotDrawer is null.
+     */
+    public void setLotDrawer(LotDrawer lotDrawer) throws IllegalArgumentException {
+        if (lotDrawer == null) {
+            throw new IllegalArgumentException("The lot drawer can not be null.");
+        }
+        this.lotDrawer = lotDrawer;
+        rankingOutdated = true;
+        lotBySlot = null;
+    }
+
+    private int slotOf(String teamName) throws IllegalArgumentException {
+        Integer slot = slotByName.get(teamName);
+        if (slot == null) {
+            throw new IllegalArgumentException(String.format("No team of name %s is in this league.", teamName));
+        }
+        return slot;
+    }
+
+    public int getNumberOfTeams() {
+        return teamNames.length;
+    }
+
+    public int getNumberOfLegs() {
+        return numberOfLegs;
+    }
+
+    public List<TieBreaker> getTieBreakers() {
+        return List.of(tieBreakers);
+    }
+
+    /**
+     * Returns the names of the teams in the order given on creation.
+     *
+     * @return A read-only list of team names.
+     */
+    public List<String> getTeamNames() {
+        return List.of(teamNames);
+    }
+
+    /**
+     * Returns the number of matches played in the league so far.
+     *
+     * @return The number of matches played.
+     */
+    public int getNumberOfMatchesPlayed() {
+        return numberOfMatches;
+    }
+
+    public int getNumberOfMatchesPlayed(String teamName) throws IllegalArgumentException {
+        return numberOfMatchesBySlot[slotOf(teamName)];
+    }
+
+    public int getPoints(String teamName) throws IllegalArgumentException {
+        return pointsOf(slotOf(teamName));
+    }
+
+    private int pointsOf(int slot) {
+        return wins[slot] * Team.Match.Outcome.WIN.getPoints() + draws[slot] * Team.Match.Outcome.DRAW.getPoints()
+                + (numberOfMatchesBySlot[slot] - wins[slot] - draws[slot]) * Team.Match.Outcome.LOSS.getPoints()
+                - deductedPoints[slot];
+    }
+
+    public int getGoalsFor(String teamName) throws IllegalArgumentException {
+        return goalsFor[slotOf(teamName)];
+    }
+
+    public int getGoalsAgainst(String teamName) throws IllegalArgumentException {
+        return goalsAgainst[slotOf(teamName)];
+    }
+
+    public int getGoalDifference(String teamName) throws IllegalArgumentException {
+        int slot = slotOf(teamName);
+        return goalsFor[slot] - goalsAgainst[slot];
+    }
+
+    /**
+     * Returns whether two teams have played at least one match against each other.
+     *
+     * @param team1Name The name of a team in the league.
+     * @param team2Name The name of another team in the league.
+     * @return true if the teams have played a home or away match against each other, false otherwise.
+     * @throws IllegalArgumentException If no team of one of the given names is in the league.
+     */
+    public boolean havePlayedAgainst(String team1Name, String team2Name) throws IllegalArgumentException {
+        int slot1 = slotOf(team1Name);
+        int slot2 = slotOf(team2Name);
+        return matchByFixture.containsKey(fixtureKey(slot1, slot2))
+                || matchByFixture.containsKey(fixtureKey(slot2, slot1));
+    }
+
+    /**
+     * Returns whether the league is complete, that is,
+     * every team has faced each other (twice for double-legged format).
+     *
+     * @return true if the league is complete, false otherwise.
+     */
+    public boolean isComplete() {
+        long numberOfTeams = teamNames.length;
+        return numberOfMatches == numberOfTeams * (numberOfTeams - 1) / 2 * numberOfLegs;
+    }
+
+    /**
+     * Returns the names of the teams sorted from highest ranked to lowest ranked.
+     *
+     * @return A new array of team names.
+     */
+    public String[] sortedTeamNames() {
+        ensureRanked();
+        String[] sortedTeamNames = new String[teamNames.length];
+        for (int i = 0; i < teamNames.length; i++) {
+            sortedTeamNames[i] = teamNames[rankedSlots[i]];
+        }
+        return sortedTeamNames;
+    }
+
+    /**
+     * Takes the name of a team and returns its position in the league.
+     * Teams that can not be separated by any tie-breaker share the same position.
+     *
+     * @param teamName The name of a team in the league.
+     * @return The position of the team, starting at 1.
+     * @throws IllegalArgumentException If no team of the given name is in the league.
+     */
+    public int getTeamPositionByName(String teamName) throws IllegalArgumentException {
+        int slot = slotOf(teamName);
+        ensureRanked();
+        return positionBySlot[slot];
+    }
+
+    /**
+     * Takes the name of a team and returns a string displaying its position, name, number of matches played,
+     * number of matches won, number of matches drawn, number of matches lost, number of goals scored,
+     * number of goals conceded, goal difference and number of points, in the same format as Group.
+     *
+     * @return information about the team.
+     * @throws IllegalArgumentException If no team of the given name is in the league.
+     */
+    public String getTableRowByTeamName(String teamName) throws IllegalArgumentException {
+        int slot = slotOf(teamName);
+        int goalDifference = goalsFor[slot] - goalsAgainst[slot];
+        int losses = numberOfMatchesBySlot[slot] - wins[slot] - draws[slot];
+        return String.format("%d: %s, Pld: %d, W: %d, D: %d, L: %d, GF: %d, GA: %d, GD: %s, Pts: %d",
+                getTeamPositionByName(teamName), teamName, numberOfMatchesBySlot[slot], wins[slot], draws[slot],
+                losses, goalsFor[slot], goalsAgainst[slot],
+                goalDifference > 0 ? "+" + goalDifference : Integer.toString(goalDifference), pointsOf(slot));
+    }
+
+    private void ensureRanked() {
+        if (rankingOutdated) {
+            rank();
+            rankingOutdated = false;
+        }
+    }
+
+    /**
+     * Sorts the teams on points, then breaks the ties of every run of teams level on points.
+     */
+    private void rank() {
+        int numberOfTeams = teamNames.length;
+        for (int slot = 0; slot < numberOfTeams; slot++) {
+            rankedSlots[slot] = slot;
+            sortValues[slot] = pointsOf(slot);
+        }
+        sortByDecreasingValue(0, numberOfTeams);
+        int runStart = 0;
+        while (runStart < numberOfTeams) {
+            int runEnd = endOfRun(runStart, numberOfTeams);
+            breakTies(runStart, runEnd, 0, false);
+            runStart = runEnd;
+        }
+    }
+
+    /**
+     * Ranks the teams of rankedSlots between the two indices, which are tied on points and on every tie-breaker
+     * before the given one, and assigns their positions.
+     *
+     * @param from The index of the first team of the run, inclusive.
+     * @param to The index of the last team of the run, exclusive.
+     * @param tieBreakerIndex The index of the next tie-breaker to apply.
+     * @param headToHeadComputed Whether the head-to-head mini-table of the run was already computed.
+     */
+    private void breakTies(int from, int to, int tieBreakerIndex, boolean headToHeadComputed) {
+        if (to - from == 1 || tieBreakerIndex == tieBreakers.length) {
+            for (int i = from; i < to; i++) {
+                positionBySlot[rankedSlots[i]] = from + 1; // + 1 because indices start at 0
+            }
+            return;
+        }
+        TieBreaker tieBreaker = tieBreakers[tieBreakerIndex];
+        if (tieBreaker.isHeadToHead() && !headToHeadComputed) {
+            computeHeadToHead(from, to);
+            headToHeadComputed = true;
+        }
+        for (int i = from; i < to; i++) {
+            sortValues[i] = valueOf(tieBreaker, rankedSlots[i]);
+        }
+        sortByDecreasingValue(from, to);
+        int runStart = from;
+        while (runStart < to) {
+            // the recursive call only overwrites the sort values of its own run
+            int runEnd = endOfRun(runStart, to);
+            breakTies(runStart, runEnd, tieBreakerIndex + 1, headToHeadComputed);
+            runStart = runEnd;
+        }
+    }
+
+    /**
+     * Returns the end of the run of teams with the same sort value that starts at the given index.
+     */
+    private int endOfRun(int runStart, int to) {
+        int runEnd = runStart + 1;
+        while (runEnd < to && sortValues[runEnd] == sortValues[runStart]) {
+            runEnd++;
+        }
+        return runEnd;
+    }
+
+    /**
+     * Sorts the teams of rankedSlots between the two indices by decreasing sort value, along with their values.
+     * The sort is stable, so teams with the same value stay in the order of their slots.
+     * Points, goals and wins usually span a range of values no wider than the number of teams,
+     * in which case a counting sort is used, in linear time.
+     *
+     * @param from The index of the first team to sort, inclusive.
+     * @param to The index of the last team to sort, exclusive.
+     */
+    private void sortByDecreasingValue(int from, int to) {
+        int minimum = Integer.MAX_VALUE;
+        int maximum = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            minimum = Math.min(minimum, sortValues[i]);
+            maximum = Math.max(maximum, sortValues[i]);
+        }
+        if (to - from < 2 || minimum == maximum) {
+            return;
+        }
+        long range = (long) maximum - minimum;
+        if (range > 2L * (to - from) + COUNTING_SORT_SLACK) {
+            for (int i = from; i < to; i++) {
+                sortKeys[i] = sortKey(sortValues[i], rankedSlots[i]);
+            }
+            Arrays.sort(sortKeys, from, to);
+            for (int i = from; i < to; i++) {
+                rankedSlots[i] = (int) sortKeys[i];
+                sortValues[i] = ~(int) (sortKeys[i] >> 32);
+            }
+            return;
+        }
+        // count the teams of each value, indexed by maximum - value, then turn the counts into first indices
+        Arrays.fill(countBuffer, 0, (int) range + 1, 0);
+        for (int i = from; i < to; i++) {
+            countBuffer[maximum - sortValues[i]]++;
+        }
+        int firstIndex = from;
+        for (int k = 0; k <= range; k++) {
+            int count = countBuffer[k];
+            countBuffer[k] = firstIndex;
+            firstIndex += count;
+        }
+        for (int i = from; i < to; i++) {
+            int index = countBuffer[maximum - sortValues[i]]++;
+            slotBuffer[index] = rankedSlots[i];
+            valueBuffer[index] = sortValues[i];
+        }
+        System.arraycopy(slotBuffer, from, rankedSlots, from, to - from);
+        System.arraycopy(valueBuffer, from, sortValues, from, to - from);
+    }
+
+    /**
+     * Packs a sort value with a slot, so that sorting the keys in increasing order
+     * sorts the teams by decreasing value, then by increasing slot.
+     */
+    private static long sortKey(int value, int slot) {
+        return (long) ~value << 32 | slot;
+    }
+
+    private int valueOf(TieBreaker tieBreaker, int slot) {
+        return switch (tieBreaker) {
+            case GOAL_DIFFERENCE -> goalsFor[slot] - goalsAgainst[slot];
+            case GOALS_FOR -> goalsFor[slot];
+            case AWAY_GOALS_FOR -> awayGoalsFor[slot];
+            case WINS -> wins[slot];
+            case HEAD_TO_HEAD_POINTS -> headToHeadPoints[slot];
+            case HEAD_TO_HEAD_GOAL_DIFFERENCE -> headToHeadGoalsFor[slot] - headToHeadGoalsAgainst[slot];
+            case HEAD_TO_HEAD_GOALS_FOR -> headToHeadGoalsFor[slot];
+            case HEAD_TO_HEAD_AWAY_GOALS_FOR -> headToHeadAwayGoalsFor[slot];
+            // the lower the lot, the higher the team is ranked
+            case DRAWING_OF_LOTS -> -lotsOfCurrentResults()[slot];
+        };
+    }
+
+    /**
+     * Computes the mini-table of the matches played between the teams of rankedSlots between the two indices,
+     * going through the matches of these teams only.
+     */
+    private void computeHeadToHead(int from, int to) {
+        if (lastCluster == Integer.MAX_VALUE) {
+            Arrays.fill(clusterBySlot, 0);
+            lastCluster = 0;
+        }
+        int cluster = ++lastCluster; // cluster identifiers start at 1, 0 being the value of no cluster
+        for (int i = from; i < to; i++) {
+            int slot = rankedSlots[i];
+            clusterBySlot[slot] = cluster;
+            headToHeadPoints[slot] = 0;
+            headToHeadGoalsFor[slot] = 0;
+            headToHeadGoalsAgainst[slot] = 0;
+            headToHeadAwayGoalsFor[slot] = 0;
+        }
+        for (int i = from; i < to; i++) {
+            int slot = rankedSlots[i];
+            int[] matches = matchesBySlot[slot];
+            int[] opponents = opponentsBySlot[slot];
+            for (int k = 0; k < numberOfMatchesBySlot[slot]; k++) {
+                // the opponents are checked first, since most of them are not in the cluster
+                if (clusterBySlot[opponents[k]] != cluster) {
+                    continue;
+                }
+                int match = matches[k];
+                // each match between two teams of the cluster is counted once, from its home team
+                if (homeSlots[match] != slot) {
+                    continue;
+                }
+                int awaySlot = opponents[k];
+                int goalsOfHomeTeam = homeGoals[match];
+                int goalsOfAwayTeam = awayGoals[match];
+                headToHeadPoints[slot] += pointsFor(goalsOfHomeTeam, goalsOfAwayTeam);
+                headToHeadPoints[awaySlot] += pointsFor(goalsOfAwayTeam, goalsOfHomeTeam);
+                headToHeadGoalsFor[slot] += goalsOfHomeTeam;
+                headToHeadGoalsAgainst[slot] += goalsOfAwayTeam;
+                headToHeadGoalsFor[awaySlot] += goalsOfAwayTeam;
+                headToHeadGoalsAgainst[awaySlot] += goalsOfHomeTeam;
+                if (numberOfLegs == 2) {
+                    headToHeadAwayGoalsFor[awaySlot] += goalsOfAwayTeam;
+                }
+            }
+        }
+    }
+
+    private static int pointsFor(int goalsScored, int goalsConceded) {
+        if (goalsScored > goalsConceded) {
+            return Team.Match.Outcome.WIN.getPoints();
+        } else if (goalsScored == goalsConceded) {
+            return Team.Match.Outcome.DRAW.getPoints();
+        }
+        return Team.Match.Outcome.LOSS.getPoints();
+    }
+
+    private int[] lotsOfCurrentResults() {
+        if (lotBySlot == null) {
+            if (lotDrawer == null) {
+                lotDrawer = new RandomLotDrawer();
+            }
+            lotBySlot = lotDrawer.drawLots(teamNames.length);
+        }
+        return lotBySlot;
+    }
+
+    public String toString() {
+        return String.format("%s{numberOfTeams=%d, numberOfLegs=%d, numberOfMatches=%d, tieBreakers=%s}",
+                getClass().getName(), teamNames.length, numberOfLegs, numberOfMatches, Arrays.toString(tieBreakers));
+    }
+}
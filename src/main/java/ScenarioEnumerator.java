@@ -0,0 +1,408 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The ScenarioEnumerator class enumerates every combination of scores of the remaining matches of a group,
+ * up to a maximum number of goals per team and per match, and summarizes which finishing orders are possible
+ * and under which results. It is meant for groups before their last matchday, such as the groups of the
+ * FIFA World Cup and of the Euros, where only a couple of matches remain.
+ *
+ * Attributes:
+ * teamNames: the names of the teams, indexed by their slot in the group.
+ * baseTable: a RankingKernel holding the results already played in the group.
+ * remainingFixtures: the matches that remain to be played, as pairs of slots.
+ * goalCap: the maximum number of goals scored by a team in an enumerated match.
+ *
+ * Usage:
+ * The enumerator takes a snapshot of the group on creation. The scores of the remaining matches are enumerated
+ * depth-first, one RankingKernel per remaining match holding the table after that match, so each partial table
+ * is computed once and shared by all the scenarios that follow from it. The scenarios are split into tasks
+ * by the score of the first remaining match, run through an ExecutionPolicy. No cards are given in enumerated
+ * matches, and a scenario in which the drawing of lots is needed is reported as such instead of being decided
+ * at random.
+ *
+ * Example usage:
+ * ```
+ * ScenarioEnumerator.Summary summary = new ScenarioEnumerator(group, 5).enumerate();
+ * for (ScenarioEnumerator.FinishingOrder order : summary.getFinishingOrders()) {
+ *     System.out.println(order);
+ * }
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public class ScenarioEnumerator {
+
+    /**
+     * The maximum number of scenarios enumerated for a group.
+     */
+    public static final long MAX_NUMBER_OF_SCENARIOS = 100_000_000L;
+
+    // bits of the outcome mask of a match, from the point of view of its first team
+    private static final int WIN = 1;
+    private static final int DRAW = 1 << 1;
+    private static final int LOSS = 1 << 2;
+
+    private final String[] teamNames;
+    private final RankingKernel baseTable;
+    private final int[][] remainingFixtures;
+    private final int goalCap;
+    private final int scoresPerMatch; // (goalCap + 1)^2
+
+    public ScenarioEnumerator(Group group, int goalCap) throws IllegalArgumentException {
+        RankingKernel.Rules rules = group.rankingRules();
+        if (rules == null) {
+            throw new IllegalArgumentException("The group must declare the ranking rules of its competition.");
+        } if (group.getTeamViews().size() > 16) {
+            throw new IllegalArgumentException("The scenarios can only be enumerated for groups of at most 16 teams.");
+        } if (goalCap < 0) {
+            throw new IllegalArgumentException("The maximum number of goals must be non-negative.");
+        }
+        this.teamNames = group.getTeamViews().stream().map(TeamView::getName).toArray(String[]::new);
+        this.baseTable = new RankingKernel(rules, teamNames.length);
+        group.fillRankingKernel(baseTable);
+        this.remainingFixtures = group.remainingFixtures();
+        this.goalCap = goalCap;
+        this.scoresPerMatch = (goalCap + 1) * (goalCap + 1);
+        double numberOfScenarios = Math.pow(scoresPerMatch, remainingFixtures.length);
+        if (numberOfScenarios > MAX_NUMBER_OF_SCENARIOS) {
+            throw new IllegalArgumentException(String.format(
+                    "Too many scenarios to enumerate: %d remaining matches with up to %d goals per team.",
+                    remainingFixtures.length, goalCap));
+        }
+    }
+
+    /**
+     * Enumerates the scenarios of several groups in parallel on the common ForkJoinPool,
+     * for instance all the groups of a tournament.
+     *
+     * @param groups The groups, each of them declaring the ranking rules of its competition.
+     * @param goalCap The maximum number of goals scored by a team in an enumerated match.
+     * @return The summaries of the groups, in the same order as the groups.
+     * @throws IllegalArgumentException If the scenarios of one of the groups can not be enumerated.
+     */
+    public static List<Summary> enumerateAll(List<? extends Group> groups, int goalCap)
+            throws IllegalArgumentException {
+        return enumerateAll(groups, goalCap, ExecutionPolicy.pool(ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Enumerates the scenarios of several groups, running one task per group with the given execution policy.
+     * The scenarios of each group are enumerated sequentially within its task.
+     *
+     * @param groups The groups, each of them declaring the ranking rules of its competition.
+     * @param goalCap The maximum number of goals scored by a team in an enumerated match.
+     * @param policy The policy running the tasks.
+     * @return The summaries of the groups, in the same order as the groups.
+     * @throws IllegalArgumentException If the scenarios of one of the groups can not be enumerated.
+     */
+    public static List<Summary> enumerateAll(List<? extends Group> groups, int goalCap, ExecutionPolicy policy)
+            throws IllegalArgumentException {
+        List<ScenarioEnumerator> enumerators = groups.stream()
+                .map(g -> new ScenarioEnumerator(g, goalCap)).toList();
+        return policy.map(enumerators, e -> e.enumerate(ExecutionPolicy.sequential()));
+    }
+
+    /**
+     * Enumerates every scenario of the remaining matches of the group on the common ForkJoinPool
+     * and summarizes the possible finishing orders.
+     *
+     * @return The summary of the scenarios.
+     */
+    public Summary enumerate() {
+        return enumerate(ExecutionPolicy.pool(ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Enumerates every scenario of the remaining matches of the group and summarizes the possible finishing orders,
+     * running one task per score of the first remaining match with the given execution policy.
+     *
+     * @param policy The policy running the tasks.
+     * @return The summary of the scenarios.
+     */
+    public Summary enumerate(ExecutionPolicy policy) {
+        Map<Long,Accumulator> accumulators;
+        if (remainingFixtures.length == 0) {
+            accumulators = new Worker().enumerateFirstScore(-1).accumulators;
+        } else {
+            // one task per score of the first remaining match
+            accumulators = policy.map(IntStream.range(0, scoresPerMatch).boxed().toList(),
+                            score -> new Worker().enumerateFirstScore(score).accumulators).stream()
+                    .reduce(new HashMap<>(), ScenarioEnumerator::merge);
+        }
+        List<FinishingOrder> finishingOrders = accumulators.entrySet().stream()
+                .map(e -> toFinishingOrder(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(FinishingOrder::getNumberOfScenarios).reversed()
+                        .thenComparing(o -> o.getTeamNames().toString()))
+                .toList();
+        long numberOfScenarios = finishingOrders.stream().mapToLong(FinishingOrder::getNumberOfScenarios).sum();
+        List<String> fixtures = Arrays.stream(remainingFixtures)
+                .map(f -> teamNames[f[0]] + " vs " + teamNames[f[1]]).toList();
+        return new Summary(fixtures, goalCap, numberOfScenarios, finishingOrders);
+    }
+
+    private static Map<Long,Accumulator> merge(Map<Long,Accumulator> map1, Map<Long,Accumulator> map2) {
+        Map<Long,Accumulator> merged = new HashMap<>(map1);
+        map2.forEach((key, accumulator) -> merged.merge(key, accumulator, Accumulator::merge));
+        return merged;
+    }
+
+    /**
+     * Enumerates the scenarios that start with a given score of the first remaining match.
+     * Not thread-safe: each task uses its own worker.
+     */
+    private class Worker {
+
+        private final RankingKernel[] tableAfterMatch = new RankingKernel[remainingFixtures.length];
+        private final int[] scores = new int[remainingFixtures.length]; // score index of each remaining match
+        private final FlaggingLotDrawer lotDrawer = new FlaggingLotDrawer();
+        private final Map<Long,Accumulator> accumulators = new HashMap<>();
+
+        Worker() {
+            for (int match = 0; match < tableAfterMatch.length; match++) {
+                tableAfterMatch[match] = new RankingKernel(baseTable.getRules(), teamNames.length);
+            }
+        }
+
+        Worker enumerateFirstScore(int score) {
+            if (score < 0) {
+                record(baseTable);
+            } else {
+                playMatch(0, baseTable, score);
+            }
+            return this;
+        }
+
+        private void playMatch(int match, RankingKernel tableBeforeMatch, int score) {
+            RankingKernel table = tableAfterMatch[match];
+            table.copyFrom(tableBeforeMatch);
+            table.addResult(remainingFixtures[match][0], remainingFixtures[match][1],
+                    score / (goalCap + 1), score % (goalCap + 1));
+            scores[match] = score;
+            if (match == remainingFixtures.length - 1) {
+                record(table);
+                return;
+            }
+            for (int nextScore = 0; nextScore < scoresPerMatch; nextScore++) {
+                playMatch(match + 1, table, nextScore);
+            }
+        }
+
+        private void record(RankingKernel table) {
+            lotDrawer.used = false;
+            table.rank(lotDrawer);
+            long order = 0;
+            for (int rank = 0; rank < teamNames.length; rank++) {
+                order |= (long) table.getRankedSlot(rank) << (4 * rank);
+            }
+            Accumulator accumulator = accumulators.computeIfAbsent(order,
+                    k -> new Accumulator(remainingFixtures.length));
+            long scenarioIndex = 0;
+            for (int match = 0; match < scores.length; match++) {
+                scenarioIndex = scenarioIndex * scoresPerMatch + scores[match];
+                int goals1 = scores[match] / (goalCap + 1);
+                int goals2 = scores[match] % (goalCap + 1);
+                accumulator.outcomeMasks[match] |= (goals1 > goals2) ? WIN : (goals1 == goals2) ? DRAW : LOSS;
+            }
+            accumulator.numberOfScenarios++;
+            if (lotDrawer.used) {
+                accumulator.numberOfScenariosDecidedByLots++;
+            }
+            accumulator.exampleScenario = Math.min(accumulator.exampleScenario, scenarioIndex);
+        }
+    }
+
+    /**
+     * Gives every team the lot of its slot, and records that the drawing of lots was needed.
+     */
+    private static class FlaggingLotDrawer implements LotDrawer {
+
+        private boolean used;
+
+        @Override
+        public int[] drawLots(int numberOfTeams) {
+            used = true;
+            return IntStream.range(0, numberOfTeams).toArray();
+        }
+    }
+
+    /**
+     * The statistics of the scenarios ending in one finishing order.
+     */
+    private static class Accumulator {
+
+        private long numberOfScenarios;
+        private long numberOfScenariosDecidedByLots;
+        private final int[] outcomeMasks; // outcomes of each remaining match leading to this finishing order
+        private long exampleScenario = Long.MAX_VALUE; // the first scenario in enumeration order
+
+        Accumulator(int numberOfMatches) {
+            outcomeMasks = new int[numberOfMatches];
+        }
+
+        Accumulator merge(Accumulator other) {
+            Accumulator merged = new Accumulator(outcomeMasks.length);
+            merged.numberOfScenarios = numberOfScenarios + other.numberOfScenarios;
+            merged.numberOfScenariosDecidedByLots = numberOfScenariosDecidedByLots + other.numberOfScenariosDecidedByLots;
+            for (int match = 0; match < outcomeMasks.length; match++) {
+                merged.outcomeMasks[match] = outcomeMasks[match] | other.outcomeMasks[match];
+            }
+            merged.exampleScenario = Math.min(exampleScenario, other.exampleScenario);
+            return merged;
+        }
+    }
+
+    private FinishingOrder toFinishingOrder(long order, Accumulator accumulator) {
+        List<String> orderedTeamNames = new ArrayList<>();
+        for (int rank = 0; rank < teamNames.length; rank++) {
+            orderedTeamNames.add(teamNames[(int) (order >>> (4 * rank)) & 0xF]);
+        }
+        List<String> conditions = new ArrayList<>();
+        List<String> exampleScores = new ArrayList<>();
+        long scenario = accumulator.exampleScenario;
+        String[] scoreByMatch = new String[remainingFixtures.length];
+        for (int match = remainingFixtures.length - 1; match >= 0; match--) {
+            int score = (int) (scenario % scoresPerMatch);
+            scenario /= scoresPerMatch;
+            scoreByMatch[match] = (score / (goalCap + 1)) + "-" + (score % (goalCap + 1));
+        }
+        for (int match = 0; match < remainingFixtures.length; match++) {
+            String team1Name = teamNames[remainingFixtures[match][0]];
+            String team2Name = teamNames[remainingFixtures[match][1]];
+            conditions.add(describeOutcomes(team1Name, team2Name, accumulator.outcomeMasks[match]));
+            exampleScores.add(team1Name + " " + scoreByMatch[match] + " " + team2Name);
+        }
+        return new FinishingOrder(orderedTeamNames, accumulator.numberOfScenarios,
+                accumulator.numberOfScenariosDecidedByLots, conditions, exampleScores);
+    }
+
+    private static String describeOutcomes(String team1Name, String team2Name, int outcomeMask) {
+        List<String> outcomes = new ArrayList<>();
+        if ((outcomeMask & WIN) != 0) {
+            outcomes.add(team1Name + " win");
+        } if ((outcomeMask & DRAW) != 0) {
+            outcomes.add("draw");
+        } if ((outcomeMask & LOSS) != 0) {
+            outcomes.add(team2Name + " win");
+        }
+        return String.format("%s vs %s: %s", team1Name, team2Name, String.join(" or ", outcomes));
+    }
+
+    /**
+     * The Summary class holds the possible finishing orders of a group, from the most frequent
+     * to the least frequent among the enumerated scenarios.
+     */
+    public static class Summary {
+
+        private final List<String> remainingFixtures;
+        private final int goalCap;
+        private final long numberOfScenarios;
+        private final List<FinishingOrder> finishingOrders;
+
+        private Summary(List<String> remainingFixtures, int goalCap, long numberOfScenarios,
+                        List<FinishingOrder> finishingOrders) {
+            this.remainingFixtures = remainingFixtures;
+            this.goalCap = goalCap;
+            this.numberOfScenarios = numberOfScenarios;
+            this.finishingOrders = finishingOrders;
+        }
+
+        public List<String> getRemainingFixtures() {
+            return remainingFixtures;
+        }
+
+        public int getGoalCap() {
+            return goalCap;
+        }
+
+        public long getNumberOfScenarios() {
+            return numberOfScenarios;
+        }
+
+        public List<FinishingOrder> getFinishingOrders() {
+            return finishingOrders;
+        }
+
+        /**
+         * Returns the finishing positions that a team can reach in at least one scenario.
+         *
+         * @param teamName The name of a team of the group.
+         * @return The possible positions, in increasing order.
+         */
+        public List<Integer> getPossiblePositions(String teamName) {
+            return finishingOrders.stream().map(o -> o.getTeamNames().indexOf(teamName) + 1)
+                    .filter(position -> position > 0).distinct().sorted().toList();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d scenarios (up to %d goals per team) for %s:%n", numberOfScenarios, goalCap,
+                    String.join(", ", remainingFixtures))
+                    + finishingOrders.stream().map(FinishingOrder::toString).collect(Collectors.joining("\n"));
+        }
+    }
+
+    /**
+     * The FinishingOrder class describes the scenarios in which the teams of a group finish in a given order.
+     *
+     * Attributes:
+     * teamNames: the names of the teams, from first to last.
+     * numberOfScenarios: the number of enumerated scenarios ending in this order.
+     * numberOfScenariosDecidedByLots: among those, the number of scenarios in which lots must be drawn,
+     *                                 the order then being only one of the possible outcomes of the draw.
+     * conditions: for each remaining match, the outcomes that appear in at least one of these scenarios.
+     * exampleScores: the scores of the remaining matches in one of these scenarios.
+     */
+    public static class FinishingOrder {
+
+        private final List<String> teamNames;
+        private final long numberOfScenarios;
+        private final long numberOfScenariosDecidedByLots;
+        private final List<String> conditions;
+        private final List<String> exampleScores;
+
+        private FinishingOrder(List<String> teamNames, long numberOfScenarios, long numberOfScenariosDecidedByLots,
+                               List<String> conditions, List<String> exampleScores) {
+            this.teamNames = List.copyOf(teamNames);
+            this.numberOfScenarios = numberOfScenarios;
+            this.numberOfScenariosDecidedByLots = numberOfScenariosDecidedByLots;
+            this.conditions = List.copyOf(conditions);
+            this.exampleScores = List.copyOf(exampleScores);
+        }
+
+        public List<String> getTeamNames() {
+            return teamNames;
+        }
+
+        public long getNumberOfScenarios() {
+            return numberOfScenarios;
+        }
+
+        public long getNumberOfScenariosDecidedByLots() {
+            return numberOfScenariosDecidedByLots;
+        }
+
+        public List<String> getConditions() {
+            return conditions;
+        }
+
+        public List<String> getExampleScores() {
+            return exampleScores;
+        }
+
+        @Override
+        public String toString() {
+            String lots = (numberOfScenariosDecidedByLots > 0)
+                    ? String.format(", %d decided by lots", numberOfScenariosDecidedByLots) : "";
+            return String.format("%s: %d scenarios%s; %s; e.g. %s", String.join(" > ", teamNames),
+                    numberOfScenarios, lots, String.join("; ", conditions), String.join(", ", exampleScores));
+        }
+    }
+}
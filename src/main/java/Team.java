@@ -1,6 +1,4 @@
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -10,11 +8,21 @@ import java.util.stream.Collectors;
  *
  * Attributes:
  * name: the name of the team.
- * matches: a set of matches, each of them specifying a rival team,
+ * id: the dense integer ID of the team's name, given by TeamFactory with the key that the team holds.
+ * matches: a set of matches, each of them specifying a rival team by its ID,
  *          the score and whether it is a home or away match.
+ *          Home and away matches are stored separately, each keyed by the ID of the opponent.
  * deductedPoints: the amount of points deducted from the team
  *                 due to policy violations.
  *
+ * Two teams are equal if they have the same ID, that is, the same name, whatever their matches:
+ * a team stands for a club or a nation, and its matches are its results so far.
+ * Comparing and hashing teams therefore only compares and hashes an int.
+ *
+ * The team's statistics (wins, draws, losses, goals, away goals and fair play points) are kept
+ * as running totals that are updated whenever a match is added, removed or modified,
+ * so reading them does not require going through the matches again.
+ *
  * Usage:
  * The Team class provides functionality for adding and removing match data
  * by creating instances of the inner Match class.
@@ -24,6 +32,13 @@ import java.util.stream.Collectors;
  * Other data such as the number of matches played, number of wins, number of draws, number of losses,
  * goals scored, goals conceded, away goals scored and goal difference will also be displayed in a table.
  *
+ * A read-only view of the team, which can be handed out instead of a copy, is returned by asView.
+ *
+ * The teams of a group are backed by the group's MatchStore instead: their statistics are read from
+ * the store and their matches are built from it when they are iterated. The matches and deducted points
+ * of such a team can only be modified through the group, so that the teams and views a group hands out
+ * can not be used to change its results. Copies of these teams (clone) are standalone teams.
+ *
  * This class also contains two public overloaded static methods called createInstance, which will be
  * called by the TeamFactory class to ensure that all Team instances are unique.
  * They are made public only for the TeamFactory class to be able to use them.
@@ -32,15 +47,36 @@ import java.util.stream.Collectors;
  *
  * @author Daniel Luo
  */
-public class Team implements Cloneable {
+public class Team implements TeamView, Cloneable {
 
     private final String name;
-    private Set<Match> matches = new HashSet<>();
+    private final TeamFactory.TeamKey key; // keeps the ID of the name in use for as long as the team is
+    private final int id;
+    // matches played at home (or all matches in single-legged tournaments) and away, keyed by opponent ID
+    private final Map<Integer,Match> homeMatches = new LinkedHashMap<>();
+    private final Map<Integer,Match> awayMatches = new LinkedHashMap<>();
+    // read-only views over the maps above, or over the store if the team belongs to a group
+    private final Set<Match> matches;
+    private final Set<Match> homeMatchesView;
+    private final Set<Match> awayMatchesView;
     private int deductedPoints;
-
-    // The following variables are used for displaying error messages
-    private static boolean scoreInvalid = false;
-    private static boolean isPlayingAgainstItself = false;
+    // the store holding the matches of the team if it belongs to a group, null otherwise, and the team's slot in it
+    private final MatchStore store;
+    private final int slot;
+
+    // running totals over the team's matches
+    private int numberWins;
+    private int numberDraws;
+    private int numberLosses;
+    private int goalsFor;
+    private int goalsAgainst;
+    private int awayGoals;
+    private int fairPlayPoints;
+
+    private final TeamView view = new ReadOnlyTeam(this);
+    private final boolean matchesLocked; // whether the matches can only be modified through the group
+
+    // The following constants are used for displaying error messages
     private static final String scoreInvalidMessage = "The score must be two non-negative integers separated by '-'.";
     private static final String isPlayingAgainstItselfMessage =
             "All opponents' names should be different from the team's name.";
@@ -48,9 +84,28 @@ public class Team implements Cloneable {
             scoreInvalidMessage.substring(0, scoreInvalidMessage.length() - 1) +
                     ", and " + isPlayingAgainstItselfMessage.toLowerCase();
 
-    private Team(String name, Set<Match> matches, int deductedPoints) {
+    private Team(MatchStore store, int slot, String name) {
         this.name = name;
-        this.matches.addAll(matches);
+        this.key = store == null ? TeamFactory.teamKey(name) : store.getTeamKey(slot);
+        this.id = key.id();
+        this.store = store;
+        this.slot = slot;
+        this.matchesLocked = store != null;
+        if (store == null) {
+            this.matches = new MatchSet(homeMatches, awayMatches);
+            this.homeMatchesView = new MatchSet(homeMatches, Map.of());
+            this.awayMatchesView = new MatchSet(Map.of(), awayMatches);
+        } else {
+            this.matches = new StoredMatchSet(this, true, true);
+            this.homeMatchesView = new StoredMatchSet(this, true, false);
+            this.awayMatchesView = new StoredMatchSet(this, false, true);
+        }
+    }
+
+    private Team(String name, Set<Match> matches, int deductedPoints) {
+        this(null, -1, name);
+        matches.forEach(m -> adoptMatch(new Match(m.opponent, m.getGoalsScored(),
+                m.getGoalsConceded(), m.isAway(), m.selfCards, m.opponentCards)));
         setDeductedPoints(deductedPoints);
     }
 
@@ -61,9 +116,9 @@ public class Team implements Cloneable {
     private Team(String name, int deductedPoints) { this(name, new HashSet<>(), deductedPoints); }
 
     private Team(Team other) {
-        this.name = other.name;
-        this.matches = new HashSet<>();
-        this.matches.addAll(other.matches);
+        this(null, -1, other.name);
+        other.matches.forEach(m -> adoptMatch(new Match(m.opponent, m.getGoalsScored(),
+                m.getGoalsConceded(), m.isAway(), m.selfCards, m.opponentCards)));
         this.deductedPoints = other.deductedPoints;
     }
 
@@ -76,21 +131,21 @@ public class Team implements Cloneable {
      *                                  or 'opponentName' is equal to the team's name.
      */
     public void addMatch(Match match) throws IllegalArgumentException {
-        scoreInvalid = Match.isScoreInvalid(match.getScore());
-        isPlayingAgainstItself = match.getOpponentName().equals(this.getName());
-        throwExceptionMessage();
-        if (matches.parallelStream().anyMatch(
-                m -> m.getOpponentName().equals(match.getOpponentName()) && m.isAway == match.isAway)) {
-            matches.stream()
-                    .filter(m -> m.getOpponentName().equals(match.getOpponentName()) && m.isAway == match.isAway)
-                    .forEach(m -> {
-                        m.setScore(match.getScore());
-                        m.setSelfCards(match.getSelfCards());
-                        m.setOpponentCards(match.getOpponentCards());
-                    }); // update score and cards of existing match
+        checkNotInGroup();
+        // a Match instance always holds a correctly formatted score
+        throwExceptionMessage(false, match.getOpponentId() == id);
+        Match existingMatch = matchesOfLeg(match.isAway).get(match.getOpponentId());
+        if (existingMatch != null) {
+            // update score and cards of existing match, keeping the running totals up to date
+            recordMatch(existingMatch, -1);
+            existingMatch.goalsScored = match.getGoalsScored();
+            existingMatch.goalsConceded = match.getGoalsConceded();
+            existingMatch.selfCards = match.selfCards;
+            existingMatch.opponentCards = match.opponentCards;
+            recordMatch(existingMatch, 1);
         } else {
-            matches.add(new Match(match.getOpponentName(), match.getScore(),
-                    match.isAway(), match.getSelfCards(), match.getOpponentCards()));
+            adoptMatch(new Match(match.opponent, match.getGoalsScored(), match.getGoalsConceded(),
+                    match.isAway(), match.selfCards, match.opponentCards));
         }
     }
 
@@ -108,10 +163,7 @@ public class Team implements Cloneable {
      *                                  or 'opponentName' is equal to the team's name.
      */
     public void addMatch(String opponentName, String score, boolean isAway) throws IllegalArgumentException {
-        scoreInvalid = Match.isScoreInvalid(score);
-        isPlayingAgainstItself = opponentName.equals(name);
-        throwExceptionMessage();
-        addMatch(new Match(opponentName, score, isAway));
+        addMatch(opponentName, score, isAway, List.of(), List.of());
     }
 
     /**
@@ -126,16 +178,17 @@ public class Team implements Cloneable {
      *               It will always be false if the tournament the competes in is single-legged.
      * @param selfCards The list of penalty cards received by the team during the match.
      * @param opponentCards The list of penalty cards received by the opponent during the match.
-     * @throws IllegalArgumentException If 'score' is not in the format indicated above
-     *                                  or 'opponentName' is equal to the team's name.
+     * @throws IllegalArgumentException If 'score' is not in the format indicated above,
+     *                                  'opponentName' is equal to the team's name
+     *                                  or the cards are not valid according to CardTally.validate.
      */
     public void addMatch(String opponentName, String score,
                          boolean isAway, List<Group.CardEnum> selfCards,
                          List<Group.CardEnum> opponentCards) throws IllegalArgumentException {
-        scoreInvalid = Match.isScoreInvalid(score);
-        isPlayingAgainstItself = opponentName.equals(name);
-        throwExceptionMessage();
-        addMatch(new Match(opponentName, score, isAway, selfCards, opponentCards));
+        long goals = Match.parseScore(score);
+        throwExceptionMessage(goals == Match.INVALID_SCORE, opponentName.equals(name));
+        addMatch(new Match(TeamFactory.teamKey(opponentName), (int) (goals >>> 32), (int) goals,
+                isAway, CardTally.of(selfCards), CardTally.of(opponentCards)));
     }
 
     /**
@@ -147,10 +200,8 @@ public class Team implements Cloneable {
      *                                  or at least one match's opponent's name is equal to the team's name.
      */
     public void addMatches(Match... matches) throws IllegalArgumentException {
-        scoreInvalid = Arrays.stream(matches).map(Match::getScore).anyMatch(Match::isScoreInvalid);
-        isPlayingAgainstItself = Arrays.stream(matches).map(Match::getOpponentName)
-                .anyMatch(n -> n.equals(name));
-        throwExceptionMessage();
+        // Match instances always hold correctly formatted scores
+        throwExceptionMessage(false, Arrays.stream(matches).anyMatch(m -> m.getOpponentId() == id));
         Arrays.stream(matches).forEach(this::addMatch);
     }
 
@@ -163,7 +214,71 @@ public class Team implements Cloneable {
      *               It will always be false if the tournament the team competes in is single-legged.
      */
     public void removeMatchByOpponentName(String opponentName, boolean isAway) {
-        matches.removeIf(match -> match.getOpponentName().equals(opponentName) && match.isAway == isAway);
+        checkNotInGroup();
+        TeamFactory.TeamKey opponent = TeamFactory.findTeamKey(opponentName);
+        Match removedMatch = opponent == null ? null : matchesOfLeg(isAway).remove(opponent.id());
+        if (removedMatch != null) {
+            recordMatch(removedMatch, -1);
+            removedMatch.owner = null;
+        }
+    }
+
+    /**
+     * Throws an exception if the team belongs to a group, whose results and deducted points
+     * can only be modified through the group.
+     */
+    private void checkNotInGroup() {
+        if (store != null) {
+            throw new UnsupportedOperationException(
+                    "The results of a team in a group can only be modified through the group.");
+        }
+    }
+
+    /**
+     * Returns the map holding the team's home or away matches, keyed by opponent ID.
+     *
+     * @param isAway Whether to return the away matches.
+     * @return The map of matches of the given leg.
+     */
+    private Map<Integer,Match> matchesOfLeg(boolean isAway) {
+        return isAway ? awayMatches : homeMatches;
+    }
+
+    /**
+     * Adds a match owned by this team to its matches and includes it in the running totals,
+     * replacing the match against the same opponent on the same leg if there is one.
+     * The match will notify the team whenever its score or cards change.
+     *
+     * @param match A match that is not owned by any other team.
+     */
+    private void adoptMatch(Match match) {
+        match.owner = this;
+        Match replacedMatch = matchesOfLeg(match.isAway).put(match.getOpponentId(), match);
+        if (replacedMatch != null) {
+            recordMatch(replacedMatch, -1);
+            replacedMatch.owner = null;
+        }
+        recordMatch(match, 1);
+    }
+
+    /**
+     * Adds (sign = 1) or subtracts (sign = -1) the contribution of a match to the running totals.
+     *
+     * @param match A match played by the team.
+     * @param sign 1 to include the match in the totals, -1 to exclude it.
+     */
+    private void recordMatch(Match match, int sign) {
+        switch (match.getOutcome()) {
+            case WIN -> numberWins += sign;
+            case DRAW -> numberDraws += sign;
+            case LOSS -> numberLosses += sign;
+        }
+        goalsFor += sign * match.getGoalsScored();
+        goalsAgainst += sign * match.getGoalsConceded();
+        if (match.isAway) {
+            awayGoals += sign * match.getGoalsScored();
+        }
+        fairPlayPoints += sign * CardTally.penaltyOf(match.selfCards);
     }
 
     /**
@@ -171,8 +286,21 @@ public class Team implements Cloneable {
      *
      * @param points The number of points to deduct from a team.
      * @throws IllegalArgumentException If the number of points is negative.
+     * @throws UnsupportedOperationException If the team belongs to a group.
      */
     public void setDeductedPoints(int points) {
+        checkNotInGroup();
+        updateDeductedPoints(points);
+    }
+
+    /**
+     * Sets the number of points to deduct from the team, whether it belongs to a group or not.
+     * This method is called by the Group class on the teams it owns.
+     *
+     * @param points The number of points to deduct from a team.
+     * @throws IllegalArgumentException If the number of points is negative.
+     */
+    void updateDeductedPoints(int points) {
         if (points >= 0) {
             this.deductedPoints = points;
         } else {
@@ -186,16 +314,37 @@ public class Team implements Cloneable {
      * @param points The number of points to adjust the total number of deducted points.
      *               Adds to the total if non-negative, subtracts if negative.
      * @throws IllegalArgumentException If the new total number of deducted points becomes negative.
+     * @throws UnsupportedOperationException If the team belongs to a group.
      */
     public void adjustPenaltyPoints(int points) { setDeductedPoints(this.deductedPoints + points); }
 
+    public int getDeductedPoints() {
+        return deductedPoints;
+    }
+
     /**
      * Returns the set of matches that the team has played.
+     * The returned set is a read-only view that reflects later changes to the team's matches.
      *
      * @return The set of matches that the team has played.
      */
     public Set<Match> getMatches() {
-        return Collections.unmodifiableSet(matches);
+        return matches;
+    }
+
+    /**
+     * Returns whether the team has played at least one match against the given opponent team.
+     *
+     * @param opponentName The name of a team.
+     * @return true if the team has played a home or away match against the given team, false otherwise.
+     */
+    public boolean hasPlayedAgainst(String opponentName) {
+        if (store != null) {
+            int opponentSlot = store.slotOf(opponentName);
+            return opponentSlot >= 0 && opponentSlot != slot && store.havePlayedAgainst(slot, opponentSlot);
+        }
+        TeamFactory.TeamKey opponent = TeamFactory.findTeamKey(opponentName);
+        return opponent != null && (homeMatches.containsKey(opponent.id()) || awayMatches.containsKey(opponent.id()));
     }
 
     /**
@@ -204,8 +353,7 @@ public class Team implements Cloneable {
      * @return Number of won matches.
      */
     public int getNumberWins() {
-        return (int) this.getMatches().parallelStream().map(Match::getOutcome)
-                .filter(o -> o.equals(Match.Outcome.WIN)).count();
+        return store == null ? numberWins : store.getNumberWins(slot);
     }
 
     /**
@@ -214,8 +362,7 @@ public class Team implements Cloneable {
      * @return Number of drawn matches.
      */
     public int getNumberDraws() {
-        return (int) this.getMatches().parallelStream().map(Match::getOutcome)
-                .filter(o -> o.equals(Match.Outcome.DRAW)).count();
+        return store == null ? numberDraws : store.getNumberDraws(slot);
     }
 
     /**
@@ -224,8 +371,7 @@ public class Team implements Cloneable {
      * @return Number of lost matches.
      */
     public int getNumberLosses() {
-        return (int) this.getMatches().parallelStream().map(Match::getOutcome)
-                .filter(o -> o.equals(Match.Outcome.LOSS)).count();
+        return store == null ? numberLosses : store.getNumberLosses(slot);
     }
 
     /**
@@ -237,8 +383,8 @@ public class Team implements Cloneable {
      * @return The number of points the team has accumulated.
      */
     public int getPoints() {
-        return this.getMatches().parallelStream().map(match -> match.getOutcome().getPoints())
-                .mapToInt(Integer::intValue).sum() - this.deductedPoints;
+        return getNumberWins() * Match.Outcome.WIN.getPoints() + getNumberDraws() * Match.Outcome.DRAW.getPoints()
+                + getNumberLosses() * Match.Outcome.LOSS.getPoints() - this.deductedPoints;
     }
 
     /**
@@ -247,7 +393,7 @@ public class Team implements Cloneable {
      * @return The number of goals scored.
      */
     public int getGoalsFor() {
-        return this.getMatches().parallelStream().map(Match::getGoalsScored).mapToInt(Integer::intValue).sum();
+        return store == null ? goalsFor : store.getGoalsFor(slot);
     }
 
     /**
@@ -257,7 +403,7 @@ public class Team implements Cloneable {
      * @return The number of goals conceded.
      */
     public int getGoalsAgainst() {
-        return this.getMatches().parallelStream().map(Match::getGoalsConceded).mapToInt(Integer::intValue).sum();
+        return store == null ? goalsAgainst : store.getGoalsAgainst(slot);
     }
 
     /**
@@ -288,43 +434,44 @@ public class Team implements Cloneable {
      * @return The number of matches played.
      */
     public int getNumberOfMatchesPlayed() {
-        return this.getMatches().size();
+        return matches.size();
     }
 
     /**
-     * Returns whether some other object is "equal to" this team object.
+     * Returns whether some other object is "equal to" this team object, that is,
+     * whether it is a team with the same ID. The matches of the teams are not compared.
      *
-     * @return The number of matches played.
+     * @return true if the object is a team with the same ID, false otherwise.
      */
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
-        Team otherTeam = (Team) obj;
-        return name.equals(otherTeam.name) && this.getMatches().equals(otherTeam.getMatches())
-                && this.deductedPoints == otherTeam.deductedPoints;
+        return id == ((Team) obj).id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, this.getMatches());
+        return Integer.hashCode(id);
     }
 
     /**
      * Returns the set of home matches that the team has played.
+     * The returned set is a read-only view that reflects later changes to the team's matches.
      *
      * @return The set of home matches that the team has played.
      */
     public Set<Match> getHomeMatches() {
-        return matches.parallelStream().filter(m -> !m.isAway).collect(Collectors.toSet());
+        return homeMatchesView;
     }
 
     /**
      * Returns the set of away matches that the team has played, if the tournament is double-legged.
+     * The returned set is a read-only view that reflects later changes to the team's matches.
      *
      * @return The set of away matches that the team has played.
      */
     public Set<Match> getAwayMatches() {
-        return matches.parallelStream().filter(m -> m.isAway).collect(Collectors.toSet());
+        return awayMatchesView;
     }
 
     /**
@@ -334,16 +481,19 @@ public class Team implements Cloneable {
      * @return The number of away matches that the team has scored.
      */
     public int getAwayGoals() {
-        return matches.parallelStream().filter(m -> m.isAway).mapToInt(Match::getGoalsScored).sum();
+        return store == null ? awayGoals : store.getAwayGoalsFor(slot);
     }
 
     public List<Group.CardEnum> getCards() {
-        return matches.parallelStream().map(Match::getSelfCards).flatMap(List::stream).collect(Collectors.toList());
+        List<Group.CardEnum> cards = new ArrayList<>();
+        for (Match match : matches) {
+            CardTally.addTo(match.selfCards, cards);
+        }
+        return cards;
     }
 
     public int getFairPlayPoints() {
-        return matches.parallelStream().map(Match::getSelfCards)
-                .flatMap(List::stream).mapToInt(Group.CardEnum::getPenalty).sum();
+        return store == null ? fairPlayPoints : store.getFairPlayPoints(slot);
     }
 
     /**
@@ -355,9 +505,19 @@ public class Team implements Cloneable {
         return name;
     }
 
+    /**
+     * Returns the ID of the team, which TeamFactory gives to every team name.
+     * Teams that have the same name have the same ID.
+     *
+     * @return The ID of the team.
+     */
+    public int getId() {
+        return id;
+    }
+
     public String toString() {
         String initialString = "Team{name=%s, matches={";
-        String result = matches.parallelStream().map(Match::toString)
+        String result = matches.stream().map(Match::toString)
                 .collect(Collectors.joining(", ", initialString, "}}"));
         return String.format(result, name);
     }
@@ -367,91 +527,188 @@ public class Team implements Cloneable {
         return new Team(this);
     }
 
+    /**
+     * Returns a read-only view of the team, which reflects later changes to the team without copying it.
+     * The same view instance is returned on every call.
+     *
+     * @return A read-only view of the team.
+     */
+    public TeamView asView() {
+        return view;
+    }
+
+    /**
+     * Returns the store holding the team's matches if the team belongs to a group.
+     *
+     * @return The store of the team's group, or null if the team does not belong to a group.
+     */
+    MatchStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the slot of the team in the store of its group.
+     *
+     * @return The slot of the team, or -1 if the team does not belong to a group.
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * A read-only view over a team, delegating every call to it.
+     */
+    private static final class ReadOnlyTeam implements TeamView {
+
+        private final Team team;
+
+        ReadOnlyTeam(Team team) {
+            this.team = team;
+        }
+
+        @Override public String getName() { return team.getName(); }
+        @Override public int getId() { return team.getId(); }
+        @Override public Set<Match> getMatches() { return readOnly(team.getMatches()); }
+        @Override public Set<Match> getHomeMatches() { return readOnly(team.getHomeMatches()); }
+        @Override public Set<Match> getAwayMatches() { return readOnly(team.getAwayMatches()); }
+        @Override public int getNumberWins() { return team.getNumberWins(); }
+        @Override public int getNumberDraws() { return team.getNumberDraws(); }
+        @Override public int getNumberLosses() { return team.getNumberLosses(); }
+        @Override public int getPoints() { return team.getPoints(); }
+        @Override public int getGoalsFor() { return team.getGoalsFor(); }
+        @Override public int getGoalsAgainst() { return team.getGoalsAgainst(); }
+        @Override public int getGoalDifference() { return team.getGoalDifference(); }
+        @Override public String getGoalDifferenceToString() { return team.getGoalDifferenceToString(); }
+        @Override public int getNumberOfMatchesPlayed() { return team.getNumberOfMatchesPlayed(); }
+        @Override public int getAwayGoals() { return team.getAwayGoals(); }
+        @Override public List<Group.CardEnum> getCards() { return team.getCards(); }
+        @Override public int getFairPlayPoints() { return team.getFairPlayPoints(); }
+
+        @Override
+        public String toString() {
+            return team.toString();
+        }
+
+        // the matches of a team in a group are already built for every iteration and can not be modified
+        private Set<Match> readOnly(Set<Match> matches) {
+            return team.matchesLocked ? matches : new ReadOnlyMatchSet(matches);
+        }
+    }
+
     /**
      * The Match class represents a football match that the team plays.
      *
      * Attributes:
-     * opponentName: the name of an opponent team.
+     * opponent: the key of an opponent team, given by TeamFactory to its name with its ID.
      * score: the result of the match.
      * isAway: if the match is an away match in a double-legged tournament.
-     * selfCards: the list of penalty cards received by the team.
-     * opponentCards: the list of penalty cards received by the opponent.
+     * selfCards: the penalty cards received by the team, kept as a CardTally of the number of cards of each kind.
+     * opponentCards: the penalty cards received by the opponent, kept as a CardTally.
      *
      * Each score is a string represented in the format "goalsByThisTeam-goalsByOpponent".
      * For example, a match with arguments "Real Madrid" and "3-1" represents a match
      * played against Real Madrid, where the team scored 3 goals and Real Madrid scored 1 goal.
-     * Penalty cards will only be considered for tie-breaking purposes.
+     * Penalty cards will only be considered for tie-breaking purposes. The order of the cards is not kept:
+     * they are listed by kind, and two matches with the same cards in a different order are equal.
+     *
+     * A match added to a team is owned by that team: changing its score or its cards
+     * updates the running totals of the owner.
      */
     static class Match {
 
-        private final String opponentName;
-        private String score;
+        private final TeamFactory.TeamKey opponent;
+        private int goalsScored;
+        private int goalsConceded;
         private final boolean isAway;
-        private List<Group.CardEnum> selfCards;
-        private List<Group.CardEnum> opponentCards;
+        private int selfCards; // tally of the cards, see CardTally
+        private int opponentCards;
+        private Team owner; // the team whose running totals include this match, if any
+        private boolean readOnly; // whether the match is a copy handed out by a read-only view
+
+        // returned by parseScore for incorrectly formatted scores
+        static final long INVALID_SCORE = -1;
 
         public Match(String opponentName, String score, boolean isAway) throws IllegalArgumentException {
-            scoreInvalid = isScoreInvalid(score);
-            throwExceptionMessage();
-            this.opponentName = opponentName;
-            this.score = score;
-            this.isAway = isAway;
-            this.selfCards = List.of();
-            this.opponentCards = List.of();
+            this(opponentName, score, isAway, List.of(), List.of());
         }
 
         public Match(String opponentName, String score) throws IllegalArgumentException {
-            scoreInvalid = isScoreInvalid(score);
-            throwExceptionMessage();
-            this.opponentName = opponentName;
-            this.score = score;
-            this.isAway = false;
-            this.selfCards = List.of();
-            this.opponentCards = List.of();
+            this(opponentName, score, false, List.of(), List.of());
         }
 
         public Match(String opponentName, String score, boolean isAway, List<Group.CardEnum> selfCards,
                      List<Group.CardEnum> opponentCards) throws IllegalArgumentException {
-            scoreInvalid = isScoreInvalid(score);
-            throwExceptionMessage();
-            this.opponentName = opponentName;
-            this.score = score;
+            long goals = parseScore(score);
+            throwExceptionMessage(goals == INVALID_SCORE, false);
+            this.opponent = TeamFactory.teamKey(opponentName);
+            this.goalsScored = (int) (goals >>> 32);
+            this.goalsConceded = (int) goals;
             this.isAway = isAway;
-            this.selfCards = selfCards;
-            this.opponentCards = opponentCards;
+            this.selfCards = CardTally.of(selfCards);
+            this.opponentCards = CardTally.of(opponentCards);
         }
 
         public Match(String opponentName, String score, List<Group.CardEnum> selfCards,
                      List<Group.CardEnum> opponentCards) throws IllegalArgumentException {
-            scoreInvalid = isScoreInvalid(score);
-            throwExceptionMessage();
-            this.opponentName = opponentName;
-            this.score = score;
-            this.isAway = false;
+            this(opponentName, score, false, selfCards, opponentCards);
+        }
+
+        /**
+         * Constructs a match from the key of the opponent and an already validated number of goals.
+         *
+         * @param opponent The key of the opponent, given by TeamFactory.
+         * @param goalsScored The number of goals scored by the team, non-negative.
+         * @param goalsConceded The number of goals conceded by the team, non-negative.
+         * @param selfCards The tally of the penalty cards received by the team.
+         * @param opponentCards The tally of the penalty cards received by the opponent.
+         */
+        Match(TeamFactory.TeamKey opponent, int goalsScored, int goalsConceded, boolean isAway,
+              int selfCards, int opponentCards) {
+            this.opponent = opponent;
+            this.goalsScored = goalsScored;
+            this.goalsConceded = goalsConceded;
+            this.isAway = isAway;
             this.selfCards = selfCards;
             this.opponentCards = opponentCards;
         }
 
         public List<Group.CardEnum> getSelfCards() {
-            return new ArrayList<>(selfCards);
+            return CardTally.toList(selfCards);
+        }
+
+        int getSelfCardTally() {
+            return selfCards;
         }
 
         public void setSelfCards(List<Group.CardEnum> cards) {
             if (cards == null) {
                 throw new IllegalArgumentException("cards cannot be null");
             }
-            this.selfCards = List.copyOf(cards);
+            checkModifiable();
+            int tally = CardTally.of(cards);
+            if (owner != null) {
+                owner.recordMatch(this, -1);
+            }
+            this.selfCards = tally;
+            if (owner != null) {
+                owner.recordMatch(this, 1);
+            }
         }
 
         public List<Group.CardEnum> getOpponentCards() {
-            return new ArrayList<>(opponentCards);
+            return CardTally.toList(opponentCards);
+        }
+
+        int getOpponentCardTally() {
+            return opponentCards;
         }
 
         public void setOpponentCards(List<Group.CardEnum> cards) {
             if (cards == null) {
                 throw new IllegalArgumentException("cards cannot be null");
             }
-            this.opponentCards = List.copyOf(cards);
+            checkModifiable();
+            this.opponentCards = CardTally.of(cards);
         }
 
         /**
@@ -492,7 +749,11 @@ public class Team implements Cloneable {
         }
 
         public String getOpponentName() {
-            return opponentName;
+            return opponent.name();
+        }
+
+        public int getOpponentId() {
+            return opponent.id();
         }
 
         /**
@@ -506,13 +767,45 @@ public class Team implements Cloneable {
         }
 
         public String getScore() {
-            return score;
+            return goalsScored + "-" + goalsConceded;
         }
 
         public void setScore(String score) {
-            scoreInvalid = isScoreInvalid(score);
-            throwExceptionMessage();
-            this.score = score;
+            long goals = parseScore(score);
+            throwExceptionMessage(goals == INVALID_SCORE, false);
+            checkModifiable();
+            if (owner != null) {
+                owner.recordMatch(this, -1);
+            }
+            this.goalsScored = (int) (goals >>> 32);
+            this.goalsConceded = (int) goals;
+            if (owner != null) {
+                owner.recordMatch(this, 1);
+            }
+        }
+
+        /**
+         * Returns a copy of the match that can not be modified, as handed out by a read-only view.
+         *
+         * @return A read-only copy of the match.
+         */
+        Match readOnlyCopy() {
+            Match copy = new Match(opponent, goalsScored, goalsConceded, isAway, selfCards, opponentCards);
+            copy.readOnly = true;
+            return copy;
+        }
+
+        /**
+         * Throws an exception if the match is a read-only copy,
+         * or belongs to a team whose matches can only be modified through its group.
+         */
+        private void checkModifiable() {
+            if (readOnly) {
+                throw new UnsupportedOperationException("The matches of a read-only view can not be modified.");
+            } if (owner != null && owner.matchesLocked) {
+                throw new UnsupportedOperationException(
+                        "The matches of a team in a group can only be modified through the group.");
+            }
         }
 
         /**
@@ -521,7 +814,7 @@ public class Team implements Cloneable {
          * @return Number of goals scored.
          */
         public int getGoalsScored() {
-            return Integer.parseInt(score.split("-")[0]);
+            return goalsScored;
         }
 
         /**
@@ -530,11 +823,11 @@ public class Team implements Cloneable {
          * @return Number of goals conceded.
          */
         public int getGoalsConceded() {
-            return Integer.parseInt(score.split("-")[1]);
+            return goalsConceded;
         }
 
         public String getReversedScore() {
-            return getGoalsConceded() +"-"+ getGoalsScored();
+            return goalsConceded + "-" + goalsScored;
         }
 
         /**
@@ -544,9 +837,9 @@ public class Team implements Cloneable {
          * @return An enum that represents the result of the match.
          */
         public Outcome getOutcome() {
-            if (getGoalsScored() < getGoalsConceded()) {
+            if (goalsScored < goalsConceded) {
                 return Outcome.LOSS;
-            } else if (getGoalsScored() == getGoalsConceded()) {
+            } else if (goalsScored == goalsConceded) {
                 return Outcome.DRAW;
             }
             return Outcome.WIN;
@@ -562,10 +855,50 @@ public class Team implements Cloneable {
          * @return true if the score is incorrectly formatted, false otherwise.
          */
         static boolean isScoreInvalid(String score) {
-            String pattern = "^(0|[1-9]\\d*)-(0|[1-9]\\d*)$"; // non-negative integer, hyphen, non-negative integer
-            Pattern regex = Pattern.compile(pattern);
-            Matcher matcher = regex.matcher(score);
-            return !matcher.matches();
+            return parseScore(score) == INVALID_SCORE;
+        }
+
+        /**
+         * Takes a string representing the score of a match and parses it in a single pass.
+         * The accepted format is the same as in isScoreInvalid: a non-negative integer without leading zeros,
+         * a '-', then another non-negative integer without leading zeros.
+         * Scores whose numbers do not fit in an int are considered incorrectly formatted.
+         *
+         * @param score The score of a match played by the team.
+         * @return The goals scored in the upper 32 bits and the goals conceded in the lower 32 bits,
+         *         or INVALID_SCORE if the score is incorrectly formatted.
+         */
+        static long parseScore(String score) {
+            int hyphen = score.indexOf('-');
+            if (hyphen < 0) {
+                return INVALID_SCORE;
+            }
+            int goalsScored = parseGoals(score, 0, hyphen);
+            int goalsConceded = parseGoals(score, hyphen + 1, score.length());
+            if (goalsScored < 0 || goalsConceded < 0) {
+                return INVALID_SCORE;
+            }
+            return ((long) goalsScored << 32) | goalsConceded;
+        }
+
+        /**
+         * Parses the number of goals written between the indices 'from' (inclusive) and 'to' (exclusive).
+         *
+         * @return The number of goals, or -1 if the characters are not a non-negative integer without leading zeros.
+         */
+        private static int parseGoals(String score, int from, int to) {
+            if (from == to || (score.charAt(from) == '0' && to - from > 1)) {
+                return -1; // empty or leading zero
+            }
+            int goals = 0;
+            for (int i = from; i < to; i++) {
+                char c = score.charAt(i);
+                if (c < '0' || c > '9' || goals > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                    return -1;
+                }
+                goals = goals * 10 + (c - '0');
+            }
+            return goals;
         }
 
         @Override
@@ -573,22 +906,205 @@ public class Team implements Cloneable {
             if (this == obj) return true;
             if (obj == null || getClass() != obj.getClass()) return false;
             Match otherMatch = (Match) obj;
-            return opponentName.equals(otherMatch.opponentName) &&
-                    score.equals(otherMatch.score) && (isAway == otherMatch.isAway) &&
-                    selfCards.equals(otherMatch.selfCards) && opponentCards.equals(otherMatch.opponentCards);
+            return opponent.id() == otherMatch.opponent.id() &&
+                    goalsScored == otherMatch.goalsScored && goalsConceded == otherMatch.goalsConceded &&
+                    (isAway == otherMatch.isAway) &&
+                    selfCards == otherMatch.selfCards && opponentCards == otherMatch.opponentCards;
         }
 
         public String toString() {
             return String.format("Match{opponentName=%s, score=%s, isAway=%b, selfCards=%s, opponentCards=%s}",
-                    opponentName, score, isAway, selfCards, opponentCards);
+                    getOpponentName(), getScore(), isAway, getSelfCards(), getOpponentCards());
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(opponentName, score);
+            // only the fields that can not change, so that a match keeps its hash code when its score is updated
+            return 31 * opponent.id() + Boolean.hashCode(isAway);
+        }
+    }
+
+    /**
+     * A read-only set of matches backed by a map of home matches and a map of away matches,
+     * both keyed by opponent ID. Looking a match up only requires one map lookup.
+     */
+    private static class MatchSet extends AbstractSet<Match> {
+
+        private final Map<Integer,Match> homeMatches;
+        private final Map<Integer,Match> awayMatches;
+
+        MatchSet(Map<Integer,Match> homeMatches, Map<Integer,Match> awayMatches) {
+            this.homeMatches = homeMatches;
+            this.awayMatches = awayMatches;
+        }
+
+        @Override
+        public Iterator<Match> iterator() {
+            Iterator<Match> homeIterator = homeMatches.values().iterator();
+            Iterator<Match> awayIterator = awayMatches.values().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return homeIterator.hasNext() || awayIterator.hasNext();
+                }
+
+                @Override
+                public Match next() {
+                    return homeIterator.hasNext() ? homeIterator.next() : awayIterator.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return homeMatches.size() + awayMatches.size();
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            if (!(obj instanceof Match match)) {
+                return false;
+            }
+            Match storedMatch = (match.isAway() ? awayMatches : homeMatches).get(match.getOpponentId());
+            return match.equals(storedMatch);
+        }
+    }
+
+    /**
+     * A read-only set of matches backed by the matches of a standalone team, whose iterator returns
+     * read-only copies of the matches, so that a view can not be used to modify the team.
+     */
+    private static class ReadOnlyMatchSet extends AbstractSet<Match> {
+
+        private final Set<Match> matches;
+
+        ReadOnlyMatchSet(Set<Match> matches) {
+            this.matches = matches;
+        }
+
+        @Override
+        public Iterator<Match> iterator() {
+            Iterator<Match> iterator = matches.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Match next() {
+                    return iterator.next().readOnlyCopy();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return matches.size();
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            return matches.contains(obj);
+        }
+    }
+
+    /**
+     * A read-only set of the matches of a team that belongs to a group, backed by the group's MatchStore.
+     * The matches are built from the columns of the store whenever the set is iterated, home matches first,
+     * and can not be modified through their setters.
+     */
+    private static class StoredMatchSet extends AbstractSet<Match> {
+
+        private final Team team;
+        private final boolean includesHomeMatches;
+        private final boolean includesAwayMatches;
+
+        StoredMatchSet(Team team, boolean includesHomeMatches, boolean includesAwayMatches) {
+            this.team = team;
+            this.includesHomeMatches = includesHomeMatches;
+            this.includesAwayMatches = includesAwayMatches;
+        }
+
+        @Override
+        public Iterator<Match> iterator() {
+            MatchStore store = team.store;
+            List<Match> matches = new ArrayList<>(size());
+            // in single-legged tournaments, every match is a home match of both teams
+            boolean singleLegged = store.getNumberOfLegs() == 1;
+            if (includesHomeMatches) {
+                for (int match = 0; match < store.getNumberOfMatches(); match++) {
+                    if (store.getHomeSlot(match) == team.slot) {
+                        matches.add(team.storedMatch(match, false));
+                    } else if (singleLegged && store.getAwaySlot(match) == team.slot) {
+                        matches.add(team.storedMatch(match, true));
+                    }
+                }
+            }
+            if (includesAwayMatches && !singleLegged) {
+                for (int match = 0; match < store.getNumberOfMatches(); match++) {
+                    if (store.getAwaySlot(match) == team.slot) {
+                        matches.add(team.storedMatch(match, true));
+                    }
+                }
+            }
+            return Collections.unmodifiableList(matches).iterator();
+        }
+
+        @Override
+        public int size() {
+            int awayMatches = team.store.getNumberOfAwayMatchesPlayed(team.slot);
+            return (includesHomeMatches ? team.store.getNumberOfMatchesPlayed(team.slot) - awayMatches : 0)
+                    + (includesAwayMatches ? awayMatches : 0);
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            if (!(obj instanceof Match match) || (match.isAway() ? !includesAwayMatches : !includesHomeMatches)) {
+                return false;
+            }
+            MatchStore store = team.store;
+            int opponentSlot = store.slotOfId(match.getOpponentId());
+            if (opponentSlot < 0 || opponentSlot == team.slot || (match.isAway() && store.getNumberOfLegs() == 1)) {
+                return false;
+            }
+            int storedMatch = match.isAway() ? store.findMatch(opponentSlot, team.slot)
+                    : store.findMatch(team.slot, opponentSlot);
+            return storedMatch >= 0 && match.equals(team.storedMatch(storedMatch,
+                    store.getAwaySlot(storedMatch) == team.slot));
         }
     }
 
+    /**
+     * Builds the Match object of a match of the store, from the point of view of this team.
+     *
+     * @param match The index of the match in the store.
+     * @param isAwayTeam Whether this team is the away team of the match in the store.
+     * @return The match, owned by this team so that it can not be modified.
+     */
+    private Match storedMatch(int match, boolean isAwayTeam) {
+        Match storedMatch = isAwayTeam
+                ? new Match(store.getTeamKey(store.getHomeSlot(match)), store.getAwayGoals(match),
+                        store.getHomeGoals(match), store.getNumberOfLegs() == 2,
+                        store.getAwayCards(match), store.getHomeCards(match))
+                : new Match(store.getTeamKey(store.getAwaySlot(match)), store.getHomeGoals(match),
+                        store.getAwayGoals(match), false, store.getHomeCards(match), store.getAwayCards(match));
+        storedMatch.owner = this;
+        return storedMatch;
+    }
+
+    /**
+     * Creates a team that belongs to a group, backed by the group's MatchStore.
+     * This method is called by the Group class on the teams it owns.
+     *
+     * @param store The store of the group.
+     * @param slot The slot of the team in the store.
+     * @return A new Team instance whose matches are the ones of the store.
+     */
+    static Team createInstance(MatchStore store, int slot) {
+        return new Team(store, slot, store.getTeamName(slot));
+    }
+
     /**
      * Creates an instance of type Team and sets its matches according to the 'matches' input.
      * This method will be called by the TeamFactory class to ensure uniqueness of all Team instances.
@@ -600,9 +1116,8 @@ public class Team implements Cloneable {
      *                                  or at least one match's opponent name is identical to the team's name.
      */
     static Team createInstance(String name, Set<Match> matches) throws IllegalArgumentException{
-        scoreInvalid = matches.parallelStream().map(Match::getScore).anyMatch(Match::isScoreInvalid);
-        isPlayingAgainstItself = matches.parallelStream().map(Match::getOpponentName).anyMatch(n -> n.equals(name));
-        throwExceptionMessage();
+        // Match instances always hold correctly formatted scores
+        throwExceptionMessage(false, matches.stream().anyMatch(m -> m.getOpponentName().equals(name)));
         return new Team(name, matches);
     }
 
@@ -628,9 +1143,8 @@ public class Team implements Cloneable {
      *                                  or at least one match's opponent name is identical to the team's name.
      */
     static Team createInstance(String name, Set<Match> matches, int pointsDeducted) throws IllegalArgumentException{
-        scoreInvalid = matches.parallelStream().map(Match::getScore).anyMatch(Match::isScoreInvalid);
-        isPlayingAgainstItself = matches.parallelStream().map(Match::getOpponentName).anyMatch(n -> n.equals(name));
-        throwExceptionMessage();
+        // Match instances always hold correctly formatted scores
+        throwExceptionMessage(false, matches.stream().anyMatch(m -> m.getOpponentName().equals(name)));
         return new Team(name, matches, pointsDeducted);
     }
 
@@ -649,8 +1163,12 @@ public class Team implements Cloneable {
      * Throws an exception if either the user passed in an incorrectly formatted score
      * (the correct format is two non-negative integers separated by a '-'),
      * or the opponentName of one Match instance equals the name of the Team instance that contains the Match instance.
+     * The outcome of the validation is passed in by the caller, so that concurrent validations never interfere.
+     *
+     * @param scoreInvalid Whether an incorrectly formatted score was passed in.
+     * @param isPlayingAgainstItself Whether a match is played by the team against itself.
      */
-    static void throwExceptionMessage() {
+    static void throwExceptionMessage(boolean scoreInvalid, boolean isPlayingAgainstItself) {
         if (scoreInvalid && isPlayingAgainstItself) {
             throw new IllegalArgumentException(compoundErrorMessage);
         } if (scoreInvalid) {
@@ -659,10 +1177,4 @@ public class Team implements Cloneable {
             throw new IllegalArgumentException(isPlayingAgainstItselfMessage);
         }
     }
-
-    // will be set to private in production code
-    static void resetStaticState() {
-        scoreInvalid = false;
-        isPlayingAgainstItself = false;
-    }
 }
@@ -1,6 +1,6 @@
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The TeamFactory class manages the creation of unique Team instances, that is,
@@ -28,6 +28,18 @@ import java.util.Set;
  * In this example, team3 will refer to the same team instance as team2,
  * therefore maintaining the fact that Manchester City lost 0-1 to Arsenal.
  *
+ * A TeamFactory can be shared between threads: two threads asking for the same team name
+ * always receive the same Team instance.
+ *
+ * Team IDs:
+ * Every team name in use is given a dense integer ID, by any factory or match. The ID comes with a TeamKey,
+ * which the teams, matches and match stores using the name hold on to: a name keeps its ID for as long as
+ * one of them is reachable. Once none is, the key is reclaimed by the garbage collector, and its ID is given
+ * to the next new name, so the registry only grows with the number of names in use, not with every name
+ * ever seen. Teams and matches refer to teams by ID, so comparing teams, hashing them and matching opponents
+ * are integer operations. The IDs are kept by a TeamIdRegistry, which is shared by all factories
+ * and can be used from several threads.
+ *
  * @author Daniel Luo
  */
 public class TeamFactory {
@@ -38,8 +50,42 @@ public class TeamFactory {
      */
     private final Map<String,Team> teamRegistry;
 
+    // registry of team IDs, shared by all factories
+    private static final TeamIdRegistry teamIds = new TeamIdRegistry();
+
     public TeamFactory() {
-        this.teamRegistry = new HashMap<>();
+        this.teamRegistry = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The name of a team and its ID. A key is unique among the keys that are reachable, so two keys
+     * that are reachable at the same time have the same ID if and only if they have the same name.
+     *
+     * @param name The name of the team.
+     * @param id The dense integer ID of the name.
+     */
+    record TeamKey(String name, int id) {
+    }
+
+    /**
+     * Takes the name of a team and returns its key, registering the name if it has no ID yet.
+     * The ID stays the same for as long as the key, or another key of the same name, is reachable.
+     *
+     * @param name A team name.
+     * @return The key of the team name.
+     */
+    static TeamKey teamKey(String name) {
+        return teamIds.teamKey(name);
+    }
+
+    /**
+     * Takes the name of a team and returns its key, without registering the name.
+     *
+     * @param name A team name.
+     * @return The key of the team name, or null if no team, match or store holds the name.
+     */
+    static TeamKey findTeamKey(String name) {
+        return teamIds.findTeamKey(name);
     }
 
     /**
@@ -53,23 +99,18 @@ public class TeamFactory {
      * @return A Team instance.
      */
     private Team createTeamInternal(String name, Set<Team.Match> matches, Integer deductedPoints) {
-        if (teamRegistry.containsKey(name)) {
-            // If a team with the same name already exists, return it
-            return teamRegistry.get(name);
-        } else {
-            Team newTeam;
+        // If a team with the same name already exists, return it.
+        // The check and the registration happen atomically, so concurrent calls can not create two instances.
+        return teamRegistry.computeIfAbsent(name, n -> {
             if (matches != null && deductedPoints != null) {
-                newTeam = Team.createInstance(name, matches, deductedPoints);
+                return Team.createInstance(n, matches, deductedPoints);
             } else if (matches != null) {
-                newTeam = Team.createInstance(name, matches);
+                return Team.createInstance(n, matches);
             } else if (deductedPoints != null) {
-                newTeam = Team.createInstance(name, deductedPoints);
-            } else {
-                newTeam = Team.createInstance(name);
+                return Team.createInstance(n, deductedPoints);
             }
-            teamRegistry.put(name, newTeam);
-            return newTeam;
-        }
+            return Team.createInstance(n);
+        });
     }
 
     /**
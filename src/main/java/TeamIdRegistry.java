@@ -0,0 +1,106 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The TeamIdRegistry class gives a dense integer ID to every team name in use.
+ *
+ * Attributes:
+ * keyByName: the keys in use, weakly referenced, by name.
+ * reclaimedKeys: the entries whose key the garbage collector found to be unreachable.
+ * numberOfTeamIds: the number of IDs given so far, which are 0 to numberOfTeamIds - 1.
+ * freeTeamIds: the IDs of the reclaimed keys, given again first.
+ *
+ * Usage:
+ * The teams, matches and match stores of the library share the registry held by TeamFactory, through
+ * TeamFactory.teamKey and TeamFactory.findTeamKey. A name keeps its ID for as long as a key of the name
+ * is reachable, and the ID of a key that is no longer reachable is given to the next new name.
+ * A registry can be used from several threads.
+ *
+ * @author Daniel Luo
+ */
+class TeamIdRegistry {
+
+    private final Map<String,KeyReference> keyByName = new ConcurrentHashMap<>();
+    private final ReferenceQueue<TeamFactory.TeamKey> reclaimedKeys = new ReferenceQueue<>();
+    // guarded by the registry
+    private int numberOfTeamIds;
+    private int[] freeTeamIds = new int[16];
+    private int numberOfFreeTeamIds;
+
+    // the entry of a key in the registry, which is enqueued once its key is no longer reachable
+    static final class KeyReference extends WeakReference<TeamFactory.TeamKey> {
+
+        private final String name;
+        private final int id;
+
+        KeyReference(TeamFactory.TeamKey key, ReferenceQueue<TeamFactory.TeamKey> queue) {
+            super(key, queue);
+            this.name = key.name();
+            this.id = key.id();
+        }
+    }
+
+    /**
+     * Takes the name of a team and returns its key, registering the name if it has no ID yet.
+     * The ID stays the same for as long as the key, or another key of the same name, is reachable.
+     *
+     * @param name A team name.
+     * @return The key of the team name.
+     */
+    TeamFactory.TeamKey teamKey(String name) {
+        TeamFactory.TeamKey key = findTeamKey(name);
+        return key != null ? key : registerTeamName(name);
+    }
+
+    /**
+     * Takes the name of a team and returns its key, without registering the name.
+     *
+     * @param name A team name.
+     * @return The key of the team name, or null if the name is not registered.
+     */
+    TeamFactory.TeamKey findTeamKey(String name) {
+        KeyReference reference = keyByName.get(name);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Creates the entry of a newly registered key, enqueued once the key is no longer reachable.
+     *
+     * @param key The key.
+     * @param queue The queue in which the entry is enqueued.
+     * @return The entry of the key.
+     */
+    KeyReference newKeyReference(TeamFactory.TeamKey key, ReferenceQueue<TeamFactory.TeamKey> queue) {
+        return new KeyReference(key, queue);
+    }
+
+    private synchronized TeamFactory.TeamKey registerTeamName(String name) {
+        reclaimTeamIds();
+        TeamFactory.TeamKey key = findTeamKey(name);
+        if (key != null) {
+            return key; // registered by another thread in the meantime
+        }
+        int id = numberOfFreeTeamIds > 0 ? freeTeamIds[--numberOfFreeTeamIds] : numberOfTeamIds++;
+        key = new TeamFactory.TeamKey(name, id);
+        keyByName.put(name, newKeyReference(key, reclaimedKeys));
+        return key;
+    }
+
+    /**
+     * Frees the IDs of the keys that the garbage collector found to be unreachable.
+     */
+    private synchronized void reclaimTeamIds() {
+        KeyReference reference;
+        while ((reference = (KeyReference) reclaimedKeys.poll()) != null) {
+            // the name may have been registered again under a new key since
+            keyByName.remove(reference.name, reference);
+            if (numberOfFreeTeamIds == freeTeamIds.length) {
+                freeTeamIds = Arrays.copyOf(freeTeamIds, 2 * freeTeamIds.length);
+            }
+            freeTeamIds[numberOfFreeTeamIds++] = reference.id;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The TeamView interface gives read-only access to a football team competing in a round-robin tournament.
+ *
+ * Usage:
+ * A Group hands out TeamView instances backed by its own teams instead of defensive copies.
+ * A view reflects the current state of the team, and none of its methods, nor the matches it returns,
+ * can be used to modify the team. Team implements this interface as well.
+ *
+ * @author Daniel Luo
+ */
+public interface TeamView {
+
+    /**
+     * Returns the name of the team.
+     *
+     * @return The name of the team.
+     */
+    String getName();
+
+    /**
+     * Returns the ID of the team, which TeamFactory gives to every team name.
+     *
+     * @return The ID of the team.
+     */
+    int getId();
+
+    /**
+     * Returns the set of matches that the team has played.
+     *
+     * @return A read-only set of matches.
+     */
+    Set<Team.Match> getMatches();
+
+    /**
+     * Returns the set of home matches that the team has played.
+     *
+     * @return A read-only set of home matches.
+     */
+    Set<Team.Match> getHomeMatches();
+
+    /**
+     * Returns the set of away matches that the team has played, if the tournament is double-legged.
+     *
+     * @return A read-only set of away matches.
+     */
+    Set<Team.Match> getAwayMatches();
+
+    int getNumberWins();
+
+    int getNumberDraws();
+
+    int getNumberLosses();
+
+    /**
+     * Returns the team's number of points, subtracted by the number of points
+     * deducted from the team for policy violations.
+     *
+     * @return The number of points the team has accumulated.
+     */
+    int getPoints();
+
+    int getGoalsFor();
+
+    int getGoalsAgainst();
+
+    int getGoalDifference();
+
+    String getGoalDifferenceToString();
+
+    int getNumberOfMatchesPlayed();
+
+    int getAwayGoals();
+
+    List<Group.CardEnum> getCards();
+
+    int getFairPlayPoints();
+}
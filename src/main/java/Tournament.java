@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The Tournament class represents the group stage of a tournament made of several groups,
+ * such as the FIFA World Cup, in which the best third-placed teams of the groups also qualify.
+ *
+ * Attributes:
+ * groups: the groups of the tournament, labelled 'A', 'B', 'C', ... in this order.
+ * numberOfBestThirdPlacedTeams: the number of third-placed teams that qualify.
+ * executionPolicy: the policy ranking the groups, one task per group.
+ * rankedVersions: the version of each group when its third-placed team was last read, -1 if never.
+ * thirdPlacedTeams: the third-placed team of each group, as of its ranked version.
+ * rankedThirdPlacedTeams: the third-placed teams ranked across groups, null if a group changed since.
+ *
+ * Usage:
+ * The third-placed teams are ranked lazily and incrementally: when they are read, only the groups whose results
+ * changed since the last read are ranked again, concurrently according to the execution policy, and the table
+ * of the third-placed teams is sorted again from the cached rows of the other groups. The statistics compared
+ * across groups, fair play points included, are the running totals kept by each group.
+ * Third-placed teams that are still tied after every criterion of the competition are ranked by drawing of lots,
+ * drawn again whenever a group changes.
+ *
+ * A tournament is not thread-safe, and its groups must not be modified while it ranks them.
+ *
+ * @author Daniel Luo
+ */
+public abstract class Tournament {
+
+    private final List<Group> groups;
+    private final int numberOfBestThirdPlacedTeams;
+    private final ExecutionPolicy executionPolicy;
+    private final long[] rankedVersions;
+    private final ThirdPlacedTeam[] thirdPlacedTeams;
+    private List<ThirdPlacedTeam> rankedThirdPlacedTeams;
+    private LotDrawer lotDrawer = new RandomLotDrawer();
+
+    /**
+     * Creates the group stage of a tournament.
+     *
+     * @param groups The groups of the tournament, in the order of their letters.
+     * @param numberOfBestThirdPlacedTeams The number of third-placed teams that qualify.
+     * @param executionPolicy The policy ranking the groups.
+     * @throws IllegalArgumentException If there are no groups or more than 26, a group has fewer than 3 teams,
+     *                                  a team plays in two groups, the number of best third-placed teams
+     *                                  exceeds the number of groups or the policy is null.
+     */
+    protected Tournament(List<? extends Group> groups, int numberOfBestThirdPlacedTeams,
+                         ExecutionPolicy executionPolicy) throws IllegalArgumentException {
+        if (groups.isEmpty() || groups.size() > 26) {
+            throw new IllegalArgumentException("A tournament must have between 1 and 26 groups.");
+        } if (numberOfBestThirdPlacedTeams < 0 || numberOfBestThirdPlacedTeams > groups.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of best third-placed teams must be between 0 and %d.", groups.size()));
+        } if (executionPolicy == null) {
+            throw new IllegalArgumentException("The execution policy can not be null.");
+        }
+        Set<String> teamNames = new HashSet<>();
+        for (Group group : groups) {
+            if (group.getTeamViews().size() < 3) {
+                throw new IllegalArgumentException("Every group of a tournament must have at least 3 teams.");
+            }
+            for (String teamName : group.getTeamNames()) {
+                if (!teamNames.add(teamName)) {
+                    throw new IllegalArgumentException(
+                            String.format("%s can not play in more than one group.", teamName));
+                }
+            }
+        }
+        this.groups = List.copyOf(groups);
+        this.numberOfBestThirdPlacedTeams = numberOfBestThirdPlacedTeams;
+        this.executionPolicy = executionPolicy;
+        this.rankedVersions = new long[groups.size()];
+        Arrays.fill(rankedVersions, -1);
+        this.thirdPlacedTeams = new ThirdPlacedTeam[groups.size()];
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Takes the letter of a group and returns the group.
+     *
+     * @param letter The letter of a group, starting at 'A'.
+     * @return The group.
+     * @throws IllegalArgumentException If the tournament has no group of that letter.
+     */
+    public Group getGroup(char letter) throws IllegalArgumentException {
+        int index = letter - 'A';
+        if (index < 0 || index >= groups.size()) {
+            throw new IllegalArgumentException(String.format("The letter of a group must be between A and %c.",
+                    letterOf(groups.size() - 1)));
+        }
+        return groups.get(index);
+    }
+
+    private static char letterOf(int index) {
+        return (char) ('A' + index);
+    }
+
+    public int getNumberOfBestThirdPlacedTeams() {
+        return numberOfBestThirdPlacedTeams;
+    }
+
+    /**
+     * Sets the drawer used for the drawing of lots between third-placed teams of different groups.
+     *
+     * @param lotDrawer The drawer of lots, for instance a seeded RandomLotDrawer.
+     * @throws IllegalArgumentException If lotDrawer is null.
+     */
+    public void setLotDrawer(LotDrawer lotDrawer) throws IllegalArgumentException {
+        if (lotDrawer == null) {
+            throw new IllegalArgumentException("The lot drawer can not be null.");
+        }
+        this.lotDrawer = lotDrawer;
+        rankedThirdPlacedTeams = null;
+    }
+
+    /**
+     * Ranks the groups whose results changed since they were last ranked, one task per group,
+     * and updates their third-placed teams.
+     *
+     * @return true if at least one group changed.
+     */
+    public boolean rankGroups() {
+        List<Integer> changedGroups = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            if (groups.get(i).getVersion() != rankedVersions[i]) {
+                changedGroups.add(i);
+            }
+        }
+        if (changedGroups.isEmpty()) {
+            return false;
+        }
+        List<ThirdPlacedTeam> updatedThirdPlacedTeams = executionPolicy.map(changedGroups, this::thirdPlacedTeamOf);
+        for (int i = 0; i < changedGroups.size(); i++) {
+            int index = changedGroups.get(i);
+            // ranking a group does not change its version
+            rankedVersions[index] = groups.get(index).getVersion();
+            thirdPlacedTeams[index] = updatedThirdPlacedTeams.get(i);
+        }
+        rankedThirdPlacedTeams = null;
+        return true;
+    }
+
+    private ThirdPlacedTeam thirdPlacedTeamOf(int index) {
+        Team team = groups.get(index).sortedTeams()[2];
+        return new ThirdPlacedTeam(letterOf(index), team.getName(), team.getPoints(), team.getGoalDifference(),
+                team.getGoalsFor(), team.getNumberWins(), team.getFairPlayPoints());
+    }
+
+    /**
+     * Returns the third-placed teams of all the groups, from best to worst.
+     *
+     * @return An unmodifiable list of the third-placed teams.
+     */
+    public List<ThirdPlacedTeam> rankThirdPlacedTeams() {
+        rankGroups();
+        if (rankedThirdPlacedTeams == null) {
+            int[] lotByGroup = lotDrawer.drawLots(groups.size());
+            // the lower the lot, the higher the team is ranked
+            Comparator<ThirdPlacedTeam> comparator = ((Comparator<ThirdPlacedTeam>) this::compareThirdPlacedTeams)
+                    .reversed().thenComparingInt(t -> lotByGroup[t.group() - 'A']);
+            ThirdPlacedTeam[] ranked = thirdPlacedTeams.clone();
+            Arrays.sort(ranked, comparator);
+            rankedThirdPlacedTeams = Collections.unmodifiableList(Arrays.asList(ranked));
+        }
+        return rankedThirdPlacedTeams;
+    }
+
+    /**
+     * Takes the letter of a group and returns its third-placed team.
+     *
+     * @param letter The letter of a group, starting at 'A'.
+     * @return The third-placed team of the group.
+     * @throws IllegalArgumentException If the tournament has no group of that letter.
+     */
+    public ThirdPlacedTeam getThirdPlacedTeam(char letter) throws IllegalArgumentException {
+        getGroup(letter);
+        rankGroups();
+        return thirdPlacedTeams[letter - 'A'];
+    }
+
+    /**
+     * Returns the third-placed teams that qualify, from best to worst.
+     *
+     * @return An unmodifiable list of numberOfBestThirdPlacedTeams third-placed teams.
+     */
+    public List<ThirdPlacedTeam> getBestThirdPlacedTeams() {
+        return rankThirdPlacedTeams().subList(0, numberOfBestThirdPlacedTeams);
+    }
+
+    /**
+     * Compares two third-placed teams of different groups with the criteria of the competition,
+     * before the drawing of lots.
+     *
+     * @param team1 A third-placed team.
+     * @param team2 A third-placed team of another group that team1 is compared to.
+     * @return A positive integer if team1 is ranked above team2,
+     *         a negative integer if team2 is ranked above team1,
+     *         or 0 if they are tied.
+     */
+    protected abstract int compareThirdPlacedTeams(ThirdPlacedTeam team1, ThirdPlacedTeam team2);
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        List<ThirdPlacedTeam> ranked = rankThirdPlacedTeams();
+        for (int i = 0; i < ranked.size(); i++) {
+            ThirdPlacedTeam team = ranked.get(i);
+            result.append(String.format("%d. %s (%c) %d pts, %+d GD, %d GF, %d FP%s%n", i + 1, team.teamName(),
+                    team.group(), team.points(), team.goalDifference(), team.goalsFor(), team.fairPlayPoints(),
+                    i < numberOfBestThirdPlacedTeams ? " Q" : ""));
+        }
+        return result.toString();
+    }
+
+    /**
+     * The row of the team placed third in a group, as compared across groups.
+     *
+     * @param group The letter of the group.
+     * @param teamName The name of the team.
+     * @param points The number of points earned in the group.
+     * @param goalDifference The goal difference in the group.
+     * @param goalsFor The number of goals scored in the group.
+     * @param numberWins The number of matches won in the group.
+     * @param fairPlayPoints The fair play points in the group, 0 or negative.
+     */
+    public record ThirdPlacedTeam(char group, String teamName, int points, int goalDifference, int goalsFor,
+                                  int numberWins, int fairPlayPoints) {
+    }
+}
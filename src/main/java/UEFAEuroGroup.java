@@ -1,4 +1,4 @@
-import java.util.Random;
+import java.util.Arrays;
 
 public class UEFAEuroGroup extends Group {
 
@@ -20,22 +20,26 @@ public class UEFAEuroGroup extends Group {
         }
         // comparing head-to-head record can only be done if both teams have faced each other
         if (havePlayedAgainst(team1, team2)) {
-            UEFAEuroGroup headToHeadGroup = createSubGroup(team1);
-            Team team1HeadToHead = headToHeadGroup.getTeamByName(team1.getName());
-            Team team2HeadToHead = headToHeadGroup.getTeamByName(team2.getName());
-            int resultDuringHeadToHead = compareTeamsDuringHeadToHead(team1HeadToHead, team2HeadToHead);
+            // the head-to-head records are summed from the matrix of results instead of sub-groups
+            int[] tiedSlots = tiedSlots(team1);
+            HeadToHeadRecord team1HeadToHead = headToHeadRecord(team1, tiedSlots);
+            HeadToHeadRecord team2HeadToHead = headToHeadRecord(team2, tiedSlots);
+            int resultDuringHeadToHead =
+                    HeadToHeadRecord.compareByPointsGoalDifferenceAndGoalsFor(team1HeadToHead, team2HeadToHead);
             if (resultDuringHeadToHead != 0) {
                 return resultDuringHeadToHead;
             }
-            // only applies if the original subgroup has more than two teams
-            UEFAEuroGroup smallerHeadToHeadGroup = headToHeadGroup.createSubGroup(team1);
-            if (smallerHeadToHeadGroup.getTeams().length > 0) {
-                team1HeadToHead = smallerHeadToHeadGroup.getTeamByName(team1.getName());
-                team2HeadToHead = smallerHeadToHeadGroup.getTeamByName(team2.getName());
-                resultDuringHeadToHead = compareTeamsDuringHeadToHead(team1HeadToHead, team2HeadToHead);
-                if (resultDuringHeadToHead != 0) {
-                    return resultDuringHeadToHead;
-                }
+            // only applies if the original subgroup has more than two teams:
+            // the head-to-head criteria are applied again to the teams still tied on head-to-head points
+            int team1Points = team1HeadToHead.points();
+            int[] smallerTiedSlots = Arrays.stream(tiedSlots)
+                    .filter(slot -> headToHeadRecord(teamAt(slot), tiedSlots).points() == team1Points).toArray();
+            team1HeadToHead = headToHeadRecord(team1, smallerTiedSlots);
+            team2HeadToHead = headToHeadRecord(team2, smallerTiedSlots);
+            resultDuringHeadToHead =
+                    HeadToHeadRecord.compareByPointsGoalDifferenceAndGoalsFor(team1HeadToHead, team2HeadToHead);
+            if (resultDuringHeadToHead != 0) {
+                return resultDuringHeadToHead;
             }
         }
         if (team1.getGoalDifference() != team2.getGoalDifference()) {
@@ -56,9 +60,7 @@ public class UEFAEuroGroup extends Group {
         }
         // technically, the last criterion is the position in the overall Euro Qualifiers rankings
         // penalty shoot-out criterion not implemented here
-        Random random = new Random();
-        int randomValue = random.nextInt(2); // will be either 0 or 1
-        return (randomValue == 0) ? -1 : 1;
+        return compareByDrawingOfLots(team1, team2);
     }
 
     @Override
@@ -79,11 +81,14 @@ public class UEFAEuroGroup extends Group {
         return 0;
     }
 
+    @Override
+    protected RankingKernel.Rules rankingRules() {
+        return RankingKernel.Rules.UEFA_EURO;
+    }
+
     @Override
     protected UEFAEuroGroup createSubGroup(Team team) {
-        Team[] headToHeadTeams = this.getTeamNames().parallelStream()
-                .map(this::getTeamByName).filter(t -> compareTeamsBeforeHeadToHead(team, t) == 0).toArray(Team[]::new);
-        return new UEFAEuroGroup(headToHeadTeams);
+        return headToHeadSubGroup(team, UEFAEuroGroup::new);
     }
 
     /**
@@ -100,8 +105,7 @@ public class UEFAEuroGroup extends Group {
      * @return A group containing exclusively the tied teams.
      */
     private Team[] tiedTeamsBeforeFairPlay(Team team) {
-        return this.getTeamNames().parallelStream()
-                .map(this::getTeamByName).filter(t -> compareTeamsDuringHeadToHead(team, t) == 0).toArray(Team[]::new);
+        return filterTeams(t -> compareTeamsDuringHeadToHead(team, t) == 0);
     }
 
     enum Card implements CardEnum {
@@ -0,0 +1,172 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The UEFAEuroTournament class represents the group stage of the Euros: 6 groups of 4 teams,
+ * from which the top two of each group and the 4 best third-placed teams qualify for the round of 16.
+ *
+ * Attributes:
+ * OPPONENTS_BY_MASK: for each bitmask of the groups whose third-placed teams qualify (bit i for the group
+ *                    of index i), the groups of the third-placed teams facing the winners of groups
+ *                    B, C, E and F, packed 4 bits per winner in this order. -1 for masks of other than 4 groups.
+ *
+ * Usage:
+ * The third-placed team a group winner faces in the round of 16 depends on which 4 of the 6 groups
+ * the qualified third-placed teams come from. The 15 possible combinations are set by the regulations
+ * of the competition and are expanded once into a table of 64 entries indexed by bitmask,
+ * so that the bracket of a simulated tournament is resolved with a single array read.
+ *
+ * Example usage:
+ * ```
+ * UEFAEuroTournament euro = new UEFAEuroTournament(groups);
+ * Map<Character,String> opponents = euro.getThirdPlacedOpponents();
+ * String opponentOfWinnerOfGroupB = opponents.get('B');
+ * ```
+ *
+ * @author Daniel Luo
+ */
+public class UEFAEuroTournament extends Tournament {
+
+    public static final int NUMBER_OF_GROUPS = 6;
+    public static final int NUMBER_OF_BEST_THIRD_PLACED_TEAMS = 4;
+
+    /**
+     * The groups whose winners face a third-placed team in the round of 16, in the order of the packed opponents.
+     */
+    public static final List<Character> WINNERS_FACING_THIRD_PLACED_TEAMS = List.of('B', 'C', 'E', 'F');
+
+    /**
+     * The 15 combinations of groups of the qualified third-placed teams, each followed by the groups
+     * of the third-placed teams facing the winners of groups B, C, E and F.
+     */
+    private static final String[][] COMBINATIONS = {
+            {"ABCD", "ADBC"}, {"ABCE", "AEBC"}, {"ABCF", "AFBC"}, {"ABDE", "DEAB"}, {"ABDF", "DFAB"},
+            {"ABEF", "EFBA"}, {"ACDE", "EDCA"}, {"ACDF", "FDCA"}, {"ACEF", "EFCA"}, {"ADEF", "EFDA"},
+            {"BCDE", "EDBC"}, {"BCDF", "FDCB"}, {"BCEF", "FECB"}, {"BDEF", "FEDB"}, {"CDEF", "FEDC"}
+    };
+
+    private static final int BITS_PER_OPPONENT = 4;
+    private static final int[] OPPONENTS_BY_MASK = new int[1 << NUMBER_OF_GROUPS];
+
+    static {
+        Arrays.fill(OPPONENTS_BY_MASK, -1);
+        for (String[] combination : COMBINATIONS) {
+            int mask = 0;
+            for (char group : combination[0].toCharArray()) {
+                mask |= 1 << (group - 'A');
+            }
+            int opponents = 0;
+            for (int winner = 0; winner < WINNERS_FACING_THIRD_PLACED_TEAMS.size(); winner++) {
+                opponents |= (combination[1].charAt(winner) - 'A') << (winner * BITS_PER_OPPONENT);
+            }
+            OPPONENTS_BY_MASK[mask] = opponents;
+        }
+    }
+
+    public UEFAEuroTournament(List<UEFAEuroGroup> groups) throws IllegalArgumentException {
+        this(groups, ExecutionPolicy.sequential());
+    }
+
+    public UEFAEuroTournament(List<UEFAEuroGroup> groups, ExecutionPolicy executionPolicy)
+            throws IllegalArgumentException {
+        super(checkNumberOfGroups(groups), NUMBER_OF_BEST_THIRD_PLACED_TEAMS, executionPolicy);
+    }
+
+    private static List<UEFAEuroGroup> checkNumberOfGroups(List<UEFAEuroGroup> groups) {
+        if (groups.size() != NUMBER_OF_GROUPS) {
+            throw new IllegalArgumentException(String.format("The Euros have %d groups.", NUMBER_OF_GROUPS));
+        }
+        return groups;
+    }
+
+    /**
+     * How the Euros rank the third-placed teams of their groups:
+     *
+     * 1. Points earned in all group matches (Pts)
+     * 2. Goal difference in all group matches (GD)
+     * 3. Number of goals scored in all group matches (GF)
+     * 4. Number of wins in all group matches (W)
+     * 5. Fair play points in all group matches
+     * 6. Drawing of lots
+     *
+     * @param team1 A third-placed team.
+     * @param team2 A third-placed team of another group that team1 is compared to.
+     *
+     * @return A positive integer if team1 is ranked above team2,
+     *         a negative integer if team2 is ranked above team1,
+     *         or 0 if they are still tied before the drawing of lots.
+     */
+    @Override
+    protected int compareThirdPlacedTeams(ThirdPlacedTeam team1, ThirdPlacedTeam team2) {
+        if (team1.points() != team2.points()) {
+            return Integer.compare(team1.points(), team2.points());
+        } if (team1.goalDifference() != team2.goalDifference()) {
+            return Integer.compare(team1.goalDifference(), team2.goalDifference());
+        } if (team1.goalsFor() != team2.goalsFor()) {
+            return Integer.compare(team1.goalsFor(), team2.goalsFor());
+        } if (team1.numberWins() != team2.numberWins()) {
+            return Integer.compare(team1.numberWins(), team2.numberWins());
+        }
+        return Integer.compare(team1.fairPlayPoints(), team2.fairPlayPoints());
+    }
+
+    /**
+     * Returns the groups of the third-placed teams facing the winners of groups B, C, E and F,
+     * for a combination of groups of qualified third-placed teams. This is a single array read,
+     * meant for simulations that resolve the bracket of many tournaments.
+     *
+     * @param qualifiedGroupsMask The bitmask of the groups of the qualified third-placed teams,
+     *                            bit i being set for the group of index i.
+     * @return The indices of the groups of the opponents, packed 4 bits per winner in the order B, C, E, F,
+     *         or -1 if the mask does not have exactly 4 of the 6 groups.
+     */
+    static int thirdPlacedOpponents(int qualifiedGroupsMask) {
+        if (qualifiedGroupsMask < 0 || qualifiedGroupsMask >= OPPONENTS_BY_MASK.length) {
+            return -1;
+        }
+        return OPPONENTS_BY_MASK[qualifiedGroupsMask];
+    }
+
+    /**
+     * Takes packed opponents returned by thirdPlacedOpponents and returns the index of the group
+     * of the third-placed team facing a winner.
+     *
+     * @param opponents The packed opponents.
+     * @param winner The index of the winner in WINNERS_FACING_THIRD_PLACED_TEAMS.
+     * @return The index of the group of its opponent.
+     */
+    static int opponentGroupOf(int opponents, int winner) {
+        return (opponents >>> (winner * BITS_PER_OPPONENT)) & ((1 << BITS_PER_OPPONENT) - 1);
+    }
+
+    /**
+     * Returns the bitmask of the groups of the best third-placed teams, for the current results.
+     *
+     * @return The bitmask, bit i being set if the third-placed team of the group of index i qualifies.
+     */
+    public int getQualifiedGroupsMask() {
+        int mask = 0;
+        for (ThirdPlacedTeam team : getBestThirdPlacedTeams()) {
+            mask |= 1 << (team.group() - 'A');
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the third-placed team that each group winner faces in the round of 16, for the current results.
+     *
+     * @return A map from the letters B, C, E and F, in this order, to the names of the third-placed teams
+     *         their winners face.
+     */
+    public Map<Character,String> getThirdPlacedOpponents() {
+        int opponents = thirdPlacedOpponents(getQualifiedGroupsMask());
+        Map<Character,String> opponentsByWinner = new LinkedHashMap<>();
+        for (int winner = 0; winner < WINNERS_FACING_THIRD_PLACED_TEAMS.size(); winner++) {
+            char group = (char) ('A' + opponentGroupOf(opponents, winner));
+            opponentsByWinner.put(WINNERS_FACING_THIRD_PLACED_TEAMS.get(winner), getThirdPlacedTeam(group).teamName());
+        }
+        return opponentsByWinner;
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionPolicyTest {
+
+    private static void assertKeepsOrderAndRethrows(ExecutionPolicy policy) {
+        List<Integer> inputs = IntStream.range(0, 100).boxed().toList();
+        assertEquals(inputs.stream().map(i -> i * i).toList(), policy.map(inputs, i -> i * i));
+        assertEquals(List.of(), policy.map(List.<Integer>of(), i -> i));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> policy.map(inputs, i -> {
+                    if (i == 42) {
+                        throw new IllegalArgumentException("Failed on 42.");
+                    }
+                    return i;
+                }));
+        assertEquals("Failed on 42.", exception.getMessage());
+    }
+
+    @Test
+    public void testSequential() {
+        assertKeepsOrderAndRethrows(ExecutionPolicy.sequential());
+    }
+
+    @Test
+    public void testVirtualThreads() {
+        assertKeepsOrderAndRethrows(ExecutionPolicy.virtualThreads());
+    }
+
+    @Test
+    public void testPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ExecutionPolicy policy = ExecutionPolicy.pool(pool);
+            assertKeepsOrderAndRethrows(policy);
+            // tasks of the pool mapping over the same pool do not deadlock it
+            List<Integer> nested = policy.map(List.of(1, 2, 3, 4),
+                    i -> policy.map(List.of(i, i, i), j -> j).stream().mapToInt(Integer::intValue).sum());
+            assertEquals(List.of(3, 6, 9, 12), nested);
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> ExecutionPolicy.pool(null));
+    }
+}
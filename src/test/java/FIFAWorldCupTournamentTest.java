@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FIFAWorldCupTournamentTest {
+
+    /**
+     * Counts the tasks it runs, to check which groups are ranked again.
+     */
+    private static class CountingPolicy implements ExecutionPolicy {
+
+        private int numberOfTasks;
+
+        @Override
+        public <T, R> List<R> map(List<? extends T> inputs, Function<? super T, ? extends R> task) {
+            numberOfTasks += inputs.size();
+            return ExecutionPolicy.sequential().map(inputs, task);
+        }
+    }
+
+    private static List<FIFAWorldCupGroup> createGroups() {
+        return TestGroups.tournamentGroups(FIFAWorldCupGroup::new, FIFAWorldCupTournament.NUMBER_OF_GROUPS);
+    }
+
+    @Test
+    public void testBestThirdPlacedTeams() {
+        FIFAWorldCupTournament worldCup = new FIFAWorldCupTournament(createGroups());
+        List<Tournament.ThirdPlacedTeam> thirdPlacedTeams = worldCup.rankThirdPlacedTeams();
+        assertEquals(12, thirdPlacedTeams.size());
+        assertEquals(new Tournament.ThirdPlacedTeam('L', "L3", 3, 10, 12, 1, 0), thirdPlacedTeams.get(0));
+        assertEquals(List.of("L3", "K3", "J3", "I3", "H3", "G3", "F3", "E3"),
+                worldCup.getBestThirdPlacedTeams().stream().map(Tournament.ThirdPlacedTeam::teamName).toList());
+    }
+
+    @Test
+    public void testFairPlayAcrossGroups() {
+        List<FIFAWorldCupGroup> groups = createGroups();
+        FIFAWorldCupTournament worldCup = new FIFAWorldCupTournament(groups);
+        // D3 catches up with E3 on points, goal difference and goals, but with a worse disciplinary record
+        groups.get(3).addMatch("D3", "D4", "5-0",
+                List.of(FIFAWorldCupGroup.Card.YELLOW), List.of());
+        assertEquals(List.of("L3", "K3", "J3", "I3", "H3", "G3", "F3", "E3"),
+                worldCup.getBestThirdPlacedTeams().stream().map(Tournament.ThirdPlacedTeam::teamName).toList());
+        groups.get(4).addMatch("E3", "E4", "5-0",
+                List.of(FIFAWorldCupGroup.Card.YELLOW, FIFAWorldCupGroup.Card.YELLOW), List.of());
+        assertEquals("D3", worldCup.getBestThirdPlacedTeams().get(7).teamName());
+    }
+
+    @Test
+    public void testOnlyChangedGroupsAreRankedAgain() {
+        List<FIFAWorldCupGroup> groups = createGroups();
+        CountingPolicy policy = new CountingPolicy();
+        FIFAWorldCupTournament worldCup = new FIFAWorldCupTournament(groups, policy);
+        worldCup.rankThirdPlacedTeams();
+        assertEquals(12, policy.numberOfTasks);
+        assertFalse(worldCup.rankGroups());
+        worldCup.rankThirdPlacedTeams();
+        assertEquals(12, policy.numberOfTasks);
+        // A4 beats A3, who drops to fourth place
+        groups.get(0).addMatch("A3", "A4", "1-2");
+        assertEquals("A4", worldCup.rankThirdPlacedTeams().get(11).teamName());
+        assertEquals(13, policy.numberOfTasks);
+    }
+
+    @Test
+    public void testDeductedPointsAcrossGroups() {
+        List<FIFAWorldCupGroup> groups = createGroups();
+        FIFAWorldCupTournament worldCup = new FIFAWorldCupTournament(groups);
+        assertEquals("L3", worldCup.rankThirdPlacedTeams().get(0).teamName());
+        groups.get(11).setDeductedPoints("L3", 1);
+        assertEquals(new Tournament.ThirdPlacedTeam('L', "L3", 2, 10, 12, 1, 0),
+                worldCup.rankThirdPlacedTeams().get(11));
+    }
+
+    @Test
+    public void testInvalidTournaments() {
+        List<FIFAWorldCupGroup> groups = createGroups();
+        assertThrows(IllegalArgumentException.class, () -> new FIFAWorldCupTournament(groups.subList(0, 11)));
+        List<FIFAWorldCupGroup> duplicateGroups = new ArrayList<>(groups);
+        duplicateGroups.set(11, groups.get(0));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new FIFAWorldCupTournament(duplicateGroups));
+        assertEquals("A1 can not play in more than one group.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new FIFAWorldCupTournament(groups).getGroup('M'));
+    }
+}
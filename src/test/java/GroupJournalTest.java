@@ -0,0 +1,318 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static FIFAWorldCupGroup createGroup() {
+        return new FIFAWorldCupGroup(new Team[]{Team.createInstance("Canada"), Team.createInstance("Mexico"),
+                Team.createInstance("Panama"), Team.createInstance("Haiti")});
+    }
+
+    /**
+     * Plays a few matchdays of a group, covering every kind of change the journal records.
+     */
+    private static void playMatches(FIFAWorldCupGroup group) {
+        group.addMatch("Canada", "Mexico", "2-1",
+                List.of(FIFAWorldCupGroup.Card.YELLOW), List.of(FIFAWorldCupGroup.Card.DIRECT_RED));
+        group.addMatch("Panama", "Haiti", "0-0");
+        group.addMatch("Canada", "Panama", "3-3");
+        group.removeMatch("Panama", "Haiti");
+        group.addMatches(List.of(
+                new Group.MatchResult("Mexico", "Haiti", "4-0"),
+                new Group.MatchResult("Haiti", "Panama", "1-2")));
+        group.setDeductedPoints("Haiti", 3);
+        group.adjustPenaltyPoints("Haiti", -1);
+    }
+
+    @Test
+    public void testReplayRebuildsTheGroup() throws IOException {
+        Path path = directory.resolve("group.journal");
+        FIFAWorldCupGroup group = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            journal.attach("A", group);
+            playMatches(group);
+            journal.detach(group);
+        }
+        FIFAWorldCupGroup rebuiltGroup = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(7, journal.replay(Map.of("A", rebuiltGroup)));
+            // changes made after the replay are appended to the same journal
+            journal.attach("A", rebuiltGroup);
+            rebuiltGroup.addMatch("Canada", "Haiti", "1-0");
+        }
+        group.addMatch("Canada", "Haiti", "1-0");
+        assertEquals(group.toString(), rebuiltGroup.toString());
+        // Haiti lost its three matches and has 2 points deducted
+        assertEquals(-2, rebuiltGroup.getTeamViewByName("Haiti").getPoints());
+        assertEquals(-4, rebuiltGroup.getTeamViewByName("Mexico").getFairPlayPoints());
+
+        FIFAWorldCupGroup groupRebuiltTwice = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(8, journal.replay(Map.of("A", groupRebuiltTwice)));
+        }
+        assertEquals(group.toString(), groupRebuiltTwice.toString());
+    }
+
+    @Test
+    public void testRemovingAnUnplayedMatchIsNotJournaled() throws IOException {
+        Path path = directory.resolve("group.journal");
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            FIFAWorldCupGroup group = createGroup();
+            journal.attach("A", group);
+            group.addMatch("Canada", "Mexico", "2-1");
+            long size = path.toFile().length();
+            long version = group.getVersion();
+            group.removeMatch("Panama", "Haiti");
+            assertEquals(size, path.toFile().length());
+            assertEquals(version, group.getVersion());
+        }
+    }
+
+    @Test
+    public void testTornAndCorruptRecordsAreDropped() throws IOException {
+        Path path = directory.resolve("group.journal");
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            FIFAWorldCupGroup group = createGroup();
+            journal.attach("A", group);
+            group.addMatch("Canada", "Mexico", "2-1");
+            group.addMatch("Panama", "Haiti", "0-0");
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 3); // the last record was only partly written
+        }
+        FIFAWorldCupGroup group = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(1, journal.replay(Map.of("A", group)));
+            journal.attach("A", group);
+            group.addMatch("Canada", "Panama", "1-1");
+        }
+        assertEquals(1, group.getTeamByName("Canada").getNumberDraws());
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1); // flips a bit of the last record
+            int lastByte = file.read();
+            file.seek(file.length() - 1);
+            file.write(lastByte ^ 1);
+        }
+        FIFAWorldCupGroup rebuiltGroup = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(1, journal.replay(Map.of("A", rebuiltGroup)));
+        }
+        assertEquals(1, rebuiltGroup.getTeamByName("Canada").getNumberWins());
+        assertEquals(0, rebuiltGroup.getTeamByName("Canada").getNumberDraws());
+    }
+
+    @Test
+    public void testTornBatchIsDroppedEntirely() throws IOException {
+        Path path = directory.resolve("group.journal");
+        long batchStart;
+        long batchEnd;
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            FIFAWorldCupGroup group = createGroup();
+            journal.attach("A", group);
+            group.addMatch("Canada", "Mexico", "2-1");
+            batchStart = path.toFile().length();
+            group.addMatches(List.of(
+                    new Group.MatchResult("Panama", "Haiti", "0-0"),
+                    new Group.MatchResult("Canada", "Panama", "1-1"),
+                    new Group.MatchResult("Mexico", "Haiti", "3-0")));
+            batchEnd = path.toFile().length();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // the batch was only written up to the middle of its matches
+            file.setLength((batchStart + batchEnd) / 2);
+        }
+        FIFAWorldCupGroup group = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(batchStart, path.toFile().length());
+            assertEquals(1, journal.replay(Map.of("A", group)));
+        }
+        assertEquals(1, group.getTeamByName("Canada").getNumberOfMatchesPlayed());
+        assertEquals(0, group.getTeamByName("Panama").getNumberOfMatchesPlayed());
+        assertEquals(0, group.getTeamByName("Haiti").getNumberOfMatchesPlayed());
+    }
+
+    @Test
+    public void testJournalIsTruncatedAtTheFirstBadRecord() throws IOException {
+        Path path = directory.resolve("group.journal");
+        long firstMatchEnd;
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            FIFAWorldCupGroup group = createGroup();
+            journal.attach("A", group);
+            group.addMatch("Canada", "Mexico", "2-1");
+            firstMatchEnd = path.toFile().length();
+            group.addMatch("Panama", "Haiti", "0-0");
+            group.addMatch("Canada", "Panama", "1-1");
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(firstMatchEnd + 8); // flips a bit of the payload of the second match
+            int firstByte = file.read();
+            file.seek(firstMatchEnd + 8);
+            file.write(firstByte ^ 1);
+        }
+        FIFAWorldCupGroup group = createGroup();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(firstMatchEnd, path.toFile().length());
+            assertEquals(1, journal.replay(Map.of("A", group)));
+        }
+        assertEquals(1, group.getTeamByName("Canada").getNumberWins());
+        assertEquals(0, group.getTeamByName("Panama").getNumberDraws());
+    }
+
+    private enum WarningCard implements Group.CardEnum {
+
+        WARNING;
+
+        @Override
+        public int getPenalty() {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes a record to a journal file, with the payload written by the given writer.
+     */
+    private static void writeRecord(DataOutputStream file, byte type, PayloadWriter payloadWriter) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(type);
+        out.writeInt(0); // the ID of the group
+        payloadWriter.write(out);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.toByteArray());
+        file.writeInt(payload.size());
+        file.writeInt((int) crc.getValue());
+        file.write(payload.toByteArray());
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @Test
+    public void testUnknownCardTypes() throws IOException {
+        Path path = directory.resolve("group.journal");
+        try (DataOutputStream file = new DataOutputStream(Files.newOutputStream(path))) {
+            file.writeInt(0x52524A31);
+            writeRecord(file, (byte) 0, out -> out.writeUTF("A"));
+            writeRecord(file, (byte) 1, out -> {
+                out.writeUTF("Canada");
+                out.writeUTF("Mexico");
+                out.writeInt(2);
+                out.writeInt(1);
+                out.writeByte(100); // no card enum has this code
+                out.writeByte(1);
+                out.writeByte(1);
+                out.writeByte(0);
+            });
+        }
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            IOException exception = assertThrows(IOException.class, () -> journal.replay(Map.of("A", createGroup())));
+            assertEquals(String.format("Unknown card type 100 in %s.", path), exception.getMessage());
+
+            FIFAWorldCupGroup group = createGroup();
+            group.addMatch("Canada", "Mexico", "2-1", List.of(WarningCard.WARNING), List.of());
+            journal.attach("B", group);
+            IllegalArgumentException cardsException = assertThrows(IllegalArgumentException.class,
+                    () -> group.addMatch("Panama", "Haiti", "0-0", List.of(WarningCard.WARNING), List.of()));
+            assertEquals("Cards of type WarningCard can not be journaled.", cardsException.getMessage());
+            journal.detach(group);
+        }
+    }
+
+    @Test
+    public void testTeamsOfAJournaledGroupCanOnlyChangeThroughTheGroup() throws IOException {
+        Path path = directory.resolve("group.journal");
+        FIFAWorldCupGroup group = createGroup();
+        playMatches(group);
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            journal.attach("A", group);
+            Team leader = group.sortedTeams()[0];
+            assertThrows(UnsupportedOperationException.class, () -> leader.setDeductedPoints(10));
+            assertThrows(UnsupportedOperationException.class, () -> leader.adjustPenaltyPoints(10));
+            group.setDeductedPoints(leader.getName(), 10);
+            journal.detach(group);
+        }
+        FIFAWorldCupGroup rebuiltGroup = createGroup();
+        playMatches(rebuiltGroup);
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            assertEquals(1, journal.replay(Map.of("A", rebuiltGroup)));
+        }
+        assertEquals(group.sortedTeams()[3].getName(), rebuiltGroup.sortedTeams()[3].getName());
+        assertEquals(group.sortedTeams()[3].getPoints(), rebuiltGroup.sortedTeams()[3].getPoints());
+    }
+
+    private static Team[] createTeams(int groupIndex) {
+        Team[] teams = new Team[4];
+        for (int seed = 1; seed <= 4; seed++) {
+            teams[seed - 1] = Team.createInstance("" + (char) ('A' + groupIndex) + seed);
+        }
+        return teams;
+    }
+
+    @Test
+    public void testConcurrentChangesToDifferentGroups() throws IOException, InterruptedException {
+        Path path = directory.resolve("groups.journal");
+        int numberOfGroups = 4;
+        List<Group> groups = new ArrayList<>();
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < numberOfGroups; i++) {
+                Team[] teams = createTeams(i);
+                Group group = new FIFAWorldCupGroup(teams);
+                journal.attach(String.valueOf(i), group);
+                groups.add(group);
+                threads.add(Thread.ofPlatform().unstarted(() -> {
+                    for (int seed1 = 0; seed1 < 4; seed1++) {
+                        for (int seed2 = seed1 + 1; seed2 < 4; seed2++) {
+                            group.addMatch(teams[seed1].getName(), teams[seed2].getName(), "2-1");
+                        }
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        try (GroupJournal journal = GroupJournal.open(path)) {
+            for (int i = 0; i < numberOfGroups; i++) {
+                Group group = groups.get(i);
+                Group rebuiltGroup = new FIFAWorldCupGroup(createTeams(i));
+                journal.replay(Map.of(String.valueOf(i), rebuiltGroup));
+                assertEquals(group.toString(), rebuiltGroup.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testAttachingTwice() throws IOException {
+        try (GroupJournal journal = GroupJournal.open(directory.resolve("group.journal"))) {
+            FIFAWorldCupGroup group = createGroup();
+            journal.attach("A", group);
+            assertThrows(IllegalArgumentException.class, () -> journal.attach("B", group));
+            journal.detach(group);
+            group.addMatch("Canada", "Mexico", "2-1"); // no longer journaled
+        }
+        FIFAWorldCupGroup group = createGroup();
+        try (GroupJournal journal = GroupJournal.open(directory.resolve("group.journal"))) {
+            assertEquals(0, journal.replay(Map.of("A", group)));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupSimulatorTest {
+
+    @Test
+    public void testRemainingMatches() {
+        assertEquals(2, new GroupSimulator(TestGroups.groupB2022()).getNumberOfRemainingMatches());
+        TeamFactory factory = new TeamFactory();
+        PremierLeague pl = new PremierLeague(new Team[]{factory.createTeam("Arsenal"),
+                factory.createTeam("Chelsea"), factory.createTeam("Liverpool")});
+        pl.addMatch("Arsenal", "Chelsea", "1-0");
+        // the return match between Chelsea and Arsenal is still to be played
+        assertEquals(5, new GroupSimulator(pl).getNumberOfRemainingMatches());
+    }
+
+    @Test
+    public void testCompleteGroup() {
+        FIFAWorldCupGroup group = TestGroups.groupB2022();
+        group.addMatch("Wales", "England", "0-3");
+        group.addMatch("Iran", "USA", "0-1");
+        GroupSimulator.Result result = new GroupSimulator(group).simulate(1000, 1);
+        assertEquals(1.0, result.getPositionProbability("England", 1));
+        assertEquals(1.0, result.getPositionProbability("USA", 2));
+        assertEquals(1.0, result.getPositionProbability("Iran", 3));
+        assertEquals(1.0, result.getPositionProbability("Wales", 4));
+    }
+
+    @Test
+    public void testProbabilities() {
+        GroupSimulator.Result result = new GroupSimulator(TestGroups.groupB2022()).simulate(100_000, 2022);
+        for (String teamName : result.getTeamNames()) {
+            double sum = 0;
+            for (double probability : result.getPositionProbabilities(teamName)) {
+                sum += probability;
+            }
+            assertEquals(1.0, sum, 1e-9);
+        }
+        // England can not finish last with 4 points and a goal difference of +4
+        assertEquals(0, result.getPositionCount("England", 4));
+        assertTrue(result.getPositionProbability("England", 1) > result.getPositionProbability("Wales", 1));
+        assertThrows(IllegalArgumentException.class, () -> result.getPositionCount("Qatar", 1));
+        assertThrows(IllegalArgumentException.class, () -> result.getPositionCount("England", 5));
+    }
+
+    @Test
+    public void testReproducibleWhateverTheNumberOfThreads() {
+        GroupSimulator simulator = new GroupSimulator(TestGroups.groupB2022());
+        long numberOfSeasons = 5 * GroupSimulator.CHUNK_SIZE + 123;
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            GroupSimulator.Result result1 = simulator.simulate(numberOfSeasons, 7, singleThreadPool);
+            GroupSimulator.Result result2 = simulator.simulate(numberOfSeasons, 7, pool);
+            for (String teamName : result1.getTeamNames()) {
+                for (int position = 1; position <= 4; position++) {
+                    assertEquals(result1.getPositionCount(teamName, position),
+                            result2.getPositionCount(teamName, position));
+                }
+            }
+        } finally {
+            singleThreadPool.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameResultWhateverThePolicy() {
+        GroupSimulator simulator = new GroupSimulator(TestGroups.groupB2022());
+        long numberOfSeasons = 3 * GroupSimulator.CHUNK_SIZE + 45;
+        GroupSimulator.Result sequentialResult = simulator.simulate(numberOfSeasons, 11, ExecutionPolicy.sequential());
+        GroupSimulator.Result virtualThreadResult =
+                simulator.simulate(numberOfSeasons, 11, ExecutionPolicy.virtualThreads());
+        assertEquals(sequentialResult.toString(), virtualThreadResult.toString());
+        assertEquals(sequentialResult.toString(), simulator.simulate(numberOfSeasons, 11).toString());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GroupSimulator(TestGroups.groupB2022(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new GroupSimulator(TestGroups.groupB2022()).simulate(0, 1));
+    }
+}
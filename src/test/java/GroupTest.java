@@ -1,27 +1,21 @@
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GroupTest {
 
-    @BeforeEach
-    public void setUp() {
-        Team.resetStaticState();
-    }
-
-    @AfterEach
-    public void tearDown() {
-        Team.resetStaticState();
-    }
-
     /**
      * Constructs a new FIFAWorldCupGroup that represents Group C from the 2022 FIFA World Cup.
      * Its teams are Argentina, Saudi Arabia, Poland and Mexico.
@@ -311,6 +305,68 @@ public class GroupTest {
                 pl.getTeamByName("Chelsea").getMatches());
     }
 
+    @Test
+    public void testAddMatches() {
+        PremierLeague pl = premierLeague();
+        pl.addMatches(List.of(
+                new Group.MatchResult("Manchester City", "Chelsea", "2-1"),
+                new Group.MatchResult("Arsenal", "Liverpool", "0-0",
+                        List.of(PremierLeague.Card.YELLOW), List.of()),
+                new Group.MatchResult("Manchester City", "Chelsea", "3-1")));
+        assertEquals(Set.of(new Team.Match("Chelsea", "3-1", false)),
+                pl.getTeamByName("Manchester City").getMatches());
+        assertEquals(Set.of(new Team.Match("Manchester City", "1-3", true)),
+                pl.getTeamByName("Chelsea").getMatches());
+        assertEquals(Set.of(new Team.Match("Liverpool", "0-0", false,
+                        List.of(PremierLeague.Card.YELLOW), List.of())),
+                pl.getTeamByName("Arsenal").getMatches());
+        assertEquals(1, pl.getTeamPositionByName("Manchester City"));
+    }
+
+    @Test
+    public void testAddMatchesAllOrNothing() {
+        Group groupC2022 = groupC2022();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> groupC2022.addMatches(List.of(
+                        new Group.MatchResult("Argentina", "Saudi Arabia", "1-2"),
+                        new Group.MatchResult("Poland", "Mexico", "0 -0"),
+                        new Group.MatchResult("Argentina", "Mexico", "2-0"),
+                        new Group.MatchResult("Poland", "Australia", "2-0"),
+                        new Group.MatchResult("Poland", "Poland", "2-0", null, List.of()))));
+        assertEquals("Match result 2 (Poland vs Mexico): The score must be two nonnegative integers separated by '-'.\n" +
+                "Match result 4 (Poland vs Australia): Team names must be among the ones in the group.\n" +
+                "Match result 5 (Poland vs Poland): List of cards can not be null.", exception.getMessage());
+        // none of the valid matches was added
+        assertEquals(Set.of(), groupC2022.getTeamByName("Argentina").getMatches());
+        assertEquals(Set.of(), groupC2022.getTeamByName("Saudi Arabia").getMatches());
+    }
+
+    @Test
+    public void testAddNoMatches() {
+        Group groupC2022 = groupC2022Complete();
+        long version = groupC2022.getVersion();
+        groupC2022.addMatches(List.of());
+        assertEquals(version, groupC2022.getVersion());
+    }
+
+    @Test
+    public void testAddMatchesNullValues() {
+        Group groupC2022 = groupC2022();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> groupC2022.addMatches(Arrays.asList(
+                        new Group.MatchResult("Argentina", "Saudi Arabia", "x"),
+                        new Group.MatchResult(null, "Mexico", "0-0"),
+                        new Group.MatchResult("Poland", "Mexico", null),
+                        new Group.MatchResult("Argentina", "Mexico", "2-0", List.of(), null),
+                        null)));
+        assertEquals("Match result 1 (Argentina vs Saudi Arabia): The score must be two nonnegative integers separated by '-'.\n" +
+                "Match result 2 (null vs Mexico): Team names can not be null.\n" +
+                "Match result 3 (Poland vs Mexico): The score can not be null.\n" +
+                "Match result 4 (Argentina vs Mexico): List of cards can not be null.\n" +
+                "Match result 5: The match result can not be null.", exception.getMessage());
+        assertEquals(Set.of(), groupC2022.getTeamByName("Mexico").getMatches());
+    }
+
     @Test
     public void testGetFairPlayPoints() {
         FIFAWorldCupGroup groupC2022 = groupC2022Complete();
@@ -414,6 +470,10 @@ public class GroupTest {
                         new Team.Match("Manchester City", "3-2", false),
                         new Team.Match("Arsenal", "4-1", false))),
                 pl.getTeamByName("Chelsea"));
+        assertEquals(Set.of(new Team.Match("Manchester City", "1-2", true),
+                        new Team.Match("Manchester City", "3-2", false),
+                        new Team.Match("Arsenal", "4-1", false)),
+                pl.getTeamByName("Chelsea").getMatches());
     }
 
     @Test
@@ -469,6 +529,81 @@ public class GroupTest {
         assertTrue(pl.compareTeams(arsenal, manCity) > 0);
     }
 
+    @Test
+    public void testHeadToHeadRecordSameAsSubGroup() {
+        PremierLeague pl = premierLeague();
+        pl.addMatch("Manchester City", "Chelsea", "2-1");
+        pl.addMatch("Chelsea", "Manchester City", "2-1");
+        pl.addMatch("Arsenal", "Liverpool", "1-0");
+        assertTrue(pl.havePlayedAgainst("Chelsea", "Manchester City"));
+        assertFalse(pl.havePlayedAgainst("Arsenal", "Chelsea"));
+        int[] slots = {0, 1, 2, 3};
+        Group subGroup = pl.createSubGroup(pl.teamByName("Chelsea"));
+        for (String teamName : pl.getTeamNames()) {
+            Group.HeadToHeadRecord record = pl.headToHeadRecord(pl.teamByName(teamName), slots);
+            Team team = pl.teamByName(teamName);
+            assertEquals(team.getPoints(), record.points());
+            assertEquals(team.getGoalDifference(), record.goalDifference());
+            assertEquals(team.getGoalsFor(), record.goalsFor());
+            assertEquals(team.getAwayGoals(), record.awayGoalsFor());
+        }
+        // Chelsea and Manchester City are tied on 3 points, with 3 goals for and 0 goal difference
+        int[] tiedSlots = pl.tiedSlots(pl.teamByName("Chelsea"));
+        assertEquals(2, tiedSlots.length);
+        Group.HeadToHeadRecord chelsea = pl.headToHeadRecord(pl.teamByName("Chelsea"), tiedSlots);
+        Team chelseaInSubGroup = subGroup.teamByName("Chelsea");
+        assertEquals(new Group.HeadToHeadRecord(chelseaInSubGroup.getPoints(), chelseaInSubGroup.getGoalDifference(),
+                chelseaInSubGroup.getGoalsFor(), chelseaInSubGroup.getAwayGoals()), chelsea);
+        assertEquals(new Group.HeadToHeadRecord(3, 0, 3, 1), chelsea);
+    }
+
+    /**
+     * Constructs a FIFAWorldCupGroup where every match ended 0-0, so that the four teams
+     * can only be separated by drawing of lots.
+     */
+    private FIFAWorldCupGroup createGroupTiedUntilDrawingOfLots(long seed) {
+        TeamFactory factory = new TeamFactory();
+        FIFAWorldCupGroup group = new FIFAWorldCupGroup(new Team[]{factory.createTeam("Iran"),
+                factory.createTeam("Spain"), factory.createTeam("Portugal"), factory.createTeam("Morocco")});
+        group.setLotDrawer(new RandomLotDrawer(seed));
+        group.addMatch("Iran", "Spain", "0-0");
+        group.addMatch("Portugal", "Morocco", "0-0");
+        group.addMatch("Iran", "Portugal", "0-0");
+        group.addMatch("Spain", "Morocco", "0-0");
+        group.addMatch("Iran", "Morocco", "0-0");
+        group.addMatch("Spain", "Portugal", "0-0");
+        return group;
+    }
+
+    @Test
+    public void testDrawingOfLotsConsistent() {
+        FIFAWorldCupGroup group = createGroupTiedUntilDrawingOfLots(18);
+        Team[] sortedTeams = group.sortedTeams();
+        for (int i = 0; i < sortedTeams.length; i++) {
+            assertEquals(i + 1, group.getTeamPositionByName(sortedTeams[i].getName()));
+            for (int j = i + 1; j < sortedTeams.length; j++) {
+                // the lots stay the same until the results change
+                assertTrue(group.compareTeams(sortedTeams[i].getName(), sortedTeams[j].getName()) > 0);
+                assertTrue(group.compareTeams(sortedTeams[j].getName(), sortedTeams[i].getName()) < 0);
+            }
+        }
+        assertArrayEquals(sortedTeams, group.sortedTeams());
+    }
+
+    @Test
+    public void testDrawingOfLotsReproducible() {
+        for (long seed = 0; seed < 20; seed++) {
+            assertArrayEquals(createGroupTiedUntilDrawingOfLots(seed).sortedTeams(),
+                    createGroupTiedUntilDrawingOfLots(seed).sortedTeams());
+        }
+    }
+
+    @Test
+    public void testSetLotDrawerNull() {
+        FIFAWorldCupGroup group = createGroupTiedUntilDrawingOfLots(0);
+        assertThrows(IllegalArgumentException.class, () -> group.setLotDrawer(null));
+    }
+
     // testing sortedTeams
 
     @Test
@@ -507,6 +642,87 @@ public class GroupTest {
         assertEquals(4, pl.getTeamPositionByName("Chelsea"));
     }
 
+    // testing lazy and eager ranking
+
+    /**
+     * A PremierLeague that counts how many times two teams are compared.
+     */
+    static class CountingPremierLeague extends PremierLeague {
+
+        int numberOfComparisons = 0;
+
+        CountingPremierLeague(Team[] teams) {
+            super(teams);
+        }
+
+        @Override
+        protected RankingKernel.Rules rankingRules() {
+            return null; // rank with compareTeams, so that the comparisons can be counted
+        }
+
+        @Override
+        public int compareTeams(Team team1, Team team2) {
+            numberOfComparisons++;
+            return super.compareTeams(team1, team2);
+        }
+    }
+
+    @Test
+    public void testLazyRanking() {
+        TeamFactory factory = new TeamFactory();
+        CountingPremierLeague pl = new CountingPremierLeague(new Team[]{factory.createTeam("Manchester City"),
+                factory.createTeam("Chelsea"), factory.createTeam("Arsenal"), factory.createTeam("Liverpool")});
+        pl.addMatch("Manchester City", "Chelsea", "1-0");
+        pl.addMatch("Chelsea", "Arsenal", "2-2");
+        pl.removeMatch("Chelsea", "Arsenal");
+        // nothing is ranked until the ranking is read
+        assertEquals(0, pl.numberOfComparisons);
+        assertEquals(1, pl.getTeamPositionByName("Manchester City"));
+        int numberOfComparisons = pl.numberOfComparisons;
+        assertTrue(numberOfComparisons > 0);
+        // the ranking is only computed once until the next change
+        assertEquals(4, pl.getTeamPositionByName("Chelsea"));
+        assertEquals("Manchester City", pl.sortedTeams()[0].getName());
+        assertEquals(numberOfComparisons, pl.numberOfComparisons);
+    }
+
+    @Test
+    public void testRankingWithoutTiedTeams() {
+        TeamFactory factory = new TeamFactory();
+        CountingPremierLeague pl = new CountingPremierLeague(new Team[]{factory.createTeam("Manchester City"),
+                factory.createTeam("Chelsea"), factory.createTeam("Arsenal"), factory.createTeam("Liverpool")});
+        pl.addMatch("Manchester City", "Chelsea", "1-0");
+        pl.addMatch("Arsenal", "Liverpool", "3-0");
+        assertEquals(1, pl.getTeamPositionByName("Arsenal"));
+        assertEquals(2, pl.getTeamPositionByName("Manchester City"));
+        assertEquals(3, pl.getTeamPositionByName("Chelsea"));
+        assertEquals(4, pl.getTeamPositionByName("Liverpool"));
+        // no cluster of tied teams, so the head-to-head rules are never applied
+        assertEquals(0, pl.numberOfComparisons);
+    }
+
+    @Test
+    public void testEagerRanking() {
+        TeamFactory factory = new TeamFactory();
+        CountingPremierLeague pl = new CountingPremierLeague(new Team[]{factory.createTeam("Manchester City"),
+                factory.createTeam("Chelsea"), factory.createTeam("Arsenal"), factory.createTeam("Liverpool")});
+        pl.setEagerRanking(true);
+        int numberOfComparisons = pl.numberOfComparisons;
+        pl.addMatch("Manchester City", "Chelsea", "1-0");
+        // the group is re-ranked on every change
+        assertTrue(pl.numberOfComparisons > numberOfComparisons);
+        numberOfComparisons = pl.numberOfComparisons;
+        assertEquals(1, pl.getTeamPositionByName("Manchester City"));
+        assertEquals(numberOfComparisons, pl.numberOfComparisons);
+    }
+
+    @Test
+    public void testPositionsBeforeAnyMatch() {
+        PremierLeague pl = premierLeague();
+        assertEquals(1, pl.getTeamPositionByName("Arsenal"));
+        assertEquals(1, pl.getTeamPositionByName("Liverpool"));
+    }
+
     // testing Pts, GD, GF, GA methods from the Team object but after calls of Group.addMatch
 
     @Test
@@ -582,6 +798,46 @@ public class GroupTest {
         argentina.addMatch("Australia", "2-1", false);
         // the Argentina team instance in the group should not change
         assertEquals(factory.createTeam("Argentina", Set.of()), groupC2022.getTeamByName("Argentina"));
+        assertEquals(Set.of(), groupC2022.getTeamByName("Argentina").getMatches());
+    }
+
+    @Test
+    public void testGetTeamViewByName() {
+        Group groupC2022 = groupC2022();
+        TeamView argentina = groupC2022.getTeamViewByName("Argentina");
+        assertSame(argentina, groupC2022.getTeamViewByName("Argentina"));
+        // the view reflects later changes to the group
+        groupC2022.addMatch("Argentina", "Saudi Arabia", "1-2");
+        assertEquals(Set.of(new Team.Match("Saudi Arabia", "1-2")), argentina.getMatches());
+        assertEquals(0, argentina.getPoints());
+        assertEquals(4, groupC2022.getTeamViews().size());
+    }
+
+    @Test
+    public void testTeamViewIsReadOnly() {
+        Group groupC2022 = groupC2022Complete();
+        TeamView argentina = groupC2022.getTeamViewByName("Argentina");
+        assertFalse(argentina instanceof Team);
+        Team.Match match = argentina.getMatches().iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> match.setScore("9-0"));
+        assertThrows(UnsupportedOperationException.class, () -> match.setSelfCards(List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> argentina.getMatches().clear());
+        assertEquals("1: Argentina, Pld: 3, W: 2, D: 0, L: 1, GF: 5, GA: 2, GD: +3, Pts: 6",
+                groupC2022.getTableRowByTeamName("Argentina"));
+    }
+
+    @Test
+    public void testSortedTeamsCanNotBeModified() {
+        Group groupC2022 = groupC2022Complete();
+        Team argentina = groupC2022.sortedTeams()[0];
+        assertThrows(UnsupportedOperationException.class, () -> argentina.setDeductedPoints(10));
+        assertThrows(UnsupportedOperationException.class, () -> argentina.adjustPenaltyPoints(10));
+        assertThrows(UnsupportedOperationException.class, () -> argentina.addMatch("Poland", "9-0", false));
+        assertEquals("Argentina", groupC2022.sortedTeams()[0].getName());
+        // deducted points are changed through the group, which ranks the teams again
+        groupC2022.setDeductedPoints("Argentina", 10);
+        assertEquals(-4, argentina.getPoints());
+        assertEquals(4, groupC2022.getTeamPositionByName("Argentina"));
     }
 
     @Test
@@ -637,6 +893,27 @@ public class GroupTest {
         assertTrue(pl.isComplete());
     }
 
+    @Test
+    public void testTeamLookupAfterReordering() {
+        PremierLeague pl = premierLeague();
+        pl.addMatch("Liverpool", "Manchester City", "3-0");
+        pl.addMatch("Arsenal", "Chelsea", "1-0");
+        pl.addMatch("Chelsea", "Liverpool", "5-0");
+        // the lookups by name must follow the teams through every re-ranking
+        assertEquals(1, pl.getTeamPositionByName("Chelsea"));
+        assertEquals(4, pl.getTeamPositionByName("Manchester City"));
+        assertEquals(3, pl.getTeamByName("Chelsea").getPoints());
+        assertEquals(-3, pl.getTeamByName("Manchester City").getGoalDifference());
+    }
+
+    @Test
+    public void testGetTeamPositionByNameNotPresent() {
+        PremierLeague pl = premierLeague();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> pl.getTeamPositionByName("Real Madrid"));
+        assertEquals("No team of name Real Madrid is in this group.", exception.getMessage());
+    }
+
     // testing specific methods for two-legged tournaments: home and away matches and goals
 
     @Test
@@ -677,4 +954,68 @@ public class GroupTest {
         assertEquals("4: Saudi Arabia, Pld: 3, W: 1, D: 0, L: 2, GF: 3, GA: 5, GD: -2, Pts: 3",
                 groupC2022.getTableRowByTeamName("Saudi Arabia"));
     }
-}
\ No newline at end of file
+
+    // testing concurrent construction of teams and groups
+
+    @Test
+    public void testConcurrentGroupConstruction() throws InterruptedException {
+        TeamFactory sharedFactory = new TeamFactory();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Team> sharedTeams = new ConcurrentLinkedQueue<>();
+        int numberOfTasks = 400;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < numberOfTasks; i++) {
+            int task = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    sharedTeams.add(sharedFactory.createTeam("Argentina"));
+                    switch (task % 3) {
+                        case 0 -> {
+                            // valid data must never fail because of another thread's errors
+                            Group group = groupC2022Complete();
+                            String row = group.getTableRowByTeamName("Argentina");
+                            if (!row.equals("1: Argentina, Pld: 3, W: 2, D: 0, L: 1, GF: 5, GA: 2, GD: +3, Pts: 6")) {
+                                failures.add("Unexpected table row: " + row);
+                            }
+                        }
+                        case 1 -> {
+                            // an invalid score must be reported with its own message
+                            try {
+                                new TeamFactory().createTeam("Germany", Set.of(new Team.Match("Japan", "1- 2")));
+                                failures.add("Invalid score accepted.");
+                            } catch (IllegalArgumentException e) {
+                                if (!e.getMessage().equals("The score must be two non-negative integers separated by '-'.")) {
+                                    failures.add("Unexpected message: " + e.getMessage());
+                                }
+                            }
+                        }
+                        default -> {
+                            // a team playing against itself must be reported with its own message
+                            try {
+                                Team germany = new TeamFactory().createTeam("Germany");
+                                germany.addMatch("Germany", "2-3", false);
+                                failures.add("Match against itself accepted.");
+                            } catch (IllegalArgumentException e) {
+                                if (!e.getMessage().equals("All opponents' names should be different from the team's name.")) {
+                                    failures.add("Unexpected message: " + e.getMessage());
+                                }
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.add(e.toString());
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        assertEquals(List.of(), new ArrayList<>(failures));
+        // the shared factory must have handed out a single instance
+        assertEquals(numberOfTasks, sharedTeams.size());
+        Team first = sharedTeams.peek();
+        assertTrue(sharedTeams.stream().allMatch(t -> t == first));
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchStoreTest {
+
+    private static final String[] TEAM_NAMES = {"Arsenal", "Chelsea", "Liverpool", "Manchester City"};
+
+    @Test
+    public void testReplaceAndRemoveKeepTotalsAndOrder() {
+        MatchStore store = new MatchStore(TEAM_NAMES, 2);
+        store.putMatch(0, 1, 2, 1, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        store.putMatch(1, 0, 0, 0, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        store.putMatch(2, 3, 1, 3, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        store.putMatch(0, 1, 1, 1, CardTally.NO_CARDS, CardTally.NO_CARDS); // replaces the first match
+        assertEquals(3, store.getNumberOfMatches());
+        assertEquals(2, store.getNumberDraws(0));
+        assertEquals(0, store.getNumberWins(0));
+        assertEquals(3, store.getAwayGoalsFor(3));
+        assertEquals(1, store.getLeg(1)); // hosted by the team of higher slot
+        store.removeMatch(0, 1);
+        assertEquals(2, store.getNumberOfMatches());
+        assertEquals(-1, store.findMatch(0, 1));
+        assertTrue(store.havePlayedAgainst(0, 1));
+        // the remaining matches keep their order
+        assertEquals(1, store.getHomeSlot(0));
+        assertEquals(2, store.getHomeSlot(1));
+        assertEquals(1, store.findMatch(2, 3));
+        assertEquals(1, store.getNumberOfMatchesPlayed(0));
+        assertEquals(1, store.getNumberOfAwayMatchesPlayed(0));
+    }
+
+    @Test
+    public void testSingleLeggedFixtureIgnoresOrderOfTeams() {
+        MatchStore store = new MatchStore(TEAM_NAMES, 1);
+        store.putMatch(0, 1, 2, 1, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        store.putMatch(1, 0, 1, 1, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        assertEquals(1, store.getNumberOfMatches());
+        assertEquals(0, store.findMatch(0, 1));
+        assertEquals(1, store.getNumberDraws(0));
+        assertEquals(0, store.getAwayGoalsFor(0));
+        store.removeMatch(0, 1);
+        assertEquals(0, store.getNumberOfMatches());
+        assertEquals(0, store.getNumberOfMatchesPlayed(1));
+    }
+
+    @Test
+    public void testRestrictTo() {
+        MatchStore store = new MatchStore(TEAM_NAMES, 2);
+        store.putMatch(0, 1, 2, 1, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        store.putMatch(3, 0, 0, 4, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        store.putMatch(1, 3, 5, 0, CardTally.NO_CARDS, CardTally.NO_CARDS);
+        MatchStore subStore = store.restrictTo(new int[]{3, 1});
+        assertEquals(1, subStore.getNumberOfMatches());
+        assertEquals(0, subStore.slotOf("Manchester City"));
+        assertEquals(-1, subStore.slotOf("Arsenal"));
+        assertEquals(0, subStore.findMatch(1, 0));
+        assertEquals(5, subStore.getGoalsFor(1));
+        assertEquals(5, subStore.getGoalsAgainst(0));
+    }
+
+    @Test
+    public void testGroupTeamsAreViewsOverTheStore() {
+        TeamFactory factory = new TeamFactory();
+        Team arsenal = factory.createTeam("Arsenal", Set.of(new Team.Match("Chelsea", "3-1", true)));
+        Team[] teams = {arsenal, factory.createTeam("Chelsea"), factory.createTeam("Liverpool"),
+                factory.createTeam("Manchester City")};
+        PremierLeague pl = new PremierLeague(teams);
+        // a match recorded by one team only counts for both teams
+        assertEquals(Set.of(new Team.Match("Arsenal", "1-3", false)), pl.getTeamByName("Chelsea").getMatches());
+        pl.addMatch("Arsenal", "Liverpool", "0-2");
+        Team arsenalInGroup = pl.teamByName("Arsenal");
+        assertEquals(Set.of(new Team.Match("Chelsea", "3-1", true), new Team.Match("Liverpool", "0-2")),
+                arsenalInGroup.getMatches());
+        assertEquals(Set.of(new Team.Match("Liverpool", "0-2")), arsenalInGroup.getHomeMatches());
+        assertEquals(3, arsenalInGroup.getAwayGoals());
+        assertThrows(UnsupportedOperationException.class,
+                () -> arsenalInGroup.addMatch("Manchester City", "1-0", false));
+        assertThrows(UnsupportedOperationException.class,
+                () -> arsenalInGroup.removeMatchByOpponentName("Liverpool", false));
+        // copies are standalone teams
+        Team copy = arsenalInGroup.clone();
+        copy.addMatch("Manchester City", "1-0", false);
+        assertEquals(3, copy.getNumberOfMatchesPlayed());
+        assertEquals(2, arsenalInGroup.getNumberOfMatchesPlayed());
+    }
+}
@@ -43,6 +43,29 @@ public class MatchTest {
         assertEquals("The score must be two non-negative integers separated by '-'.", exception.getMessage());
     }
 
+    @Test
+    public void testConstructorInvalidScoreTwoHyphens() throws IllegalArgumentException {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Team.Match("Japan", "1-2-3"));
+        assertEquals("The score must be two non-negative integers separated by '-'.", exception.getMessage());
+    }
+
+    @Test
+    public void testConstructorInvalidScoreTooManyGoals() throws IllegalArgumentException {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Team.Match("Japan", "2147483648-0"));
+        assertEquals("The score must be two non-negative integers separated by '-'.", exception.getMessage());
+    }
+
+    @Test
+    public void testParseScore() {
+        assertEquals((10L << 32) | 20, Team.Match.parseScore("10-20"));
+        assertEquals(0L, Team.Match.parseScore("0-0"));
+        assertTrue(Team.Match.parseScore("02-1") < 0);
+        assertTrue(Team.Match.parseScore("3-00") < 0);
+        assertTrue(Team.Match.parseScore("5s-3") < 0);
+    }
+
     @Test
     public void testConstructorCards() {
         Team.Match match = new Team.Match("Japan", "3-2",
@@ -51,6 +74,22 @@ public class MatchTest {
         assertEquals(List.of(FIFAWorldCupGroup.Card.DIRECT_RED), match.getOpponentCards());
     }
 
+    @Test
+    public void testCardsAreTallied() {
+        Team.Match match = new Team.Match("Japan", "3-2",
+                List.of(FIFAWorldCupGroup.Card.DIRECT_RED, FIFAWorldCupGroup.Card.YELLOW, FIFAWorldCupGroup.Card.YELLOW),
+                List.of());
+        // cards are listed by kind, whatever the order they were given in
+        assertEquals(List.of(FIFAWorldCupGroup.Card.YELLOW, FIFAWorldCupGroup.Card.YELLOW,
+                FIFAWorldCupGroup.Card.DIRECT_RED), match.getSelfCards());
+        assertEquals(new Team.Match("Japan", "3-2", List.of(FIFAWorldCupGroup.Card.YELLOW,
+                FIFAWorldCupGroup.Card.DIRECT_RED, FIFAWorldCupGroup.Card.YELLOW), List.of()), match);
+        assertEquals(-6, CardTally.penaltyOf(match.getSelfCardTally()));
+        assertEquals(CardTally.NO_CARDS, match.getOpponentCardTally());
+        assertThrows(IllegalArgumentException.class, () -> match.setOpponentCards(
+                List.of(FIFAWorldCupGroup.Card.YELLOW, UEFAEuroGroup.Card.YELLOW)));
+    }
+
     @Test
     public void testSetScore() {
         Team.Match match = new Team.Match("Japan", "3-2");
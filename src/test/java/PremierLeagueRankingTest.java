@@ -1,2 +1,147 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalInt;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class PremierLeagueRankingTest {
+
+    private static final String[] TEAM_NAMES = {"Arsenal", "Chelsea", "Liverpool", "Manchester City",
+            "Manchester United", "Tottenham Hotspur"};
+
+    private static PremierLeague createLeague(int numberOfTeams) {
+        TeamFactory factory = new TeamFactory();
+        Team[] teams = new Team[numberOfTeams];
+        for (int i = 0; i < numberOfTeams; i++) {
+            teams[i] = factory.createTeam(i < TEAM_NAMES.length ? TEAM_NAMES[i] : "Team " + i);
+        }
+        return new PremierLeague(teams);
+    }
+
+    /**
+     * Finds the best and worst positions on points of every team by trying every outcome of the remaining matches.
+     *
+     * @return For each slot, {best position, worst position}.
+     */
+    private static int[][] bruteForcePositions(PremierLeague league) {
+        int[] points = league.getTeamViews().stream().mapToInt(TeamView::getPoints).toArray();
+        int[][] fixtures = league.remainingFixtures();
+        int[][] positions = new int[points.length][];
+        for (int slot = 0; slot < points.length; slot++) {
+            positions[slot] = new int[]{Integer.MAX_VALUE, 0};
+        }
+        int numberOfScenarios = (int) Math.pow(3, fixtures.length);
+        for (int scenario = 0; scenario < numberOfScenarios; scenario++) {
+            int[] finalPoints = points.clone();
+            int outcomes = scenario;
+            for (int[] fixture : fixtures) {
+                switch (outcomes % 3) {
+                    case 0 -> finalPoints[fixture[0]] += 3;
+                    case 1 -> { finalPoints[fixture[0]]++; finalPoints[fixture[1]]++; }
+                    default -> finalPoints[fixture[1]] += 3;
+                }
+                outcomes /= 3;
+            }
+            for (int slot = 0; slot < points.length; slot++) {
+                int above = 0;
+                int tied = 0;
+                for (int other = 0; other < points.length; other++) {
+                    if (other != slot && finalPoints[other] > finalPoints[slot]) {
+                        above++;
+                    } else if (other != slot && finalPoints[other] == finalPoints[slot]) {
+                        tied++;
+                    }
+                }
+                positions[slot][0] = Math.min(positions[slot][0], above + 1);
+                positions[slot][1] = Math.max(positions[slot][1], above + tied + 1);
+            }
+        }
+        return positions;
+    }
+
+    @Test
+    public void testPossiblePositionsAgainstBruteForce() {
+        SplittableRandom random = new SplittableRandom(38);
+        for (int run = 0; run < 300; run++) {
+            int numberOfTeams = 3 + random.nextInt(3);
+            PremierLeague league = createLeague(numberOfTeams);
+            int numberOfRemainingMatches = numberOfTeams * (numberOfTeams - 1);
+            // leave at most 8 matches to be played
+            for (int home = 0; home < numberOfTeams; home++) {
+                for (int away = 0; away < numberOfTeams; away++) {
+                    if (home != away && (numberOfRemainingMatches > 8 || random.nextBoolean())) {
+                        league.addMatch(TEAM_NAMES[home], TEAM_NAMES[away], random.nextInt(3) + "-" + random.nextInt(3));
+                        numberOfRemainingMatches--;
+                    }
+                }
+            }
+            int[][] positions = bruteForcePositions(league);
+            for (int slot = 0; slot < numberOfTeams; slot++) {
+                assertEquals(OptionalInt.of(positions[slot][0]), league.getBestPossiblePosition(TEAM_NAMES[slot]));
+                assertEquals(OptionalInt.of(positions[slot][1]), league.getWorstPossiblePosition(TEAM_NAMES[slot]));
+            }
+        }
+    }
+
+    @Test
+    public void testClinchAndElimination() {
+        PremierLeague league = createLeague(4);
+        league.addMatch("Arsenal", "Chelsea", "2-0");
+        league.addMatch("Arsenal", "Liverpool", "3-1");
+        league.addMatch("Arsenal", "Manchester City", "1-0");
+        league.addMatch("Chelsea", "Arsenal", "0-1");
+        league.addMatch("Liverpool", "Arsenal", "0-2");
+        league.addMatch("Chelsea", "Liverpool", "1-1");
+        league.addMatch("Liverpool", "Chelsea", "2-2");
+        // Arsenal have 15 points, Manchester City can only tie them by winning all their matches
+        assertFalse(league.hasClinchedTop("Arsenal", 1));
+        assertTrue(league.hasClinchedTop("Arsenal", 2));
+        assertFalse(league.canStillFinishFirst("Chelsea"));
+        assertTrue(league.canStillFinishInTop("Chelsea", 2));
+        assertEquals(OptionalInt.of(1), league.getBestPossiblePosition("Arsenal"));
+        // Manchester City can tie Arsenal on 15 points
+        assertEquals(OptionalInt.of(1), league.getBestPossiblePosition("Manchester City"));
+        assertEquals(OptionalInt.of(4), league.getWorstPossiblePosition("Manchester City"));
+        // with 4 teams, only the last team is relegated
+        assertEquals(1, league.getTeamViews().size() - PremierLeague.NUMBER_OF_RELEGATED_TEAMS);
+        assertFalse(league.canStillAvoidRelegation("Liverpool"));
+        assertThrows(IllegalArgumentException.class, () -> league.getBestPossiblePosition("Everton"));
+    }
+
+    @Test
+    public void testPossiblePositionsFullLeague() {
+        SplittableRandom random = new SplittableRandom(2024);
+        PremierLeague league = createLeague(20);
+        // play the first half of the season
+        for (int home = 0; home < 20; home++) {
+            for (int away = 0; away < 20; away++) {
+                String homeName = home < TEAM_NAMES.length ? TEAM_NAMES[home] : "Team " + home;
+                String awayName = away < TEAM_NAMES.length ? TEAM_NAMES[away] : "Team " + away;
+                if (home != away && random.nextBoolean()) {
+                    league.addMatch(homeName, awayName, random.nextInt(4) + "-" + random.nextInt(3));
+                }
+            }
+        }
+        for (TeamView team : league.getTeamViews()) {
+            OptionalInt best = league.getBestPossiblePosition(team.getName());
+            OptionalInt worst = league.getWorstPossiblePosition(team.getName());
+            int current = league.getTeamPositionByName(team.getName());
+            // unproven positions are reported as unknown, and the queries then fail safe
+            assertTrue(best.isEmpty() ? league.canStillFinishInTop(team.getName(), 1) : best.getAsInt() <= current);
+            assertTrue(worst.isEmpty() ? !league.hasClinchedTop(team.getName(), 20) : current <= worst.getAsInt());
+        }
+    }
+
+    @Test
+    public void testUnprovenPositionsAreUnknown() {
+        // every match is left to play, and the other teams can all catch up with the leader
+        int[] points = {12, 0, 0, 0};
+        int[][] fixtures = createLeague(4).remainingFixtures();
+        assertEquals(OptionalInt.of(1), new EliminationSolver(points, fixtures).bestPossiblePosition(1));
+        assertEquals(OptionalInt.of(4), new EliminationSolver(points, fixtures).worstPossiblePosition(0));
+        // trying no set of teams proves nothing
+        assertEquals(OptionalInt.empty(), new EliminationSolver(points, fixtures, 0).bestPossiblePosition(1));
+        assertEquals(OptionalInt.empty(), new EliminationSolver(points, fixtures, 0).worstPossiblePosition(0));
+    }
 }
@@ -0,0 +1,29 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomLotDrawerTest {
+
+    @Test
+    public void testDrawLotsIsPermutation() {
+        RandomLotDrawer drawer = new RandomLotDrawer(7);
+        for (int numberOfTeams = 0; numberOfTeams <= 20; numberOfTeams++) {
+            int[] lots = drawer.drawLots(numberOfTeams);
+            Arrays.sort(lots);
+            for (int i = 0; i < numberOfTeams; i++) {
+                assertEquals(i, lots[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSameSeedSameLots() {
+        RandomLotDrawer drawer1 = new RandomLotDrawer(2022);
+        RandomLotDrawer drawer2 = new RandomLotDrawer(2022);
+        for (int i = 0; i < 100; i++) {
+            assertArrayEquals(drawer1.drawLots(4), drawer2.drawLots(4));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankingKernelTest {
+
+    private static final String[] TEAM_NAMES = {"Germany", "Hungary", "Scotland", "Switzerland"};
+
+    /**
+     * Plays every match of a complete single-legged group with random scores and cards,
+     * on two groups: one ranked by the kernel, the other by compareTeams.
+     * Low scores are drawn so that the tie-breakers are often needed.
+     */
+    private void assertSameRankingAsComparator(Function<Team[],Group> kernelGroupConstructor,
+                                               Function<Team[],Group> comparatorGroupConstructor,
+                                               Group.CardEnum[] cards) {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int run = 0; run < 2000; run++) {
+            Group kernelGroup = kernelGroupConstructor.apply(createTeams());
+            Group comparatorGroup = comparatorGroupConstructor.apply(createTeams());
+            kernelGroup.setLotDrawer(new RandomLotDrawer(run));
+            comparatorGroup.setLotDrawer(new RandomLotDrawer(run));
+            for (int i = 0; i < TEAM_NAMES.length; i++) {
+                for (int j = i + 1; j < TEAM_NAMES.length; j++) {
+                    String score = random.nextInt(3) + "-" + random.nextInt(3);
+                    List<Group.CardEnum> team1Cards = randomCards(random, cards);
+                    List<Group.CardEnum> team2Cards = randomCards(random, cards);
+                    kernelGroup.addMatch(TEAM_NAMES[i], TEAM_NAMES[j], score, team1Cards, team2Cards);
+                    comparatorGroup.addMatch(TEAM_NAMES[i], TEAM_NAMES[j], score, team1Cards, team2Cards);
+                }
+            }
+            Team[] kernelRanking = kernelGroup.sortedTeams();
+            Team[] comparatorRanking = comparatorGroup.sortedTeams();
+            for (int i = 0; i < TEAM_NAMES.length; i++) {
+                String teamName = comparatorRanking[i].getName();
+                assertEquals(teamName, kernelRanking[i].getName());
+                assertEquals(comparatorGroup.getTeamPositionByName(teamName),
+                        kernelGroup.getTeamPositionByName(teamName));
+            }
+        }
+    }
+
+    private static Team[] createTeams() {
+        TeamFactory factory = new TeamFactory();
+        Team[] teams = new Team[TEAM_NAMES.length];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = factory.createTeam(TEAM_NAMES[i]);
+        }
+        return teams;
+    }
+
+    private static List<Group.CardEnum> randomCards(SplittableRandom random, Group.CardEnum[] cards) {
+        List<Group.CardEnum> randomCards = new ArrayList<>();
+        int numberOfCards = random.nextInt(3);
+        for (int i = 0; i < numberOfCards; i++) {
+            randomCards.add(cards[random.nextInt(cards.length)]);
+        }
+        return randomCards;
+    }
+
+    @Test
+    public void testSameRankingAsFIFAWorldCupGroup() {
+        assertSameRankingAsComparator(FIFAWorldCupGroup::new, teams -> new FIFAWorldCupGroup(teams) {
+            @Override
+            protected RankingKernel.Rules rankingRules() {
+                return null;
+            }
+        }, FIFAWorldCupGroup.Card.values());
+    }
+
+    @Test
+    public void testSameRankingAsUEFAEuroGroup() {
+        assertSameRankingAsComparator(UEFAEuroGroup::new, teams -> new UEFAEuroGroup(teams) {
+            @Override
+            protected RankingKernel.Rules rankingRules() {
+                return null;
+            }
+        }, UEFAEuroGroup.Card.values());
+    }
+
+    @Test
+    public void testSameRankingAsPremierLeague() {
+        assertSameRankingAsComparator(PremierLeague::new, teams -> new PremierLeague(teams) {
+            @Override
+            protected RankingKernel.Rules rankingRules() {
+                return null;
+            }
+        }, PremierLeague.Card.values());
+    }
+
+    @Test
+    public void testRankDirectly() {
+        RankingKernel kernel = new RankingKernel(RankingKernel.Rules.FIFA_WORLD_CUP, 4);
+        kernel.reset(4);
+        // 2022 FIFA World Cup, Group H: Portugal, Ghana, Uruguay, South Korea
+        kernel.addResult(2, 3, 0, 0);
+        kernel.addResult(0, 1, 3, 2);
+        kernel.addResult(3, 1, 2, 3);
+        kernel.addResult(0, 2, 2, 0);
+        kernel.addResult(3, 0, 2, 1);
+        kernel.addResult(1, 2, 0, 2);
+        kernel.rank(numberOfTeams -> fail("No lots should be drawn."));
+        assertArrayEquals(new int[]{0, 3, 2, 1}, new int[]{kernel.getRankedSlot(0),
+                kernel.getRankedSlot(1), kernel.getRankedSlot(2), kernel.getRankedSlot(3)});
+        assertEquals(2, kernel.getPosition(3));
+        // South Korea and Uruguay are only separated by goals for
+        assertEquals(4, kernel.getPoints(3));
+        assertEquals(4, kernel.getPoints(2));
+        // the kernel can be reused for another table
+        kernel.reset(2);
+        kernel.addResult(0, 1, 1, 1);
+        kernel.rank(new RandomLotDrawer(0));
+        assertNotEquals(kernel.getRankedSlot(0), kernel.getRankedSlot(1));
+        assertEquals(1, kernel.getPosition(kernel.getRankedSlot(0)));
+        assertEquals(2, kernel.getPosition(kernel.getRankedSlot(1)));
+    }
+
+    @Test
+    public void testCriteriaTooLargeForTheSortKeys() {
+        RankingKernel kernel = new RankingKernel(RankingKernel.Rules.FIFA_WORLD_CUP, 4);
+        kernel.reset(4);
+        kernel.addResult(0, 1, 1 << 20, 0);
+        kernel.addResult(2, 3, 1, 0);
+        kernel.rank(numberOfTeams -> fail("No lots should be drawn."));
+        assertArrayEquals(new int[]{0, 2, 3, 1}, new int[]{kernel.getRankedSlot(0),
+                kernel.getRankedSlot(1), kernel.getRankedSlot(2), kernel.getRankedSlot(3)});
+        FIFAWorldCupGroup group = new FIFAWorldCupGroup(new Team[]{Team.createInstance("A1"),
+                Team.createInstance("B1"), Team.createInstance("C1"), Team.createInstance("D1")});
+        group.addMatch("A1", "B1", "1048576-0");
+        group.addMatch("C1", "D1", "1-0");
+        assertEquals(1, group.getTeamPositionByName("A1"));
+        assertEquals(2, group.getTeamPositionByName("C1"));
+    }
+
+    @Test
+    public void testResetTooManyTeams() {
+        RankingKernel kernel = new RankingKernel(RankingKernel.Rules.UEFA_EURO, 4);
+        assertThrows(IllegalArgumentException.class, () -> kernel.reset(5));
+        assertThrows(IllegalArgumentException.class, () -> kernel.reset(-1));
+    }
+}
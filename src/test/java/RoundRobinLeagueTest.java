@@ -0,0 +1,223 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoundRobinLeagueTest {
+
+    private static final List<String> TEAM_NAMES = List.of("Germany", "Hungary", "Scotland", "Switzerland");
+
+    private static List<String> createTeamNames(int numberOfTeams) {
+        List<String> teamNames = new ArrayList<>();
+        for (int i = 0; i < numberOfTeams; i++) {
+            teamNames.add("Team " + i);
+        }
+        return teamNames;
+    }
+
+    private static Team[] createTeams(List<String> teamNames) {
+        TeamFactory factory = new TeamFactory();
+        return teamNames.stream().map(factory::createTeam).toArray(Team[]::new);
+    }
+
+    @Test
+    public void testSameRankingAsPremierLeague() {
+        List<String> teamNames = createTeamNames(20);
+        SplittableRandom random = new SplittableRandom(1992);
+        for (int run = 0; run < 50; run++) {
+            PremierLeague premierLeague = new PremierLeague(createTeams(teamNames));
+            RoundRobinLeague league = new RoundRobinLeague(teamNames, 2,
+                    List.of(RoundRobinLeague.TieBreaker.GOAL_DIFFERENCE, RoundRobinLeague.TieBreaker.GOALS_FOR));
+            for (String homeTeamName : teamNames) {
+                for (String awayTeamName : teamNames) {
+                    // leave some matches unplayed
+                    if (!homeTeamName.equals(awayTeamName) && random.nextInt(4) != 0) {
+                        String score = random.nextInt(3) + "-" + random.nextInt(3);
+                        premierLeague.addMatch(homeTeamName, awayTeamName, score);
+                        league.addMatch(homeTeamName, awayTeamName, score);
+                    }
+                }
+            }
+            Team[] premierLeagueRanking = premierLeague.sortedTeams();
+            String[] leagueRanking = league.sortedTeamNames();
+            for (int i = 0; i < teamNames.size(); i++) {
+                String teamName = premierLeagueRanking[i].getName();
+                assertEquals(teamName, leagueRanking[i]);
+                assertEquals(premierLeague.getTeamPositionByName(teamName), league.getTeamPositionByName(teamName));
+                assertEquals(premierLeague.getTableRowByTeamName(teamName), league.getTableRowByTeamName(teamName));
+            }
+        }
+    }
+
+    @Test
+    public void testSameRankingAsFIFAWorldCupGroup() {
+        SplittableRandom random = new SplittableRandom(2018);
+        for (int run = 0; run < 2000; run++) {
+            FIFAWorldCupGroup group = new FIFAWorldCupGroup(createTeams(TEAM_NAMES));
+            RoundRobinLeague league = new RoundRobinLeague(TEAM_NAMES, 1);
+            group.setLotDrawer(new RandomLotDrawer(run));
+            league.setLotDrawer(new RandomLotDrawer(run));
+            for (int i = 0; i < TEAM_NAMES.size(); i++) {
+                for (int j = i + 1; j < TEAM_NAMES.size(); j++) {
+                    String score = random.nextInt(3) + "-" + random.nextInt(3);
+                    group.addMatch(TEAM_NAMES.get(i), TEAM_NAMES.get(j), score);
+                    league.addMatch(TEAM_NAMES.get(i), TEAM_NAMES.get(j), score);
+                }
+            }
+            Team[] groupRanking = group.sortedTeams();
+            String[] leagueRanking = league.sortedTeamNames();
+            for (int i = 0; i < TEAM_NAMES.size(); i++) {
+                assertEquals(groupRanking[i].getName(), leagueRanking[i]);
+                assertEquals(i + 1, league.getTeamPositionByName(leagueRanking[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testTieBreakerOrder() {
+        List<RoundRobinLeague> leagues = List.of(
+                new RoundRobinLeague(TEAM_NAMES, 1, List.of(RoundRobinLeague.TieBreaker.HEAD_TO_HEAD_POINTS,
+                        RoundRobinLeague.TieBreaker.GOAL_DIFFERENCE)),
+                new RoundRobinLeague(TEAM_NAMES, 1, List.of(RoundRobinLeague.TieBreaker.GOAL_DIFFERENCE,
+                        RoundRobinLeague.TieBreaker.HEAD_TO_HEAD_POINTS)),
+                new RoundRobinLeague(TEAM_NAMES, 1, List.of()));
+        for (RoundRobinLeague league : leagues) {
+            league.addMatch("Germany", "Hungary", "1-0");
+            league.addMatch("Hungary", "Scotland", "5-0");
+            league.addMatch("Scotland", "Switzerland", "0-0");
+            league.addMatch("Germany", "Switzerland", "0-1");
+        }
+        // Germany and Hungary are level on points: Germany won their match, Hungary has the better goal difference
+        assertArrayEquals(new String[]{"Switzerland", "Germany", "Hungary", "Scotland"},
+                leagues.get(0).sortedTeamNames());
+        assertArrayEquals(new String[]{"Switzerland", "Hungary", "Germany", "Scotland"},
+                leagues.get(1).sortedTeamNames());
+        assertEquals(3, leagues.get(1).getTeamPositionByName("Germany"));
+        // without tie-breakers, they share their position
+        assertEquals(2, leagues.get(2).getTeamPositionByName("Germany"));
+        assertEquals(2, leagues.get(2).getTeamPositionByName("Hungary"));
+        assertEquals(4, leagues.get(2).getTeamPositionByName("Scotland"));
+        leagues.get(0).setDeductedPoints("Hungary", 3);
+        assertArrayEquals(new String[]{"Switzerland", "Germany", "Scotland", "Hungary"},
+                leagues.get(0).sortedTeamNames());
+        assertEquals(0, leagues.get(0).getPoints("Hungary"));
+    }
+
+    @Test
+    public void testReplaceAndRemoveMatch() {
+        RoundRobinLeague league = new RoundRobinLeague(TEAM_NAMES, 1);
+        league.addMatch("Germany", "Scotland", "5-1");
+        league.addMatch("Hungary", "Switzerland", "1-3");
+        // single-legged leagues have one fixture per pair of teams, whatever the order of the teams
+        league.addMatch("Scotland", "Germany", "1-1");
+        assertEquals(2, league.getNumberOfMatchesPlayed());
+        assertEquals(1, league.getPoints("Germany"));
+        assertEquals(1, league.getGoalsFor("Germany"));
+        league.removeMatch("Germany", "Scotland");
+        assertEquals(1, league.getNumberOfMatchesPlayed());
+        assertFalse(league.havePlayedAgainst("Scotland", "Germany"));
+        assertEquals(0, league.getNumberOfMatchesPlayed("Germany"));
+        assertEquals(0, league.getGoalDifference("Scotland"));
+        assertEquals(3, league.getPoints("Switzerland"));
+        league.removeMatch("Germany", "Scotland"); // does nothing
+        assertEquals("Switzerland", league.sortedTeamNames()[0]);
+
+        RoundRobinLeague doubleLeggedLeague = new RoundRobinLeague(TEAM_NAMES, 2);
+        doubleLeggedLeague.addMatch("Germany", "Scotland", "5-1");
+        doubleLeggedLeague.addMatch("Scotland", "Germany", "1-1");
+        assertEquals(2, doubleLeggedLeague.getNumberOfMatchesPlayed("Germany"));
+        assertEquals(4, doubleLeggedLeague.getPoints("Germany"));
+        doubleLeggedLeague.removeMatch("Germany", "Scotland");
+        assertTrue(doubleLeggedLeague.havePlayedAgainst("Germany", "Scotland"));
+        assertEquals(1, doubleLeggedLeague.getPoints("Germany"));
+    }
+
+    @Test
+    public void testManyChangesKeepTotalsConsistent() {
+        List<String> teamNames = createTeamNames(50);
+        RoundRobinLeague league = new RoundRobinLeague(teamNames, 2);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] points = new int[teamNames.size()];
+        String[][] scores = new String[teamNames.size()][teamNames.size()];
+        for (int change = 0; change < 20000; change++) {
+            int home = random.nextInt(teamNames.size());
+            int away = random.nextInt(teamNames.size());
+            if (home == away) {
+                continue;
+            }
+            if (random.nextInt(3) == 0) {
+                league.removeMatch(teamNames.get(home), teamNames.get(away));
+                scores[home][away] = null;
+            } else {
+                scores[home][away] = random.nextInt(4) + "-" + random.nextInt(4);
+                league.addMatch(teamNames.get(home), teamNames.get(away), scores[home][away]);
+            }
+        }
+        int numberOfMatches = 0;
+        for (int home = 0; home < teamNames.size(); home++) {
+            for (int away = 0; away < teamNames.size(); away++) {
+                if (scores[home][away] != null) {
+                    numberOfMatches++;
+                    String[] goals = scores[home][away].split("-");
+                    int homeGoals = Integer.parseInt(goals[0]);
+                    int awayGoals = Integer.parseInt(goals[1]);
+                    points[home] += homeGoals > awayGoals ? 3 : homeGoals == awayGoals ? 1 : 0;
+                    points[away] += awayGoals > homeGoals ? 3 : homeGoals == awayGoals ? 1 : 0;
+                }
+            }
+        }
+        assertEquals(numberOfMatches, league.getNumberOfMatchesPlayed());
+        for (int slot = 0; slot < teamNames.size(); slot++) {
+            assertEquals(points[slot], league.getPoints(teamNames.get(slot)));
+        }
+        String[] ranking = league.sortedTeamNames();
+        for (int i = 1; i < ranking.length; i++) {
+            assertTrue(league.getPoints(ranking[i-1]) >= league.getPoints(ranking[i]));
+            assertEquals(i + 1, league.getTeamPositionByName(ranking[i])); // the drawing of lots separates every team
+        }
+    }
+
+    @Test
+    public void testLargeLeague() {
+        List<String> teamNames = createTeamNames(10000);
+        RoundRobinLeague league = new RoundRobinLeague(teamNames, 2);
+        SplittableRandom random = new SplittableRandom(10000);
+        // ten rounds of a circle schedule
+        int numberOfTeams = teamNames.size();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < numberOfTeams / 2; i++) {
+                int home = (round + i) % (numberOfTeams - 1);
+                int away = (i == 0) ? numberOfTeams - 1 : (round + numberOfTeams - 1 - i) % (numberOfTeams - 1);
+                league.addMatch(teamNames.get(home), teamNames.get(away), random.nextInt(3) + "-" + random.nextInt(3));
+            }
+        }
+        assertEquals(50000, league.getNumberOfMatchesPlayed());
+        assertFalse(league.isComplete());
+        String[] ranking = league.sortedTeamNames();
+        assertEquals(1, league.getTeamPositionByName(ranking[0]));
+        for (int i = 1; i < ranking.length; i++) {
+            assertTrue(league.getPoints(ranking[i-1]) >= league.getPoints(ranking[i]));
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RoundRobinLeague(List.of("A", "A"), 1));
+        assertThrows(IllegalArgumentException.class, () -> new RoundRobinLeague(TEAM_NAMES, 3));
+        assertThrows(IllegalArgumentException.class, () -> new RoundRobinLeague(TEAM_NAMES, 1,
+                List.of(RoundRobinLeague.TieBreaker.WINS, RoundRobinLeague.TieBreaker.WINS)));
+        assertThrows(IllegalArgumentException.class, () -> new RoundRobinLeague(TEAM_NAMES, 1,
+                List.of(RoundRobinLeague.TieBreaker.DRAWING_OF_LOTS, RoundRobinLeague.TieBreaker.WINS)));
+        RoundRobinLeague league = new RoundRobinLeague(TEAM_NAMES, 1);
+        assertThrows(IllegalArgumentException.class, () -> league.addMatch("Germany", "Germany", "1-0"));
+        assertThrows(IllegalArgumentException.class, () -> league.addMatch("Germany", "Scotland", "1:0"));
+        assertThrows(IllegalArgumentException.class, () -> league.addMatch("Germany", "England", "1-0"));
+        assertThrows(IllegalArgumentException.class, () -> league.removeMatch("Germany", "England"));
+        assertThrows(IllegalArgumentException.class, () -> league.setDeductedPoints("Germany", -1));
+        assertThrows(IllegalArgumentException.class, () -> league.getTeamPositionByName("England"));
+        assertEquals(0, league.getNumberOfMatchesPlayed());
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioEnumeratorTest {
+
+    @Test
+    public void testEnumerateLastMatchday() {
+        ScenarioEnumerator.Summary summary = new ScenarioEnumerator(TestGroups.groupB2022(), 5).enumerate();
+        assertEquals(List.of("England vs Wales", "Iran vs USA"), summary.getRemainingFixtures());
+        // 36 scores for each of the two remaining matches
+        assertEquals(36 * 36, summary.getNumberOfScenarios());
+        assertEquals(summary.getNumberOfScenarios(), summary.getFinishingOrders().stream()
+                .mapToLong(ScenarioEnumerator.FinishingOrder::getNumberOfScenarios).sum());
+        // the actual final standings
+        assertTrue(summary.getFinishingOrders().stream()
+                .anyMatch(o -> o.getTeamNames().equals(List.of("England", "USA", "Iran", "Wales"))));
+        // Wales tops the group if they beat England by 5 goals and Iran do not beat USA
+        assertTrue(summary.getPossiblePositions("Wales").contains(1));
+        ScenarioEnumerator.FinishingOrder walesFirst = summary.getFinishingOrders().stream()
+                .filter(o -> o.getTeamNames().get(0).equals("Wales")).findFirst().orElseThrow();
+        assertEquals("England vs Wales: Wales win", walesFirst.getConditions().get(0));
+    }
+
+    @Test
+    public void testGoalCapZero() {
+        ScenarioEnumerator.Summary summary = new ScenarioEnumerator(TestGroups.groupB2022(), 0).enumerate();
+        assertEquals(1, summary.getNumberOfScenarios());
+        ScenarioEnumerator.FinishingOrder order = summary.getFinishingOrders().get(0);
+        // England 5 pts, Iran 4 pts, USA 3 pts, Wales 2 pts
+        assertEquals(List.of("England", "Iran", "USA", "Wales"), order.getTeamNames());
+        assertEquals(List.of("England 0-0 Wales", "Iran 0-0 USA"), order.getExampleScores());
+        assertEquals(0, order.getNumberOfScenariosDecidedByLots());
+    }
+
+    @Test
+    public void testScenariosDecidedByLots() {
+        TeamFactory factory = new TeamFactory();
+        UEFAEuroGroup group = new UEFAEuroGroup(new Team[]{factory.createTeam("Spain"),
+                factory.createTeam("Croatia"), factory.createTeam("Italy"), factory.createTeam("Albania")});
+        group.addMatch("Spain", "Croatia", "0-0");
+        group.addMatch("Italy", "Albania", "0-0");
+        group.addMatch("Croatia", "Albania", "0-0");
+        group.addMatch("Spain", "Italy", "0-0");
+        ScenarioEnumerator.Summary summary = new ScenarioEnumerator(group, 0).enumerate();
+        // every match ends 0-0 and no card is given, so only the drawing of lots separates the teams
+        assertEquals(1, summary.getFinishingOrders().get(0).getNumberOfScenariosDecidedByLots());
+    }
+
+    @Test
+    public void testEnumerateAll() {
+        List<ScenarioEnumerator.Summary> summaries =
+                ScenarioEnumerator.enumerateAll(List.of(TestGroups.groupB2022(), TestGroups.groupB2022()), 3);
+        assertEquals(2, summaries.size());
+        assertEquals(16 * 16, summaries.get(0).getNumberOfScenarios());
+        assertEquals(summaries.get(0).toString(), summaries.get(1).toString());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioEnumerator(TestGroups.groupB2022(), -1));
+        FIFAWorldCupGroup emptyGroup = new FIFAWorldCupGroup(new Team[]{new TeamFactory().createTeam("Qatar"),
+                new TeamFactory().createTeam("Ecuador"), new TeamFactory().createTeam("Senegal"),
+                new TeamFactory().createTeam("Netherlands")});
+        // six matches with up to 20 goals per team
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioEnumerator(emptyGroup, 20));
+    }
+}
@@ -1,8 +1,13 @@
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class TeamFactoryTest {
 
@@ -40,4 +45,33 @@ public class TeamFactoryTest {
         assertEquals(Set.of(new Team.Match("Japan", "1-4")), germany.getMatches());
         assertEquals(Set.of(new Team.Match("Japan", "1-4")), germany2.getMatches());
     }
+
+    @Test
+    public void testTeamIdsAreReclaimed() {
+        // a private registry that lets the test enqueue the entries of its keys, as the garbage collector would
+        List<TeamIdRegistry.KeyReference> references = new ArrayList<>();
+        TeamIdRegistry registry = new TeamIdRegistry() {
+            @Override
+            TeamIdRegistry.KeyReference newKeyReference(TeamFactory.TeamKey key,
+                                                        ReferenceQueue<TeamFactory.TeamKey> queue) {
+                TeamIdRegistry.KeyReference reference = super.newKeyReference(key, queue);
+                references.add(reference);
+                return reference;
+            }
+        };
+        TeamFactory.TeamKey keptKey = registry.teamKey("Kept Team");
+        TeamFactory.TeamKey temporaryKey = registry.teamKey("Temporary Team");
+        assertEquals(1, temporaryKey.id());
+        assertSame(temporaryKey, registry.teamKey("Temporary Team"));
+        // the temporary key is no longer reachable
+        references.get(1).clear();
+        references.get(1).enqueue();
+        assertNull(registry.findTeamKey("Temporary Team"));
+        // the ID of the reclaimed key is given to the next new name
+        TeamFactory.TeamKey replacingKey = registry.teamKey("Replacing Team");
+        TeamFactory.TeamKey newKey = registry.teamKey("New Team");
+        assertEquals(1, replacingKey.id());
+        assertEquals(2, newKey.id());
+        assertSame(keptKey, registry.findTeamKey("Kept Team"));
+    }
 }
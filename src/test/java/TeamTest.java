@@ -1,5 +1,3 @@
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -11,16 +9,6 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class TeamTest {
 
-    @BeforeEach
-    public void setUp() {
-        Team.resetStaticState();
-    }
-
-    @AfterEach
-    public void tearDown() {
-        Team.resetStaticState();
-    }
-
     // testing both constructors of Team
 
     @Test
@@ -464,6 +452,39 @@ public class TeamTest {
         assertEquals(-9, wales.getFairPlayPoints());
     }
 
+    // testing that statistics stay up to date when matches are updated or removed
+
+    @Test
+    public void testStatisticsAfterUpdateAndRemoval() {
+        TeamFactory factory = new TeamFactory();
+        Team saudiArabia = factory.createTeam("Saudi Arabia");
+        saudiArabia.addMatches(
+                new Team.Match("Argentina", "2-1"),
+                new Team.Match("Mexico", "1-2"),
+                new Team.Match("Poland", "0-2"));
+        saudiArabia.addMatch("Poland", "3-3", false);
+        saudiArabia.removeMatchByOpponentName("Argentina", false);
+        assertEquals(0, saudiArabia.getNumberWins());
+        assertEquals(1, saudiArabia.getNumberDraws());
+        assertEquals(1, saudiArabia.getNumberLosses());
+        assertEquals(1, saudiArabia.getPoints());
+        assertEquals(4, saudiArabia.getGoalsFor());
+        assertEquals(5, saudiArabia.getGoalsAgainst());
+    }
+
+    @Test
+    public void testStatisticsAfterMatchSetters() {
+        TeamFactory factory = new TeamFactory();
+        Team wales = factory.createTeam("Wales");
+        wales.addMatch("England", "0-3", true, List.of(FIFAWorldCupGroup.Card.YELLOW), List.of());
+        Team.Match match = wales.getMatches().iterator().next();
+        match.setScore("2-1");
+        match.setSelfCards(List.of(FIFAWorldCupGroup.Card.DIRECT_RED));
+        assertEquals(3, wales.getPoints());
+        assertEquals(2, wales.getAwayGoals());
+        assertEquals(-4, wales.getFairPlayPoints());
+    }
+
     // testing equality between teams
 
     @Test
@@ -481,8 +502,8 @@ public class TeamTest {
     }
 
     @Test
-    public void testTeamNotEquals() {
-        // notice that factory is not being used
+    public void testTeamEqualsIgnoresMatches() {
+        // notice that factory is not being used: teams of the same name have the same ID
         Team manCity1 = Team.createInstance("Manchester City");
         manCity1.addMatches(
                 new Team.Match("Liverpool", "1-2"),
@@ -492,7 +513,23 @@ public class TeamTest {
                 Set.of(new Team.Match("Manchester United", "4-2")));
         manCity2.addMatch("Chelsea", "3-1", false);
         manCity2.addMatch(new Team.Match("Liverpool", "1-2"));
-        assertNotEquals(manCity2, manCity1);
+        assertEquals(manCity2.getId(), manCity1.getId());
+        assertEquals(manCity2, manCity1);
+        assertEquals(manCity2.hashCode(), manCity1.hashCode());
+        assertNotEquals(manCity2.getMatches(), manCity1.getMatches());
+    }
+
+    @Test
+    public void testTeamNotEquals() {
+        TeamFactory factory = new TeamFactory();
+        Team manCity = factory.createTeam("Manchester City");
+        Team manUnited = factory.createTeam("Manchester United");
+        assertNotEquals(manCity.getId(), manUnited.getId());
+        assertNotEquals(manUnited, manCity);
+        // a match refers to its opponent by ID
+        Team.Match match = new Team.Match("Manchester United", "4-4");
+        assertEquals(manUnited.getId(), match.getOpponentId());
+        assertEquals("Manchester United", match.getOpponentName());
     }
 
     // testing home and away matches
@@ -523,6 +560,21 @@ public class TeamTest {
                 new Team.Match("Chelsea", "3-1", true)), team.getAwayMatches());
     }
 
+    @Test
+    public void testHomeAndAwayMatchesAfterUpdate() {
+        TeamFactory factory = new TeamFactory();
+        Team team = factory.createTeam("Manchester City");
+        Set<Team.Match> homeMatches = team.getHomeMatches();
+        team.addMatch("Liverpool", "1-2", true);
+        team.addMatch("Liverpool", "3-0", false);
+        team.getMatches().stream().filter(Team.Match::isAway).forEach(m -> m.setScore("2-2"));
+        // the views reflect the changes and still find matches whose score was updated
+        assertEquals(Set.of(new Team.Match("Liverpool", "3-0", false)), homeMatches);
+        assertTrue(team.getMatches().contains(new Team.Match("Liverpool", "2-2", true)));
+        assertFalse(team.getMatches().contains(new Team.Match("Liverpool", "1-2", true)));
+        assertEquals(2, team.getNumberOfMatchesPlayed());
+    }
+
     @Test
     public void testGetAwayGoals() {
         TeamFactory factory = new TeamFactory();
@@ -615,4 +667,23 @@ public class TeamTest {
         team.addMatch("Arsenal", "0-1", true);
         assertEquals("Team{name=Manchester City, matches={Match{opponentName=Chelsea, score=4-4, isAway=false, selfCards=[], opponentCards=[]}, Match{opponentName=Arsenal, score=0-1, isAway=true, selfCards=[], opponentCards=[]}}}", team.toString());
     }
+
+    @Test
+    public void testStandaloneTeamViewIsReadOnly() {
+        TeamFactory factory = new TeamFactory();
+        Team germany = factory.createTeam("Germany");
+        germany.addMatch("Japan", "2-1", false);
+        TeamView view = germany.asView();
+        Team.Match match = view.getMatches().iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> match.setScore("0-5"));
+        assertThrows(UnsupportedOperationException.class, () -> match.setSelfCards(List.of()));
+        assertThrows(UnsupportedOperationException.class,
+                () -> view.getHomeMatches().iterator().next().setOpponentCards(List.of()));
+        assertTrue(view.getMatches().contains(new Team.Match("Japan", "2-1")));
+        assertEquals(3, germany.getPoints());
+        // the team itself can still be modified, and the view reflects it
+        germany.getMatches().iterator().next().setScore("0-5");
+        assertEquals(0, view.getPoints());
+        assertEquals("0-5", view.getMatches().iterator().next().getScore());
+    }
 }
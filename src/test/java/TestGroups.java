@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The TestGroups class constructs the groups shared by several test classes.
+ *
+ * @author Daniel Luo
+ */
+final class TestGroups {
+
+    private TestGroups() {}
+
+    /**
+     * Constructs Group B from the 2022 FIFA World Cup after its first two matchdays,
+     * that is, before its last matchday. Its teams are England, Iran, USA and Wales.
+     *
+     * @return Group B of the 2022 FIFA World Cup with two matches left to play.
+     */
+    static FIFAWorldCupGroup groupB2022() {
+        TeamFactory factory = new TeamFactory();
+        FIFAWorldCupGroup group = new FIFAWorldCupGroup(new Team[]{factory.createTeam("England"),
+                factory.createTeam("Iran"), factory.createTeam("USA"), factory.createTeam("Wales")});
+        group.addMatch("England", "Iran", "6-2");
+        group.addMatch("USA", "Wales", "1-1");
+        group.addMatch("Wales", "Iran", "0-2");
+        group.addMatch("England", "USA", "0-0");
+        return group;
+    }
+
+    /**
+     * Constructs the groups of a tournament whose teams are named after their group and seed, such as "C3".
+     * In every group, the team of lower seed wins every match 1-0, except that the third seed
+     * of the group of index i beats the fourth seed (i + 1)-0.
+     *
+     * @param groupConstructor The constructor of the groups, taking their four teams.
+     * @param numberOfGroups The number of groups, named from 'A'.
+     * @return The groups, with all of their matches played.
+     */
+    static <G extends Group> List<G> tournamentGroups(Function<Team[], G> groupConstructor, int numberOfGroups) {
+        List<G> groups = new ArrayList<>();
+        for (int i = 0; i < numberOfGroups; i++) {
+            char letter = (char) ('A' + i);
+            Team[] teams = new Team[4];
+            for (int seed = 1; seed <= 4; seed++) {
+                teams[seed - 1] = Team.createInstance("" + letter + seed);
+            }
+            G group = groupConstructor.apply(teams);
+            for (int seed1 = 1; seed1 <= 4; seed1++) {
+                for (int seed2 = seed1 + 1; seed2 <= 4; seed2++) {
+                    String score = seed1 == 3 ? (i + 1) + "-0" : "1-0";
+                    group.addMatch("" + letter + seed1, "" + letter + seed2, score);
+                }
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+}
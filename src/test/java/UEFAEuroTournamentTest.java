@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UEFAEuroTournamentTest {
+
+    private static List<UEFAEuroGroup> createGroups() {
+        return TestGroups.tournamentGroups(UEFAEuroGroup::new, UEFAEuroTournament.NUMBER_OF_GROUPS);
+    }
+
+    @Test
+    public void testThirdPlacedOpponents() {
+        UEFAEuroTournament euro = new UEFAEuroTournament(createGroups());
+        assertEquals(List.of("F3", "E3", "D3", "C3"),
+                euro.getBestThirdPlacedTeams().stream().map(Tournament.ThirdPlacedTeam::teamName).toList());
+        assertEquals(0b111100, euro.getQualifiedGroupsMask());
+        // as at Euro 2024, where the third-placed teams of groups C, D, E and F qualified
+        assertEquals(Map.of('B', "F3", 'C', "E3", 'E', "D3", 'F', "C3"), euro.getThirdPlacedOpponents());
+    }
+
+    @Test
+    public void testNumberOfWinsBeforeFairPlay() {
+        List<UEFAEuroGroup> groups = createGroups();
+        UEFAEuroTournament euro = new UEFAEuroTournament(groups);
+        // A3 draws its three matches: same points, goal difference and goals as B3, but fewer wins
+        groups.get(0).addMatch("A1", "A3", "1-1");
+        groups.get(0).addMatch("A2", "A3", "1-1");
+        groups.get(0).addMatch("A3", "A4", "0-0");
+        List<Tournament.ThirdPlacedTeam> thirdPlacedTeams = euro.rankThirdPlacedTeams();
+        assertEquals(new Tournament.ThirdPlacedTeam('A', "A3", 3, 0, 2, 0, 0), thirdPlacedTeams.get(5));
+        assertEquals("B3", thirdPlacedTeams.get(4).teamName());
+    }
+
+    @Test
+    public void testLookupTableCoversEveryCombination() {
+        int numberOfCombinations = 0;
+        for (int mask = 0; mask < 1 << UEFAEuroTournament.NUMBER_OF_GROUPS; mask++) {
+            int opponents = UEFAEuroTournament.thirdPlacedOpponents(mask);
+            if (Integer.bitCount(mask) != UEFAEuroTournament.NUMBER_OF_BEST_THIRD_PLACED_TEAMS) {
+                assertEquals(-1, opponents);
+                continue;
+            }
+            numberOfCombinations++;
+            int opponentsMask = 0;
+            for (int winner = 0; winner < 4; winner++) {
+                int group = UEFAEuroTournament.opponentGroupOf(opponents, winner);
+                // a winner never faces the third-placed team of its own group
+                assertNotEquals(UEFAEuroTournament.WINNERS_FACING_THIRD_PLACED_TEAMS.get(winner), (char) ('A' + group));
+                opponentsMask |= 1 << group;
+            }
+            assertEquals(mask, opponentsMask);
+        }
+        assertEquals(15, numberOfCombinations);
+        assertEquals(-1, UEFAEuroTournament.thirdPlacedOpponents(1 << 6));
+    }
+}